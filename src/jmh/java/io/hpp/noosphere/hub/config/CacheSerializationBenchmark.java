@@ -0,0 +1,141 @@
+package io.hpp.noosphere.hub.config;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.SerializationServiceSupport;
+import io.hpp.noosphere.hub.domain.Authority;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.security.AuthoritiesConstants;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Serializes a cached user with Java serialization, as before the Compact serializers, and with the serializers of
+ * {@link CacheConfiguration}. The serialize benchmarks report the payload size of the user as the {@code javaBytes} and
+ * {@code compactBytes} secondary results.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=CacheSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheSerializationBenchmark {
+
+    private HazelcastInstance javaInstance;
+    private HazelcastInstance compactInstance;
+    private SerializationService java;
+    private SerializationService compact;
+    private User user;
+    private Data javaData;
+    private Data compactData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        javaInstance = newInstance("cache-serialization-java", serializationConfig -> {});
+        compactInstance = newInstance("cache-serialization-compact", CacheConfiguration::initializeSerializationConfig);
+        java = ((SerializationServiceSupport) javaInstance).getSerializationService();
+        compact = ((SerializationServiceSupport) compactInstance).getSerializationService();
+        user = sampleUser();
+        javaData = java.toData(user);
+        compactData = compact.toData(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        javaInstance.shutdown();
+        compactInstance.shutdown();
+    }
+
+    @Benchmark
+    public Data javaSerialize(JavaPayload payload) {
+        Data data = java.toData(user);
+        payload.javaBytes = data.totalSize();
+        return data;
+    }
+
+    @Benchmark
+    public User javaDeserialize() {
+        return java.toObject(javaData);
+    }
+
+    @Benchmark
+    public Data compactSerialize(CompactPayload payload) {
+        Data data = compact.toData(user);
+        payload.compactBytes = data.totalSize();
+        return data;
+    }
+
+    @Benchmark
+    public User compactDeserialize() {
+        return compact.toObject(compactData);
+    }
+
+    private static HazelcastInstance newInstance(String clusterName, Consumer<SerializationConfig> serialization) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        serialization.accept(config.getSerializationConfig());
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    private static User sampleUser() {
+        User user = new User();
+        user.setId("0b6c2c1e-4b8e-4c55-a0a4-3c9f0f6b5d21");
+        user.setLogin("benchmark");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setName("Bench Mark");
+        user.setEmail("benchmark@localhost");
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setImageUrl("https://localhost/benchmark.png");
+        user.setApiKey("0f9d7c5b3a1e4f2d8c6b4a2e0d9c7b5a");
+        Set<Authority> authorities = new HashSet<>();
+        authorities.add(new Authority().name(AuthoritiesConstants.USER).setIsPersisted());
+        authorities.add(new Authority().name(AuthoritiesConstants.ADMIN).setIsPersisted());
+        user.setAuthorities(authorities);
+        user.setCreatedBy("system");
+        user.setCreatedDate(Instant.parse("2026-01-01T00:00:00Z"));
+        user.setLastModifiedBy("system");
+        user.setLastModifiedDate(Instant.parse("2026-06-01T12:30:00.123456Z"));
+        return user;
+    }
+
+    /**
+     * The size of the last Java serialized payload, reported by JMH next to the timing.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class JavaPayload {
+
+        public long javaBytes;
+    }
+
+    /**
+     * The size of the last Compact serialized payload, reported by JMH next to the timing.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CompactPayload {
+
+        public long compactBytes;
+    }
+}
@@ -1,5 +1,11 @@
 package io.hpp.noosphere.hub.config;
 
+import com.hazelcast.config.InMemoryFormat;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.repository.NameSearchBackend;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -15,6 +21,17 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
     private final Keycloak keycloak = new Keycloak();
+    private final Heartbeat heartbeat = new Heartbeat();
+    private final Liveness liveness = new Liveness();
+    private final ApiKey apiKey = new ApiKey();
+    private final Pagination pagination = new Pagination();
+    private final Datasource datasource = new Datasource();
+    private final NameSearch nameSearch = new NameSearch();
+    private final Bulk bulk = new Bulk();
+    private final OwnerCache ownerCache = new OwnerCache();
+    private final NearCache nearCache = new NearCache();
+    private final LocalCache localCache = new LocalCache();
+    private final SearchResultCache searchResultCache = new SearchResultCache();
 
     // jhipster-needle-application-properties-property
 
@@ -39,4 +56,231 @@ public class ApplicationProperties {
 
     }
 
+    @Data
+    public static class Heartbeat {
+
+        /**
+         * Buffer keep-alive heartbeats in memory and write them in batches instead of one transaction per heartbeat.
+         */
+        private Boolean writeBehind = true;
+        /**
+         * Delay between two flushes, i.e. the maximum staleness accepted for {@code agent_status.last_keep_alive_at}.
+         */
+        private Duration flushInterval = Duration.ofSeconds(5);
+        /**
+         * Maximum number of agents written by a single upsert statement.
+         */
+        private Integer flushBatchSize = 500;
+        /**
+         * Maximum number of agents accepted by one batch keep-alive request.
+         */
+        private Integer maxBatchSize = 1000;
+
+    }
+
+    @Data
+    public static class Liveness {
+
+        private Boolean enabled = true;
+        /**
+         * Agents without a keep-alive for longer than this are demoted to INACTIVE. Must be larger than the heartbeat
+         * flush interval.
+         */
+        private Duration timeout = Duration.ofSeconds(90);
+        private Duration sweepInterval = Duration.ofSeconds(30);
+        /**
+         * Maximum number of agents demoted by a single update statement.
+         */
+        private Integer batchSize = 500;
+
+    }
+
+    @Data
+    public static class ApiKey {
+
+        /**
+         * Whether resolved API keys are cached in memory by the authentication manager.
+         */
+        private Boolean cacheEnabled = true;
+        /**
+         * How long a resolved API key is trusted before the user is looked up again.
+         */
+        private Duration cacheTtl = Duration.ofMinutes(5);
+        private Integer cacheMaxSize = 10000;
+        /**
+         * How long an unknown API key is rejected without any lookup.
+         */
+        private Duration negativeCacheTtl = Duration.ofSeconds(30);
+        private Integer negativeCacheMaxSize = 10000;
+        /**
+         * How long a request waits for a Keycloak lookup of the same unknown key started by another request.
+         */
+        private Duration keycloakLookupTimeout = Duration.ofSeconds(10);
+
+    }
+
+    @Data
+    public static class Pagination {
+
+        /**
+         * Count strategy of {@code POST /api/agents/search}.
+         */
+        private CountStrategy agentSearch = CountStrategy.EXACT;
+        /**
+         * Count strategy of {@code POST /api/containers/search}.
+         */
+        private CountStrategy containerSearch = CountStrategy.EXACT;
+        /**
+         * Count strategy of {@code POST /api/agents/{agentId}/containers/search}.
+         */
+        private CountStrategy agentContainerSearch = CountStrategy.EXACT;
+        /**
+         * How long a count of {@link CountStrategy#CACHED} is reused.
+         */
+        private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    }
+
+    @Data
+    public static class Datasource {
+
+        private final Read read = new Read();
+
+        @Data
+        public static class Read {
+
+            /**
+             * JDBC URL of the replica serving the read-only transactions, the read pool connects to the primary database
+             * when empty.
+             */
+            private String url;
+            /**
+             * Credentials of the replica, those of the primary database when empty.
+             */
+            private String username;
+            private String password;
+            private String poolName = "HikariRead";
+            private Integer maximumPoolSize = 10;
+            /**
+             * Minimum number of idle connections of the read pool, the maximum pool size when empty.
+             */
+            private Integer minimumIdle;
+            /**
+             * How long a read-only transaction waits for a connection of the read pool before using the write pool.
+             */
+            private Duration connectionTimeout = Duration.ofSeconds(2);
+            /**
+             * How long the read pool is skipped after it failed to connect to its database. An exhausted pool is not skipped.
+             */
+            private Duration retryInterval = Duration.ofSeconds(30);
+
+        }
+    }
+
+    @Data
+    public static class NameSearch {
+
+        /**
+         * Index serving the name filters of the agent, container and user searches.
+         */
+        private NameSearchBackend backend = NameSearchBackend.LIKE;
+        /**
+         * Largest number of ids a {@link NameSearchBackend#TRIGRAM} lookup puts in the query, above which the name is
+         * filtered with {@code like} only.
+         */
+        private Integer maxCandidates = 1000;
+
+    }
+
+    @Data
+    public static class Bulk {
+
+        /**
+         * Number of rows written by each statement of the bulk status and delete endpoints.
+         */
+        private Integer batchSize = 500;
+
+    }
+
+    @Data
+    public static class OwnerCache {
+
+        /**
+         * How long the owner and status code of an agent are cached for the ownership checks and keep-alives. Deletes, updates
+         * and status changes evict the entry right away.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+    }
+
+    @Data
+    public static class NearCache {
+
+        /**
+         * Near caches of the second level cache regions by region name, relative to the domain package, e.g.
+         * {@code Container} or {@code "[Container.agentContainers]"}. Regions without an entry have no near cache.
+         */
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+        @Data
+        public static class Region {
+
+            /**
+             * OBJECT keeps the deserialized cache entries, BINARY deserializes them on every hit with less memory.
+             */
+            private InMemoryFormat inMemoryFormat = InMemoryFormat.OBJECT;
+            /**
+             * Maximum number of entries of the near cache of each member, least recently used entries are evicted.
+             */
+            private Integer maxSize = 10000;
+            /**
+             * Whether a change of an entry on any member invalidates the near caches of the other members. Without it,
+             * members read their near cached copy until it is evicted or expires.
+             */
+            private Boolean invalidateOnChange = true;
+            /**
+             * Whether a member warms its near cache up with entries of the cluster once started.
+             */
+            private Boolean preload = false;
+
+        }
+    }
+
+    @Data
+    public static class LocalCache {
+
+        /**
+         * Whether each node keeps the entries of the Spring caches in memory in front of Hazelcast. Changes on a node evict
+         * the local copies of the other nodes through a Hazelcast topic.
+         */
+        private Boolean enabled = true;
+        /**
+         * How long a node serves an entry from its memory, bounding how stale it may be when an eviction message is lost.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+        /**
+         * Maximum number of entries of each cache kept by each node, least recently used entries are evicted.
+         */
+        private Integer maxSize = 10000;
+
+    }
+
+    @Data
+    public static class SearchResultCache {
+
+        /**
+         * Whether the ids of the results of the agent and container searches are cached, until a create, update or delete
+         * of the searched entity type.
+         */
+        private Boolean enabled = false;
+        /**
+         * How long a search result is cached at most, bounding how stale it may be when a write races with the search.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+        /**
+         * Maximum number of results of each searched entity type kept by each node.
+         */
+        private Integer maxSize = 10000;
+
+    }
 }
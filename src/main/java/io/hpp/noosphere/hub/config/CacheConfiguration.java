@@ -3,6 +3,10 @@ package io.hpp.noosphere.hub.config;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import io.hpp.noosphere.hub.repository.OwnerCache;
+import io.hpp.noosphere.hub.repository.SearchCountCache;
+import io.hpp.noosphere.hub.repository.SearchResultCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,13 +62,23 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public CacheManager cacheManager(HazelcastInstance hazelcastInstance) {
+    public CacheManager cacheManager(
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         LOG.debug("Starting HazelcastCacheManager");
-        return new com.hazelcast.spring.cache.HazelcastCacheManager(hazelcastInstance);
+        CacheManager cacheManager = new com.hazelcast.spring.cache.HazelcastCacheManager(hazelcastInstance);
+        ApplicationProperties.LocalCache localCache = applicationProperties.getLocalCache();
+        if (!Boolean.TRUE.equals(localCache.getEnabled())) {
+            return cacheManager;
+        }
+        LOG.debug("Starting local cache tier with a TTL of {}", localCache.getTtl());
+        return new TwoTierCacheManager(cacheManager, hazelcastInstance, localCache, meterRegistry);
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         LOG.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("NoosphereHub");
         if (hazelCastInstance != null) {
@@ -107,6 +121,16 @@ public class CacheConfiguration {
         config.setManagementCenterConfig(new ManagementCenterConfig());
         config.addMapConfig(initializeDefaultMapConfig(jHipsterProperties));
         config.addMapConfig(initializeDomainMapConfig(jHipsterProperties));
+        applicationProperties
+            .getNearCache()
+            .getRegions()
+            .forEach((region, nearCache) ->
+                config.addMapConfig(initializeNearCachedDomainMapConfig(jHipsterProperties, region, nearCache))
+            );
+        config.addMapConfig(initializeSearchCountMapConfig(applicationProperties));
+        config.addMapConfig(initializeOwnerMapConfig(applicationProperties));
+        config.addMapConfig(initializeSearchResultMapConfig(applicationProperties));
+        initializeSerializationConfig(config.getSerializationConfig());
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -141,11 +165,70 @@ public class CacheConfiguration {
     }
 
     private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties) {
-        MapConfig mapConfig = new MapConfig("io.hpp.noosphere.hub.domain.*");
+        MapConfig mapConfig = new MapConfig(NearCacheRegions.DOMAIN_REGION_PREFIX + "*");
         mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds());
         return mapConfig;
     }
 
+    /**
+     * The map of a second level cache region with a near cache, so that its reads are served from the memory of each
+     * member instead of its partition owner. It starts from the domain map config, which it replaces for the region.
+     * <p>
+     * Invalidations reach the other members asynchronously: right after a commit, another member may still read the
+     * previous version of an entity for a short while.
+     */
+    private MapConfig initializeNearCachedDomainMapConfig(
+        JHipsterProperties jHipsterProperties,
+        String region,
+        ApplicationProperties.NearCache.Region nearCache
+    ) {
+        MapConfig mapConfig = initializeDomainMapConfig(jHipsterProperties).setName(NearCacheRegions.mapName(region));
+        NearCacheConfig nearCacheConfig = new NearCacheConfig(mapConfig.getName())
+            .setInMemoryFormat(nearCache.getInMemoryFormat())
+            .setInvalidateOnChange(nearCache.getInvalidateOnChange())
+            // a near cached entry does not outlive its map entry
+            .setTimeToLiveSeconds(mapConfig.getTimeToLiveSeconds());
+        nearCacheConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LRU)
+            .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+            .setSize(nearCache.getMaxSize());
+        return mapConfig.setNearCacheConfig(nearCacheConfig);
+    }
+
+    private MapConfig initializeSearchCountMapConfig(ApplicationProperties applicationProperties) {
+        MapConfig mapConfig = new MapConfig(SearchCountCache.CACHE_NAME);
+        mapConfig.setTimeToLiveSeconds((int) applicationProperties.getPagination().getCountCacheTtl().toSeconds());
+        return mapConfig;
+    }
+
+    private MapConfig initializeOwnerMapConfig(ApplicationProperties applicationProperties) {
+        MapConfig mapConfig = new MapConfig(OwnerCache.CACHE_NAME);
+        mapConfig.setTimeToLiveSeconds((int) applicationProperties.getOwnerCache().getTtl().toSeconds());
+        return mapConfig;
+    }
+
+    private MapConfig initializeSearchResultMapConfig(ApplicationProperties applicationProperties) {
+        ApplicationProperties.SearchResultCache searchResultCache = applicationProperties.getSearchResultCache();
+        MapConfig mapConfig = new MapConfig(SearchResultCache.CACHE_NAME_PREFIX + "*");
+        mapConfig.setTimeToLiveSeconds((int) searchResultCache.getTtl().toSeconds());
+        mapConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LRU)
+            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+            .setSize(searchResultCache.getMaxSize());
+        return mapConfig;
+    }
+
+    /**
+     * Serializers of the objects stored in Hazelcast as they are. The second level cache regions hold the disassembled state
+     * of the entities in the wrappers of hazelcast-hibernate, which are already IdentifiedDataSerializable, so only the
+     * values of the Spring caches need one.
+     */
+    static void initializeSerializationConfig(SerializationConfig serializationConfig) {
+        serializationConfig.getCompactSerializationConfig().addSerializer(new UserCompactSerializer());
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
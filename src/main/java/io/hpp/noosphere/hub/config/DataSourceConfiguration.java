@@ -0,0 +1,73 @@
+package io.hpp.noosphere.hub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+/**
+ * Two connection pools, so that search traffic cannot starve the writes of connections: the write pool configured by
+ * {@code spring.datasource}, and a read pool for read-only transactions configured by {@code application.datasource.read}.
+ * <p>
+ * The read pool connects to the replica when one is configured, to the primary database otherwise. Both pools publish their
+ * Hikari metrics, tagged with their pool name.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(
+        @Qualifier("writeDataSource") HikariDataSource writeDataSource,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Datasource.Read read = applicationProperties.getDatasource().getRead();
+        HikariDataSource readDataSource = new HikariDataSource();
+        writeDataSource.copyStateTo(readDataSource);
+        readDataSource.setPoolName(read.getPoolName());
+        if (StringUtils.hasText(read.getUrl())) {
+            readDataSource.setJdbcUrl(read.getUrl());
+            if (StringUtils.hasText(read.getUsername())) {
+                readDataSource.setUsername(read.getUsername());
+                readDataSource.setPassword(read.getPassword());
+            }
+        }
+        readDataSource.setReadOnly(true);
+        readDataSource.setMaximumPoolSize(read.getMaximumPoolSize());
+        readDataSource.setMinimumIdle(read.getMinimumIdle() != null ? read.getMinimumIdle() : read.getMaximumPoolSize());
+        readDataSource.setConnectionTimeout(read.getConnectionTimeout().toMillis());
+        // an unreachable replica must neither fail the startup nor the read-only transactions, which use the write pool instead
+        readDataSource.setInitializationFailTimeout(-1);
+        return readDataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+        @Qualifier("writeDataSource") DataSource writeDataSource,
+        @Qualifier("readDataSource") DataSource readDataSource,
+        ApplicationProperties applicationProperties
+    ) {
+        return new ReadWriteRoutingDataSource(
+            writeDataSource,
+            readDataSource,
+            applicationProperties.getDatasource().getRead().getRetryInterval()
+        );
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,28 @@
+package io.hpp.noosphere.hub.config;
+
+import io.hpp.noosphere.hub.repository.FulltextNameSearchIndex;
+import io.hpp.noosphere.hub.repository.LikeNameSearchIndex;
+import io.hpp.noosphere.hub.repository.NameSearchIndex;
+import io.hpp.noosphere.hub.repository.TrigramNameSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NameSearchConfiguration {
+
+    @Bean
+    public NameSearchIndex nameSearchIndex(
+        ApplicationProperties applicationProperties,
+        EntityManager entityManager,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        ApplicationProperties.NameSearch nameSearch = applicationProperties.getNameSearch();
+        return switch (nameSearch.getBackend()) {
+            case LIKE -> new LikeNameSearchIndex();
+            case FULLTEXT -> new FulltextNameSearchIndex();
+            case TRIGRAM -> new TrigramNameSearchIndex(entityManager, entityManagerFactory, nameSearch.getMaxCandidates());
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package io.hpp.noosphere.hub.config;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nearcache.NearCacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The second level cache regions with a near cache, configured by {@code application.near-cache.regions}.
+ * <p>
+ * Exposes the near cache statistics of each region as {@code noosphere.cache.near.*} meters tagged with the region, and
+ * warms up the near caches of the regions with {@code preload} once the application is started. Hazelcast only persists
+ * near cache keys across restarts for clients, so an embedded member preloads from the entries the cluster still holds.
+ */
+@Component
+public class NearCacheRegions implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NearCacheRegions.class);
+
+    /**
+     * The prefix of the names of the second level cache regions of the entities, and of their Hazelcast maps.
+     */
+    static final String DOMAIN_REGION_PREFIX = "io.hpp.noosphere.hub.domain.";
+
+    private static final int PRELOAD_FETCH_SIZE = 1000;
+
+    private final HazelcastInstance hazelcastInstance;
+    private final Map<String, ApplicationProperties.NearCache.Region> regions;
+
+    public NearCacheRegions(HazelcastInstance hazelcastInstance, ApplicationProperties applicationProperties) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.regions = applicationProperties.getNearCache().getRegions();
+    }
+
+    /**
+     * @param region the region name relative to the domain package, e.g. {@code Container}.
+     * @return the name of the Hazelcast map of the region.
+     */
+    static String mapName(String region) {
+        return DOMAIN_REGION_PREFIX + region;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : regions.keySet()) {
+            String mapName = mapName(region);
+            Tags tags = Tags.of("region", mapName);
+            FunctionCounter.builder("noosphere.cache.near.hits", this, statistic(mapName, NearCacheStats::getHits))
+                .tags(tags)
+                .description("Reads served by the near cache")
+                .register(registry);
+            FunctionCounter.builder("noosphere.cache.near.misses", this, statistic(mapName, NearCacheStats::getMisses))
+                .tags(tags)
+                .description("Reads of the near cache which went to the partition owner")
+                .register(registry);
+            FunctionCounter.builder("noosphere.cache.near.evictions", this, statistic(mapName, NearCacheStats::getEvictions))
+                .tags(tags)
+                .description("Entries evicted from the near cache by its max size")
+                .register(registry);
+            FunctionCounter.builder("noosphere.cache.near.invalidations", this, statistic(mapName, NearCacheStats::getInvalidations))
+                .tags(tags)
+                .description("Entries invalidated by changes on any member")
+                .register(registry);
+            Gauge.builder("noosphere.cache.near.entries", this, statistic(mapName, NearCacheStats::getOwnedEntryCount))
+                .tags(tags)
+                .description("Entries held by the near cache")
+                .register(registry);
+            Gauge.builder("noosphere.cache.near.hit.ratio", this, statistic(mapName, NearCacheRegions::hitRatio))
+                .tags(tags)
+                .description("Share of the reads served by the near cache")
+                .register(registry);
+        }
+    }
+
+    /**
+     * Load up to {@code max-size} entries of each preloaded region into its near cache.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        regions.forEach((region, nearCache) -> {
+            if (Boolean.TRUE.equals(nearCache.getPreload())) {
+                try {
+                    preload(mapName(region), nearCache.getMaxSize());
+                } catch (RuntimeException e) {
+                    // a cold near cache only costs remote reads, it must not fail the startup
+                    LOG.warn("Could not preload the near cache of {}", region, e);
+                }
+            }
+        });
+    }
+
+    private void preload(String mapName, int maxSize) {
+        IMap<Object, Object> map = hazelcastInstance.getMap(mapName);
+        Set<Object> keys = new HashSet<>();
+        Iterator<Map.Entry<Object, Object>> entries = map.iterator(Math.min(maxSize, PRELOAD_FETCH_SIZE));
+        while (entries.hasNext() && keys.size() < maxSize) {
+            keys.add(entries.next().getKey());
+        }
+        // reads go through the near cache, which keeps the entries owned by other members
+        map.getAll(keys);
+        LOG.info("Preloaded {} entries into the near cache of {}", keys.size(), mapName);
+    }
+
+    private static ToDoubleFunction<NearCacheRegions> statistic(String mapName, ToDoubleFunction<NearCacheStats> statistic) {
+        return nearCacheRegions -> {
+            NearCacheStats stats = nearCacheRegions.nearCacheStats(mapName);
+            return stats == null ? Double.NaN : statistic.applyAsDouble(stats);
+        };
+    }
+
+    private NearCacheStats nearCacheStats(String mapName) {
+        if (!hazelcastInstance.getLifecycleService().isRunning()) {
+            return null;
+        }
+        return hazelcastInstance.getMap(mapName).getLocalMapStats().getNearCacheStats();
+    }
+
+    static double hitRatio(NearCacheStats stats) {
+        long reads = stats.getHits() + stats.getMisses();
+        return reads == 0 ? Double.NaN : (double) stats.getHits() / reads;
+    }
+}
@@ -0,0 +1,94 @@
+package io.hpp.noosphere.hub.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source handing out connections of the read pool to read-only transactions, and of the write pool to everything else.
+ * <p>
+ * A transaction is only known to be read-only once it has begun, so this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which fetches the physical connection at the first statement. When the read pool
+ * cannot connect to its database, it is skipped for the retry interval and read-only transactions use the write pool.
+ * <p>
+ * A read pool which is merely exhausted does not trigger the fallback: its acquisition timeout is thrown to the caller, so
+ * that a burst of reads cannot move all the read traffic onto the write pool and starve the writes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource writeDataSource;
+    private final DataSource readDataSource;
+    private final Duration retryInterval;
+    private final LongAdder fallbacks = new LongAdder();
+
+    /** {@link System#nanoTime()} from which the read pool is used again. */
+    private volatile long readRetryAt = System.nanoTime();
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, DataSource readDataSource, Duration retryInterval) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && System.nanoTime() - readRetryAt >= 0) {
+            try {
+                return readDataSource.getConnection();
+            } catch (SQLException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                readRetryAt = System.nanoTime() + retryInterval.toNanos();
+                fallbacks.increment();
+                LOG.warn("Read pool unavailable, read-only transactions use the write pool for {}: {}", retryInterval, e.getMessage());
+            }
+        }
+        return writeDataSource.getConnection();
+    }
+
+    /**
+     * Whether the read pool failed to reach its database: an SQL state of class {@code 08} (connection exception) or an I/O
+     * error anywhere in the causes. Hikari reports an exhausted pool with a {@link java.sql.SQLTransientConnectionException}
+     * which has neither, and the last connection failure as its cause when the database is down.
+     */
+    static boolean isConnectionFailure(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                String sqlState = sqlException.getSQLState();
+                if (sqlState != null && sqlState.startsWith("08")) {
+                    return true;
+                }
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return writeDataSource.getConnection(username, password);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("noosphere.datasource.read.fallbacks", fallbacks, LongAdder::sum)
+            .description("Read-only transactions routed to the write pool because the read pool failed to provide a connection")
+            .register(registry);
+    }
+}
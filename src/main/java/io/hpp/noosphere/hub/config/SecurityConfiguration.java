@@ -6,7 +6,6 @@ import static org.springframework.security.oauth2.core.oidc.StandardClaimNames.P
 import io.hpp.noosphere.hub.security.*;
 import io.hpp.noosphere.hub.security.SecurityUtils;
 import io.hpp.noosphere.hub.security.oauth2.AudienceValidator;
-import io.hpp.noosphere.hub.service.UserService;
 import io.hpp.noosphere.hub.web.filter.SpaWebFilter;
 import java.util.*;
 import org.springframework.beans.factory.annotation.Value;
@@ -45,23 +44,23 @@ public class SecurityConfiguration {
 
     private final CorsFilter corsFilter;
     private final ApiKeyAuthFilter apiKeyAuthFilter;
-    private final UserService userService;
+    private final ApiKeyAuthManager apiKeyAuthManager;
 
     public SecurityConfiguration(
       ApiKeyAuthFilter apiKeyAuthFilter,
-      UserService userService,
+      ApiKeyAuthManager apiKeyAuthManager,
       CorsFilter corsFilter,
       JHipsterProperties jHipsterProperties
       ) {
         this.corsFilter = corsFilter;
         this.jHipsterProperties = jHipsterProperties;
         this.apiKeyAuthFilter = apiKeyAuthFilter;
-        this.userService = userService;
+        this.apiKeyAuthManager = apiKeyAuthManager;
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, MvcRequestMatcher.Builder mvc) throws Exception {
-        apiKeyAuthFilter.setAuthenticationManager(new ApiKeyAuthManager(userService));
+        apiKeyAuthFilter.setAuthenticationManager(apiKeyAuthManager);
         http
             .csrf(AbstractHttpConfigurer::disable)
           .addFilterBefore(corsFilter, CsrfFilter.class)
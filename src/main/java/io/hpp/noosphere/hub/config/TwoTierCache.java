@@ -0,0 +1,180 @@
+package io.hpp.noosphere.hub.config;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A Spring cache reading a local Caffeine tier before its cluster tier, see {@link TwoTierCacheManager}.
+ * <p>
+ * The local tier keeps value wrappers, so cached {@code null} values are served locally too. Mutable values are kept in
+ * their serialized form and every hit deserializes its own copy, so a caller modifying a cached entity does not change
+ * what the other callers of the node read. Strings, numbers, enums and records are shared as they are: the components
+ * of a cached record must be immutable too.
+ */
+class TwoTierCache implements Cache {
+
+    private final Cache cluster;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local;
+    private final SerializationService serializationService;
+    private final Consumer<Object> invalidation;
+
+    /**
+     * @param cluster              the cache shared by the cluster.
+     * @param local                the cache of this node.
+     * @param serializationService serializes the mutable values of the local tier.
+     * @param invalidation         publishes the key changed on this node to the other nodes, {@code null} when they all changed.
+     */
+    TwoTierCache(
+        Cache cluster,
+        com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local,
+        SerializationService serializationService,
+        Consumer<Object> invalidation
+    ) {
+        this.cluster = cluster;
+        this.local = local;
+        this.serializationService = serializationService;
+        this.invalidation = invalidation;
+    }
+
+    @Override
+    public String getName() {
+        return cluster.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cluster.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = local.getIfPresent(key);
+        if (wrapper != null) {
+            return copy(wrapper);
+        }
+        wrapper = cluster.get(key);
+        if (wrapper != null) {
+            putLocal(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = local.getIfPresent(key);
+        if (wrapper != null) {
+            return (T) copy(wrapper).get();
+        }
+        // the cluster tier loads at most once across the cluster
+        T value = cluster.get(key, valueLoader);
+        putLocal(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cluster.put(key, value);
+        putLocal(key, value);
+        invalidation.accept(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = cluster.putIfAbsent(key, value);
+        if (existing != null) {
+            putLocal(key, existing.get());
+        } else {
+            putLocal(key, value);
+            invalidation.accept(key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        cluster.evict(key);
+        local.invalidate(key);
+        invalidation.accept(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = cluster.evictIfPresent(key);
+        local.invalidate(key);
+        invalidation.accept(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        cluster.clear();
+        local.invalidateAll();
+        invalidation.accept(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = cluster.invalidate();
+        local.invalidateAll();
+        invalidation.accept(null);
+        return present;
+    }
+
+    /**
+     * Forget the local copy of an entry changed on another node.
+     *
+     * @param key the changed key, {@code null} when all the entries changed.
+     */
+    void invalidateLocal(Object key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private void putLocal(Object key, Object value) {
+        local.put(key, new SimpleValueWrapper(isImmutable(value) ? value : serializationService.toData(value)));
+    }
+
+    private ValueWrapper copy(ValueWrapper wrapper) {
+        if (wrapper.get() instanceof Data data) {
+            return new SimpleValueWrapper(serializationService.toObject(data));
+        }
+        return wrapper;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return (
+            value == null ||
+            value instanceof String ||
+            value instanceof Long ||
+            value instanceof Integer ||
+            value instanceof Boolean ||
+            value instanceof BigDecimal ||
+            value instanceof UUID ||
+            value instanceof Instant ||
+            value instanceof Enum<?> ||
+            value instanceof Record
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package io.hpp.noosphere.hub.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.SerializationServiceSupport;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.cache.HazelcastCacheMetrics;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Spring cache manager keeping a short-lived, size-bounded Caffeine tier in front of each cache of the Hazelcast cache
+ * manager, so that hits on a node do not reach the partition owner.
+ * <p>
+ * Writes and evictions go to both tiers, then to the local tier of the other nodes through the
+ * {@value #INVALIDATION_TOPIC} topic. Topic messages are not acknowledged: a lost invalidation leaves a stale local entry
+ * for at most {@code application.local-cache.ttl}.
+ * <p>
+ * Both tiers are published as the {@code cache.*} meters of their cache, tagged with {@code tier} {@code local} or
+ * {@code cluster}.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    static final String INVALIDATION_TOPIC = "cacheInvalidations";
+
+    private static final String TIER_TAG = "tier";
+
+    private final CacheManager clusterCacheManager;
+    private final ApplicationProperties.LocalCache properties;
+    private final MeterRegistry meterRegistry;
+    private final SerializationService serializationService;
+    private final ITopic<Invalidation> topic;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(
+        CacheManager clusterCacheManager,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties.LocalCache properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.clusterCacheManager = clusterCacheManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.serializationService = ((SerializationServiceSupport) hazelcastInstance).getSerializationService();
+        this.topic = hazelcastInstance.getTopic(INVALIDATION_TOPIC);
+        this.topic.addMessageListener(this::onInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache cluster = clusterCacheManager.getCache(name);
+        if (cluster == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> createCache(cluster));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return clusterCacheManager.getCacheNames();
+    }
+
+    private TwoTierCache createCache(Cache cluster) {
+        String name = cluster.getName();
+        com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> local = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfterWrite(properties.getTtl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name, Tags.of(TIER_TAG, "local"));
+        HazelcastCacheMetrics.monitor(meterRegistry, cluster.getNativeCache(), Tags.of(TIER_TAG, "cluster"));
+        return new TwoTierCache(cluster, local, serializationService, key -> topic.publish(new Invalidation(name, key)));
+    }
+
+    private void onInvalidation(Message<Invalidation> message) {
+        Member publisher = message.getPublishingMember();
+        if (publisher != null && publisher.localMember()) {
+            // the local tier of the publisher is already up to date
+            return;
+        }
+        Invalidation invalidation = message.getMessageObject();
+        TwoTierCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.invalidateLocal(invalidation.key());
+        }
+    }
+
+    /**
+     * @param cacheName the cache changed by another node.
+     * @param key       the changed key, {@code null} when the cache was cleared.
+     */
+    record Invalidation(String cacheName, Object key) implements Serializable {}
+}
@@ -0,0 +1,93 @@
+package io.hpp.noosphere.hub.config;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import io.hpp.noosphere.hub.domain.Authority;
+import io.hpp.noosphere.hub.domain.User;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+
+/**
+ * Hazelcast Compact serializer of the users held by the Spring caches of {@link io.hpp.noosphere.hub.repository.UserRepository}.
+ * <p>
+ * Unlike Java serialization, the field names and class descriptors are written once per cluster in the schema instead of
+ * with every entry. Authorities are written by name: the cached finders fetch them with the user, a user whose authorities
+ * were not loaded is read back without any.
+ */
+class UserCompactSerializer implements CompactSerializer<User> {
+
+    private static final String[] NO_AUTHORITIES = new String[0];
+
+    @Override
+    public User read(CompactReader reader) {
+        User user = new User();
+        user.setId(reader.readString("id"));
+        user.setLogin(reader.readString("login"));
+        user.setFirstName(reader.readString("firstName"));
+        user.setLastName(reader.readString("lastName"));
+        user.setName(reader.readString("name"));
+        user.setEmail(reader.readString("email"));
+        user.setActivated(reader.readBoolean("activated"));
+        user.setLangKey(reader.readString("langKey"));
+        user.setImageUrl(reader.readString("imageUrl"));
+        // also restores the digest of the key
+        user.setApiKey(reader.readString("apiKey"));
+        user.setAuthorities(
+            Arrays.stream(reader.readArrayOfString("authorities"))
+                .map(name -> new Authority().name(name).setIsPersisted())
+                .collect(Collectors.toSet())
+        );
+        user.setCreatedBy(reader.readString("createdBy"));
+        user.setCreatedDate(toInstant(reader.readTimestampWithTimezone("createdDate")));
+        user.setLastModifiedBy(reader.readString("lastModifiedBy"));
+        user.setLastModifiedDate(toInstant(reader.readTimestampWithTimezone("lastModifiedDate")));
+        return user;
+    }
+
+    @Override
+    public void write(CompactWriter writer, User user) {
+        writer.writeString("id", user.getId());
+        writer.writeString("login", user.getLogin());
+        writer.writeString("firstName", user.getFirstName());
+        writer.writeString("lastName", user.getLastName());
+        writer.writeString("name", user.getName());
+        writer.writeString("email", user.getEmail());
+        writer.writeBoolean("activated", user.isActivated());
+        writer.writeString("langKey", user.getLangKey());
+        writer.writeString("imageUrl", user.getImageUrl());
+        writer.writeString("apiKey", user.getApiKey());
+        writer.writeArrayOfString(
+            "authorities",
+            Hibernate.isInitialized(user.getAuthorities())
+                ? user.getAuthorities().stream().map(Authority::getName).toArray(String[]::new)
+                : NO_AUTHORITIES
+        );
+        writer.writeString("createdBy", user.getCreatedBy());
+        writer.writeTimestampWithTimezone("createdDate", toOffsetDateTime(user.getCreatedDate()));
+        writer.writeString("lastModifiedBy", user.getLastModifiedBy());
+        writer.writeTimestampWithTimezone("lastModifiedDate", toOffsetDateTime(user.getLastModifiedDate()));
+    }
+
+    @Override
+    public String getTypeName() {
+        return "user";
+    }
+
+    @Override
+    public Class<User> getCompactClass() {
+        return User.class;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    private static Instant toInstant(OffsetDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant() : null;
+    }
+}
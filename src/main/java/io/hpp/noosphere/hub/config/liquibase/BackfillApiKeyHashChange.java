@@ -0,0 +1,100 @@
+package io.hpp.noosphere.hub.config.liquibase;
+
+import io.hpp.noosphere.hub.security.ApiKeyDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Fills {@code jhi_user.api_key_hash} from {@code jhi_user.api_key}, committing every {@code batchSize} users so the
+ * migration does not hold locks on the whole table.
+ * <p>
+ * The digest is computed with {@link ApiKeyDigest}, the same code the application uses for lookups.
+ */
+public class BackfillApiKeyHashChange implements CustomTaskChange {
+
+    private static final String SELECT_SQL =
+        "select id, api_key from jhi_user where api_key is not null and api_key_hash is null and id > ? order by id limit ?";
+    private static final String UPDATE_SQL = "update jhi_user set api_key_hash = ? where id = ?";
+
+    private Integer batchSize = 1000;
+    private int updated;
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        JdbcConnection jdbcConnection = (JdbcConnection) database.getConnection();
+        Connection connection = jdbcConnection.getUnderlyingConnection();
+        String lastId = "";
+        try (
+            PreparedStatement select = connection.prepareStatement(SELECT_SQL);
+            PreparedStatement update = connection.prepareStatement(UPDATE_SQL)
+        ) {
+            while (true) {
+                Map<String, String> apiKeys = new LinkedHashMap<>();
+                select.setString(1, lastId);
+                select.setInt(2, batchSize);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        apiKeys.put(resultSet.getString(1), resultSet.getString(2));
+                    }
+                }
+                if (apiKeys.isEmpty()) {
+                    break;
+                }
+                for (Map.Entry<String, String> entry : apiKeys.entrySet()) {
+                    update.setBytes(1, ApiKeyDigest.digest(entry.getValue()));
+                    update.setString(2, entry.getKey());
+                    update.addBatch();
+                    lastId = entry.getKey();
+                }
+                update.executeBatch();
+                jdbcConnection.commit();
+                updated += apiKeys.size();
+                if (apiKeys.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (SQLException | DatabaseException e) {
+            throw new CustomChangeException("Failed to backfill jhi_user.api_key_hash", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Computed the API key hash of " + updated + " users";
+    }
+
+    @Override
+    public void setUp() throws SetupException {}
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {}
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors validationErrors = new ValidationErrors();
+        if (batchSize == null || batchSize < 1) {
+            validationErrors.addError("batchSize must be positive");
+        }
+        return validationErrors;
+    }
+}
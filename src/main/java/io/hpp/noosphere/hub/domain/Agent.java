@@ -34,9 +34,9 @@ public class Agent implements Serializable {
 
     @NotNull
     @Id
-    @GeneratedValue
-    @JdbcTypeCode(SqlTypes.VARCHAR)
-    @Column(name = "id", length = 36, nullable = false)
+    @UuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", length = 16, nullable = false)
     private UUID id;
 
     @Column(name = "name")
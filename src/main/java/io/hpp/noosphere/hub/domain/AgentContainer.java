@@ -32,9 +32,9 @@ public class AgentContainer implements Serializable {
 
     @NotNull
     @Id
-    @GeneratedValue
-    @JdbcTypeCode(SqlTypes.VARCHAR)
-    @Column(name = "id", length = 36, nullable = false)
+    @UuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", length = 16, nullable = false)
     private UUID id;
 
     @NotNull
@@ -34,9 +34,9 @@ public class Container implements Serializable {
 
     @NotNull
     @Id
-    @GeneratedValue
-    @JdbcTypeCode(SqlTypes.VARCHAR)
-    @Column(name = "id", length = 36, nullable = false)
+    @UuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", length = 16, nullable = false)
     private UUID id;
 
     @Column(name = "name")
@@ -59,10 +59,23 @@ public class Container implements Serializable {
     @Column(name = "description")
     private String description;
 
-    @Lob
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "parameters", nullable = false)
     private String parameters;
 
+    /**
+     * Virtual columns generated by the database from {@code parameters}, indexed for the container search. They are never
+     * written, and not read back after a write.
+     */
+    @Column(name = "parameter_model", insertable = false, updatable = false)
+    private String parameterModel;
+
+    @Column(name = "parameter_gpu_class", insertable = false, updatable = false)
+    private String parameterGpuClass;
+
+    @Column(name = "parameter_max_tokens", insertable = false, updatable = false)
+    private Long parameterMaxTokens;
+
     @NotNull
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
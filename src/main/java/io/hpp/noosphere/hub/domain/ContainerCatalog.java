@@ -0,0 +1,99 @@
+package io.hpp.noosphere.hub.domain;
+
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * The catalog row of a Container, with the live counts of the agents serving it.
+ * <p>
+ * Rows are only written by {@link io.hpp.noosphere.hub.repository.ContainerCatalogRepository} statements, never through
+ * the entity, so it is immutable and not in the second level cache.
+ */
+@Entity
+@Table(name = "container_catalog")
+@Immutable
+@RequiredArgsConstructor
+@Getter
+@Setter
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ContainerCatalog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "container_id", length = 16, nullable = false)
+    private UUID containerId;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "price", precision = 21, scale = 2, nullable = false)
+    private BigDecimal price;
+
+    @Column(name = "status_code", length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StatusCode statusCode;
+
+    /**
+     * The number of active agent containers of the container.
+     */
+    @Column(name = "active_agent_count", nullable = false)
+    private Integer activeAgentCount;
+
+    /**
+     * The number of active agents among {@link #activeAgentCount}.
+     */
+    @Column(name = "online_agent_count", nullable = false)
+    private Integer onlineAgentCount;
+
+    /**
+     * The latest keep-alive of the online agents, {@code null} without any.
+     */
+    @Column(name = "last_keep_alive_at")
+    private Instant lastKeepAliveAt;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContainerCatalog)) {
+            return false;
+        }
+        return getContainerId() != null && getContainerId().equals(((ContainerCatalog) o).getContainerId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ContainerCatalog{" +
+            "containerId=" + getContainerId() +
+            ", name='" + getName() + "'" +
+            ", price=" + getPrice() +
+            ", statusCode='" + getStatusCode() + "'" +
+            ", activeAgentCount=" + getActiveAgentCount() +
+            ", onlineAgentCount=" + getOnlineAgentCount() +
+            ", lastKeepAliveAt='" + getLastKeepAliveAt() + "'" +
+            "}";
+    }
+}
@@ -2,6 +2,7 @@ package io.hpp.noosphere.hub.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.hpp.noosphere.hub.config.Constants;
+import io.hpp.noosphere.hub.security.ApiKeyDigest;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,7 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -76,6 +78,14 @@ public class User extends AbstractAuditingEntity<String> implements Serializable
     @Column(name = "api_key", length = 100)
     private String apiKey;
 
+    /**
+     * SHA-256 digest of {@link #apiKey}, kept in sync by {@link #setApiKey(String)}.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "api_key_hash", length = ApiKeyDigest.LENGTH, columnDefinition = "binary(32)", unique = true)
+    private byte[] apiKeyHash;
+
     @JsonIgnore
     @ManyToMany
     @JoinTable(
@@ -87,6 +97,11 @@ public class User extends AbstractAuditingEntity<String> implements Serializable
     @BatchSize(size = 20)
     private Set<Authority> authorities = new HashSet<>();
 
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+        this.apiKeyHash = apiKey != null ? ApiKeyDigest.digest(apiKey) : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,17 @@
+package io.hpp.noosphere.hub.domain;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generate the identifier with {@link UuidV7Generator}: time-ordered UUIDs, so that new rows are appended at the end of
+ * the primary key and foreign key indexes instead of being scattered across them.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface UuidV7 {
+}
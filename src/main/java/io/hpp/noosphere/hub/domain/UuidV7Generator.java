@@ -0,0 +1,59 @@
+package io.hpp.noosphere.hub.domain;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Generator of version 7 UUIDs (RFC 9562): a 48-bit Unix timestamp in milliseconds, a 12-bit counter and 62 random bits.
+ * <p>
+ * The counter keeps the UUIDs generated by this JVM strictly increasing within the same millisecond, and moves the
+ * timestamp forward when it overflows or when the clock goes backwards.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** The last timestamp shifted left by 12 bits, or'ed with the counter. */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    /**
+     * Generate a time-ordered UUID.
+     *
+     * @return a version 7 UUID.
+     */
+    public static UUID generate() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> now > last ? now : last + 1);
+        long mostSigBits = ((state >>> 12) << 16) | 0x7000L | (state & 0xFFFL);
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * The 16 bytes of a UUID, as stored in the {@code binary(16)} id columns. Only needed by native queries, Hibernate binds
+     * the UUID attributes itself.
+     *
+     * @param uuid the UUID.
+     * @return the big-endian bytes of the UUID.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return generate();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
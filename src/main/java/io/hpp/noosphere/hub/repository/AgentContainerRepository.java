@@ -1,20 +1,36 @@
 package io.hpp.noosphere.hub.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import io.hpp.noosphere.hub.domain.Agent;
 import io.hpp.noosphere.hub.domain.AgentContainer;
+import io.hpp.noosphere.hub.domain.QAgent;
 import io.hpp.noosphere.hub.domain.QAgentContainer;
+import io.hpp.noosphere.hub.domain.QContainer;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.service.dto.AgentContainerDTO;
+import io.hpp.noosphere.hub.service.dto.AgentDTO;
+import io.hpp.noosphere.hub.service.dto.ContainerDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
 import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
 
 /**
  * Spring Data JPA repository for the AgentContainer entity.
@@ -25,24 +41,214 @@ public interface AgentContainerRepository extends JpaRepository<AgentContainer,
 
 interface AgentContainerRepositoryCustom {
     Page<AgentContainer> search(UUID agentId, String containerName, StatusCode statusCode, Pageable pageable);
+    Slice<AgentContainer> search(UUID agentId, String containerName, StatusCode statusCode, CountStrategy countStrategy, Pageable pageable);
+
+    /**
+     * Search agent containers, selecting only the columns serialized with {@code view} straight into DTOs. The agent and
+     * the container are not joined unless filtered on, only their ids are read from the foreign keys.
+     *
+     * @param view          {@link JsonViewType.Shallow} or {@link JsonViewType.Update}.
+     * @param countStrategy how to count the results.
+     * @param pageable      the pagination information.
+     * @return a page of DTOs, or a slice with {@link CountStrategy#NONE}.
+     */
+    Slice<AgentContainerDTO> searchView(
+        UUID agentId,
+        String containerName,
+        StatusCode statusCode,
+        Class<?> view,
+        CountStrategy countStrategy,
+        Pageable pageable
+    );
+
+    KeysetSlice<AgentContainer> scroll(UUID agentId, String containerName, StatusCode statusCode, String cursor, Pageable pageable);
 
     Page<AgentContainer> findActiveByContainerName(UUID agentId, String containerName, Pageable pageable);
     Optional<AgentContainer> findByAgentIdAndContainerId(UUID agentId, UUID containerId);
+
+    /**
+     * Look up the version stamps of an agent container and of its agent and container, which it is serialized with. A
+     * version stamp is the time of the last update, or of the creation when never updated. Only the timestamps are selected.
+     *
+     * @param agentId     the id of the agent.
+     * @param containerId the id of the container.
+     * @return the version stamps of the agent container, its agent and its container, or empty when they are not linked.
+     */
+    Optional<List<Instant>> findVersionsByAgentIdAndContainerId(UUID agentId, UUID containerId);
+
+    /**
+     * Change the status code of the agent containers of the agents of a user, selected by agents, containers and status,
+     * with one bulk update per batch of ids. Agent containers already in {@code statusCode} are left untouched. The
+     * catalog rows of the containers of each batch are refreshed.
+     *
+     * @param agentIds          the ids of the agents, {@code null} for all the agents of the user.
+     * @param containerIds      the ids of the containers, {@code null} for any container.
+     * @param currentStatusCode only agent containers currently in this status are updated, {@code null} for any status.
+     * @param agentUserId       the owner of the agents.
+     * @param statusCode        the new status code.
+     * @param timestamp         the update time.
+     * @param batchSize         the number of agent containers per bulk update.
+     * @return the number of updated agent containers.
+     */
+    long bulkUpdateStatusCode(
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode,
+        String agentUserId,
+        StatusCode statusCode,
+        Instant timestamp,
+        int batchSize
+    );
+
+    /**
+     * Delete the agent containers of the agents of a user, selected by agents, containers and status, with one bulk delete
+     * per batch of ids. The catalog rows of the containers of each batch are refreshed.
+     *
+     * @param agentIds          the ids of the agents, {@code null} for all the agents of the user.
+     * @param containerIds      the ids of the containers, {@code null} for any container.
+     * @param currentStatusCode only agent containers currently in this status are deleted, {@code null} for any status.
+     * @param agentUserId       the owner of the agents.
+     * @param batchSize         the number of agent containers per bulk delete.
+     * @return the number of deleted agent containers.
+     */
+    long bulkDelete(
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode,
+        String agentUserId,
+        int batchSize
+    );
 }
 
 @Repository
 class AgentContainerRepositoryCustomImpl implements AgentContainerRepositoryCustom {
 
+    private static final SortRegistry SORTS = SortRegistry.of(QAgentContainer.agentContainer.id)
+        .with("statusCode", QAgentContainer.agentContainer.statusCode)
+        .with("createdAt", QAgentContainer.agentContainer.createdAt)
+        .with("updatedAt", QAgentContainer.agentContainer.updatedAt);
+
     private final JPAQueryFactory jpaQueryFactory;
     private final EntityManager entityManager;
+    private final SearchCountCache searchCountCache;
+    private final NameSearchIndex nameSearchIndex;
+    private final ContainerCatalogRepository containerCatalogRepository;
 
-    public AgentContainerRepositoryCustomImpl(JPAQueryFactory jpaQueryFactory, EntityManager entityManager) {
+    public AgentContainerRepositoryCustomImpl(
+        JPAQueryFactory jpaQueryFactory,
+        EntityManager entityManager,
+        SearchCountCache searchCountCache,
+        NameSearchIndex nameSearchIndex,
+        ContainerCatalogRepository containerCatalogRepository
+    ) {
         this.jpaQueryFactory = jpaQueryFactory;
         this.entityManager = entityManager;
+        this.searchCountCache = searchCountCache;
+        this.nameSearchIndex = nameSearchIndex;
+        this.containerCatalogRepository = containerCatalogRepository;
     }
 
     @Override
     public Page<AgentContainer> search(UUID agentId, String containerName, StatusCode statusCode, Pageable pageable) {
+        BooleanBuilder builder = searchPredicate(agentId, containerName, statusCode);
+        if (builder.hasValue()) {
+            JPQLQuery<AgentContainer> query = searchQuery(containerName, builder, true);
+            JPQLQuery<AgentContainer> countQuery = searchQuery(containerName, builder, false);
+            return QuerydslUtil.fetchPage(query, countQuery, SORTS, pageable);
+        } else {
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Slice<AgentContainer> search(UUID agentId, String containerName, StatusCode statusCode, CountStrategy countStrategy, Pageable pageable) {
+        BooleanBuilder builder = searchPredicate(agentId, containerName, statusCode);
+        if (builder.hasValue()) {
+            JPQLQuery<AgentContainer> query = searchQuery(containerName, builder, true);
+            JPQLQuery<AgentContainer> countQuery = searchQuery(containerName, builder, false);
+            return QuerydslUtil.fetch(
+                query,
+                countQuery,
+                QAgentContainer.agentContainer,
+                builder,
+                SORTS,
+                pageable,
+                countStrategy,
+                searchCountCache
+            );
+        } else {
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Slice<AgentContainerDTO> searchView(
+        UUID agentId,
+        String containerName,
+        StatusCode statusCode,
+        Class<?> view,
+        CountStrategy countStrategy,
+        Pageable pageable
+    ) {
+        BooleanBuilder builder = searchPredicate(agentId, containerName, statusCode);
+        if (builder.hasValue()) {
+            JPQLQuery<AgentContainerDTO> query = joinContainer(
+                jpaQueryFactory.select(projection(view)).from(QAgentContainer.agentContainer),
+                containerName,
+                false
+            ).where(builder);
+            return QuerydslUtil.fetch(query, QAgentContainer.agentContainer, builder, SORTS, pageable, countStrategy, searchCountCache);
+        } else {
+            return Page.empty();
+        }
+    }
+
+    private static Expression<AgentContainerDTO> projection(Class<?> view) {
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        // the agent and the container only carry their id below the Full view, as in AgentContainerMapper
+        if (JsonViewType.Shallow.class.equals(view) || JsonViewType.Update.class.equals(view)) {
+            return Projections.fields(
+                AgentContainerDTO.class,
+                qAgentContainer.id,
+                Projections.fields(AgentDTO.class, qAgentContainer.agent.id).as("agent"),
+                Projections.fields(ContainerDTO.class, qAgentContainer.container.id).as("container")
+            );
+        }
+        throw new IllegalArgumentException("No AgentContainer projection for view " + view.getName());
+    }
+
+    @Override
+    public KeysetSlice<AgentContainer> scroll(UUID agentId, String containerName, StatusCode statusCode, String cursor, Pageable pageable) {
+        BooleanBuilder builder = searchPredicate(agentId, containerName, statusCode);
+        if (builder.hasValue()) {
+            JPQLQuery<AgentContainer> query = searchQuery(containerName, builder, true);
+            return QuerydslUtil.fetchSlice(query, SORTS, pageable, cursor);
+        } else {
+            return KeysetSlice.empty(pageable);
+        }
+    }
+
+    private JPQLQuery<AgentContainer> searchQuery(String containerName, BooleanBuilder builder, boolean fetchJoin) {
+        return joinContainer(jpaQueryFactory.selectFrom(QAgentContainer.agentContainer), containerName, fetchJoin).where(builder);
+    }
+
+    /**
+     * Join the container when the search filters on its name, fetching it with the rows when {@code fetchJoin} is set.
+     * <p>
+     * The agent is never joined: the mappers only read its id from the foreign key, and hydrating it would also load its
+     * inverse one-to-one {@code agentStatus} with one select per agent.
+     */
+    private static <T> JPQLQuery<T> joinContainer(JPQLQuery<T> query, String containerName, boolean fetchJoin) {
+        if (CommonUtils.isValid(containerName)) {
+            query = query.innerJoin(QAgentContainer.agentContainer.container, QContainer.container);
+            if (fetchJoin) {
+                query = query.fetchJoin();
+            }
+        }
+        return query;
+    }
+
+    private BooleanBuilder searchPredicate(UUID agentId, String containerName, StatusCode statusCode) {
         QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
         BooleanBuilder builder = new BooleanBuilder();
         if (agentId != null) {
@@ -52,14 +258,11 @@ class AgentContainerRepositoryCustomImpl implements AgentContainerRepositoryCust
             builder.and(qAgentContainer.statusCode.eq(statusCode));
         }
         if (CommonUtils.isValid(containerName)) {
-            builder.and(qAgentContainer.container.name.containsIgnoreCase(containerName));
-        }
-        if (builder.hasValue()) {
-            JPQLQuery<AgentContainer> query = jpaQueryFactory.selectFrom(qAgentContainer).where(builder);
-            return QuerydslUtil.fetchPage(query, pageable);
-        } else {
-            return Page.empty();
+            // QContainer.container is the alias joined by joinContainer
+            QContainer qContainer = QContainer.container;
+            builder.and(nameSearchIndex.nameContains(NameSearchTarget.CONTAINER, qContainer.id, qContainer.name, containerName));
         }
+        return builder;
     }
 
     @Override
@@ -76,4 +279,118 @@ class AgentContainerRepositoryCustomImpl implements AgentContainerRepositoryCust
         JPQLQuery<AgentContainer> query = jpaQueryFactory.selectFrom(qAgentContainer).where(builder);
         return Optional.ofNullable(query.fetchOne());
     }
+
+    @Override
+    public Optional<List<Instant>> findVersionsByAgentIdAndContainerId(UUID agentId, UUID containerId) {
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        QAgent qAgent = QAgent.agent;
+        QContainer qContainer = QContainer.container;
+        Expression<Instant> version = qAgentContainer.updatedAt.coalesce(qAgentContainer.createdAt);
+        Expression<Instant> agentVersion = qAgent.updatedAt.coalesce(qAgent.createdAt);
+        Expression<Instant> containerVersion = qContainer.updatedAt.coalesce(qContainer.createdAt);
+        Tuple tuple = jpaQueryFactory
+            .select(version, agentVersion, containerVersion)
+            .from(qAgentContainer)
+            .join(qAgentContainer.agent, qAgent)
+            .join(qAgentContainer.container, qContainer)
+            .where(qAgent.id.eq(agentId), qContainer.id.eq(containerId))
+            .fetchOne();
+        if (tuple == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Arrays.asList(tuple.get(version), tuple.get(agentVersion), tuple.get(containerVersion)));
+    }
+
+    @Override
+    public long bulkUpdateStatusCode(
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode,
+        String agentUserId,
+        StatusCode statusCode,
+        Instant timestamp,
+        int batchSize
+    ) {
+        if ((agentIds != null && agentIds.isEmpty()) || (containerIds != null && containerIds.isEmpty())) {
+            return 0;
+        }
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        BooleanBuilder builder = bulkPredicate(agentIds, containerIds, currentStatusCode, agentUserId);
+        if (currentStatusCode == null) {
+            builder.and(qAgentContainer.statusCode.ne(statusCode).or(qAgentContainer.statusCode.isNull()));
+        }
+        // bulk updates evict the AgentContainer second level cache region
+        return QuerydslUtil.forEachIdBatch(jpaQueryFactory, qAgentContainer, qAgentContainer.id, builder, batchSize, batch -> {
+            List<UUID> batchContainerIds = findContainerIds(batch);
+            long updated = jpaQueryFactory
+                .update(qAgentContainer)
+                .set(qAgentContainer.statusCode, statusCode)
+                .set(qAgentContainer.updatedAt, timestamp)
+                .where(qAgentContainer.id.in(batch))
+                .execute();
+            containerCatalogRepository.refresh(batchContainerIds);
+            return updated;
+        });
+    }
+
+    @Override
+    public long bulkDelete(
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode,
+        String agentUserId,
+        int batchSize
+    ) {
+        if ((agentIds != null && agentIds.isEmpty()) || (containerIds != null && containerIds.isEmpty())) {
+            return 0;
+        }
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        BooleanBuilder builder = bulkPredicate(agentIds, containerIds, currentStatusCode, agentUserId);
+        // bulk deletes evict the AgentContainer region and the agentContainers collection regions of Agent and Container
+        return QuerydslUtil.forEachIdBatch(jpaQueryFactory, qAgentContainer, qAgentContainer.id, builder, batchSize, batch -> {
+            // read before the delete, the links are what ties the batch to its containers
+            List<UUID> batchContainerIds = findContainerIds(batch);
+            long deleted = jpaQueryFactory.delete(qAgentContainer).where(qAgentContainer.id.in(batch)).execute();
+            containerCatalogRepository.refresh(batchContainerIds);
+            return deleted;
+        });
+    }
+
+    /**
+     * The containers of a batch of agent containers, whose catalog rows the batch changes.
+     */
+    private List<UUID> findContainerIds(List<UUID> agentContainerIds) {
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        return jpaQueryFactory
+            .selectDistinct(qAgentContainer.container.id)
+            .from(qAgentContainer)
+            .where(qAgentContainer.id.in(agentContainerIds))
+            .fetch();
+    }
+
+    private BooleanBuilder bulkPredicate(
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode,
+        String agentUserId
+    ) {
+        Assert.hasText(agentUserId, "Bulk writes are restricted to the agents of a user");
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        QAgent qAgent = QAgent.agent;
+        BooleanBuilder builder = new BooleanBuilder();
+        // one semi-join on agent(created_by_user_id) instead of an ownership check per agent container
+        builder.and(
+            qAgentContainer.agent.id.in(JPAExpressions.select(qAgent.id).from(qAgent).where(qAgent.createdByUser.id.eq(agentUserId)))
+        );
+        if (agentIds != null) {
+            builder.and(qAgentContainer.agent.id.in(agentIds));
+        }
+        if (containerIds != null) {
+            builder.and(qAgentContainer.container.id.in(containerIds));
+        }
+        if (currentStatusCode != null) {
+            builder.and(qAgentContainer.statusCode.eq(currentStatusCode));
+        }
+        return builder;
+    }
 }
@@ -1,17 +1,27 @@
 package io.hpp.noosphere.hub.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import io.hpp.noosphere.hub.domain.Agent;
 import io.hpp.noosphere.hub.domain.QAgent;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.service.dto.AgentDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
 import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -27,44 +37,213 @@ public interface AgentRepository extends JpaRepository<Agent, UUID>, AgentReposi
 interface AgentRepositoryCustom {
 
   Page<Agent> search(String name, StatusCode statusCode, String createdByUserId, Pageable pageable);
+  Slice<Agent> search(String name, StatusCode statusCode, String createdByUserId, CountStrategy countStrategy, Pageable pageable);
+
+  /**
+   * Search agents through the {@link SearchResultCache}: only the ids of the page are searched and cached, the agents are
+   * multi-loaded from the second level cache.
+   *
+   * @param countStrategy how to count the results.
+   * @param pageable      the pagination information.
+   * @return a page of entities, or a slice with {@link CountStrategy#NONE}.
+   */
+  Slice<Agent> searchCached(String name, StatusCode statusCode, String createdByUserId, CountStrategy countStrategy, Pageable pageable);
+
+  /**
+   * Search agents, selecting only the columns serialized with {@code view} straight into DTOs instead of hydrating the
+   * entities. The lob {@code description} is never selected, it is only loaded by the detail GET.
+   *
+   * @param view          {@link JsonViewType.Shallow} or {@link JsonViewType.Update}.
+   * @param countStrategy how to count the results.
+   * @param pageable      the pagination information.
+   * @return a page of DTOs, or a slice with {@link CountStrategy#NONE}.
+   */
+  Slice<AgentDTO> searchView(
+    String name,
+    StatusCode statusCode,
+    String createdByUserId,
+    Class<?> view,
+    CountStrategy countStrategy,
+    Pageable pageable
+  );
+
+  KeysetSlice<Agent> scroll(String name, StatusCode statusCode, String createdByUserId, String cursor, Pageable pageable);
 
   Page<Agent> findActiveByName(String name, Pageable pageable);
 
   Page<Agent> findActiveByCreatedByUserId(String userId, Pageable pageable);
 
   Optional<Agent> findByIdAndCreatedByUserId(UUID id, String createdByUserId);
+
+  /**
+   * Look up the owners of several agents with a single query.
+   *
+   * @param ids the ids of the agents.
+   * @return the id of the user who created each existing agent, missing agents are absent from the map.
+   */
+  Map<UUID, String> findCreatedByUserIdsByIdIn(Collection<UUID> ids);
+
+  /**
+   * Look up the owners and status codes of several agents with a single query, for the {@link OwnerCache}.
+   *
+   * @param ids the ids of the agents.
+   * @return the owner of each existing agent, missing agents are absent from the map.
+   */
+  Map<UUID, OwnerCache.Owner> findOwnersByIdIn(Collection<UUID> ids);
+
+  /**
+   * Look up the version stamp of an agent: the time of its last update, or of its creation when never updated. An agent in
+   * the second level cache is read from it, otherwise only the two timestamps are selected.
+   *
+   * @param id the id of the agent.
+   * @return the version stamp, or empty when the agent does not exist.
+   */
+  Optional<Instant> findVersionById(UUID id);
+
+  /**
+   * Change the status code of several agents with a single bulk update. Agents already in {@code statusCode} are left
+   * untouched. When agents changed, the catalog rows of their containers are refreshed, and their cached owners and the
+   * cached agent searches cleared.
+   *
+   * @param ids               the ids of the agents.
+   * @param currentStatusCode only agents currently in this status are updated, {@code null} for any status.
+   * @param statusCode        the new status code.
+   * @param timestamp         the update time.
+   * @return the number of updated agents.
+   */
+  long updateStatusCode(Collection<UUID> ids, StatusCode currentStatusCode, StatusCode statusCode, Instant timestamp);
 }
 
 @Repository
 class AgentRepositoryCustomImpl implements AgentRepositoryCustom {
 
+  private static final SortRegistry SORTS = SortRegistry.of(QAgent.agent.id)
+    .with("name", QAgent.agent.name)
+    .with("statusCode", QAgent.agent.statusCode)
+    .with("createdAt", QAgent.agent.createdAt)
+    .with("updatedAt", QAgent.agent.updatedAt);
+
   private final JPAQueryFactory jpaQueryFactory;
   private final EntityManager entityManager;
+  private final SearchCountCache searchCountCache;
+  private final NameSearchIndex nameSearchIndex;
+  private final ContainerCatalogRepository containerCatalogRepository;
+  private final SearchResultCache searchResultCache;
+  private final OwnerCache ownerCache;
 
-  public AgentRepositoryCustomImpl(JPAQueryFactory jpaQueryFactory, EntityManager entityManager) {
+  public AgentRepositoryCustomImpl(
+    JPAQueryFactory jpaQueryFactory,
+    EntityManager entityManager,
+    SearchCountCache searchCountCache,
+    NameSearchIndex nameSearchIndex,
+    ContainerCatalogRepository containerCatalogRepository,
+    SearchResultCache searchResultCache,
+    OwnerCache ownerCache
+  ) {
     this.jpaQueryFactory = jpaQueryFactory;
     this.entityManager = entityManager;
+    this.searchCountCache = searchCountCache;
+    this.nameSearchIndex = nameSearchIndex;
+    this.containerCatalogRepository = containerCatalogRepository;
+    this.searchResultCache = searchResultCache;
+    this.ownerCache = ownerCache;
   }
 
   @Override
   public Page<Agent> search(String name, StatusCode statusCode, String createdByUserId, Pageable pageable) {
+    BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId);
+    if (builder.hasValue()) {
+      JPQLQuery<Agent> query = jpaQueryFactory.selectFrom(QAgent.agent).where(builder);
+      return QuerydslUtil.fetchPage(query, SORTS, pageable);
+    } else {
+      return Page.empty();
+    }
+  }
+
+  @Override
+  public Slice<Agent> search(String name, StatusCode statusCode, String createdByUserId, CountStrategy countStrategy, Pageable pageable) {
+    BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId);
+    if (builder.hasValue()) {
+      JPQLQuery<Agent> query = jpaQueryFactory.selectFrom(QAgent.agent).where(builder);
+      return QuerydslUtil.fetch(query, QAgent.agent, builder, SORTS, pageable, countStrategy, searchCountCache);
+    } else {
+      return Page.empty();
+    }
+  }
+
+  @Override
+  public Slice<Agent> searchCached(
+    String name,
+    StatusCode statusCode,
+    String createdByUserId,
+    CountStrategy countStrategy,
+    Pageable pageable
+  ) {
+    BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId);
+    if (builder.hasValue()) {
+      return searchResultCache.search(QAgent.agent, builder, pageable, countStrategy, () -> {
+        JPQLQuery<UUID> query = jpaQueryFactory.select(QAgent.agent.id).from(QAgent.agent).where(builder);
+        return QuerydslUtil.fetch(query, QAgent.agent, builder, SORTS, pageable, countStrategy, searchCountCache);
+      });
+    } else {
+      return Page.empty();
+    }
+  }
+
+  @Override
+  public Slice<AgentDTO> searchView(
+    String name,
+    StatusCode statusCode,
+    String createdByUserId,
+    Class<?> view,
+    CountStrategy countStrategy,
+    Pageable pageable
+  ) {
+    BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId);
+    if (builder.hasValue()) {
+      JPQLQuery<AgentDTO> query = jpaQueryFactory.select(projection(view)).from(QAgent.agent).where(builder);
+      return QuerydslUtil.fetch(query, QAgent.agent, builder, SORTS, pageable, countStrategy, searchCountCache);
+    } else {
+      return Page.empty();
+    }
+  }
+
+  private static Expression<AgentDTO> projection(Class<?> view) {
+    QAgent qAgent = QAgent.agent;
+    // fields are matched by name, the argument order of the generated constructor does not matter
+    if (JsonViewType.Shallow.class.equals(view)) {
+      return Projections.fields(AgentDTO.class, qAgent.id, qAgent.name);
+    }
+    if (JsonViewType.Update.class.equals(view)) {
+      return Projections.fields(AgentDTO.class, qAgent.id, qAgent.name, qAgent.apiUrl, qAgent.apiKey);
+    }
+    throw new IllegalArgumentException("No Agent projection for view " + view.getName());
+  }
+
+  @Override
+  public KeysetSlice<Agent> scroll(String name, StatusCode statusCode, String createdByUserId, String cursor, Pageable pageable) {
+    BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId);
+    if (builder.hasValue()) {
+      JPQLQuery<Agent> query = jpaQueryFactory.selectFrom(QAgent.agent).where(builder);
+      return QuerydslUtil.fetchSlice(query, SORTS, pageable, cursor);
+    } else {
+      return KeysetSlice.empty(pageable);
+    }
+  }
+
+  private BooleanBuilder searchPredicate(String name, StatusCode statusCode, String createdByUserId) {
     QAgent qAgent = QAgent.agent;
     BooleanBuilder builder = new BooleanBuilder();
     if (statusCode != null) {
       builder.and(qAgent.statusCode.eq(statusCode));
     }
     if (CommonUtils.isValid(name)) {
-      builder.and(qAgent.name.containsIgnoreCase(name));
+      builder.and(nameSearchIndex.nameContains(NameSearchTarget.AGENT, qAgent.id, qAgent.name, name));
     }
     if (CommonUtils.isValid(createdByUserId)) {
       builder.and(qAgent.createdByUser.id.eq(createdByUserId));
     }
-    if (builder.hasValue()) {
-      JPQLQuery<Agent> query = jpaQueryFactory.selectFrom(qAgent).where(builder);
-      return QuerydslUtil.fetchPage(query, pageable);
-    } else {
-      return Page.empty();
-    }
+    return builder;
   }
 
   @Override
@@ -86,4 +265,77 @@ class AgentRepositoryCustomImpl implements AgentRepositoryCustom {
     JPQLQuery<Agent> query = jpaQueryFactory.selectFrom(qAgent).where(builder);
     return Optional.ofNullable(query.fetchOne());
   }
+
+  @Override
+  public Map<UUID, String> findCreatedByUserIdsByIdIn(Collection<UUID> ids) {
+    Map<UUID, String> createdByUserIds = new HashMap<>();
+    if (ids.isEmpty()) {
+      return createdByUserIds;
+    }
+    QAgent qAgent = QAgent.agent;
+    // created_by_user_id is a column of agent, no join with jhi_user is needed
+    for (Tuple tuple : jpaQueryFactory.select(qAgent.id, qAgent.createdByUser.id).from(qAgent).where(qAgent.id.in(ids)).fetch()) {
+      createdByUserIds.put(tuple.get(qAgent.id), tuple.get(qAgent.createdByUser.id));
+    }
+    return createdByUserIds;
+  }
+
+  @Override
+  public Map<UUID, OwnerCache.Owner> findOwnersByIdIn(Collection<UUID> ids) {
+    Map<UUID, OwnerCache.Owner> owners = new HashMap<>();
+    if (ids.isEmpty()) {
+      return owners;
+    }
+    QAgent qAgent = QAgent.agent;
+    for (Tuple tuple : jpaQueryFactory
+      .select(qAgent.id, qAgent.createdByUser.id, qAgent.statusCode)
+      .from(qAgent)
+      .where(qAgent.id.in(ids))
+      .fetch()) {
+      owners.put(tuple.get(qAgent.id), new OwnerCache.Owner(tuple.get(qAgent.createdByUser.id), tuple.get(qAgent.statusCode)));
+    }
+    return owners;
+  }
+
+  @Override
+  public Optional<Instant> findVersionById(UUID id) {
+    if (entityManager.getEntityManagerFactory().getCache().contains(Agent.class, id)) {
+      return Optional.ofNullable(entityManager.find(Agent.class, id)).map(agent ->
+        agent.getUpdatedAt() != null ? agent.getUpdatedAt() : agent.getCreatedAt()
+      );
+    }
+    QAgent qAgent = QAgent.agent;
+    return Optional.ofNullable(
+      jpaQueryFactory.select(qAgent.updatedAt.coalesce(qAgent.createdAt)).from(qAgent).where(qAgent.id.eq(id)).fetchOne()
+    );
+  }
+
+  @Override
+  public long updateStatusCode(Collection<UUID> ids, StatusCode currentStatusCode, StatusCode statusCode, Instant timestamp) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    QAgent qAgent = QAgent.agent;
+    BooleanBuilder builder = new BooleanBuilder();
+    builder.and(qAgent.id.in(ids));
+    if (currentStatusCode != null) {
+      builder.and(qAgent.statusCode.eq(currentStatusCode));
+    } else {
+      builder.and(qAgent.statusCode.ne(statusCode).or(qAgent.statusCode.isNull()));
+    }
+    // bulk updates evict the Agent second level cache region
+    long updated = jpaQueryFactory
+      .update(qAgent)
+      .set(qAgent.statusCode, statusCode)
+      .set(qAgent.updatedAt, timestamp)
+      .where(builder)
+      .execute();
+    if (updated > 0) {
+      // keep-alives of active agents update nothing, only actual transitions recompute the catalog
+      containerCatalogRepository.refreshByAgentIds(ids);
+      ownerCache.evict(Agent.class, ids);
+      searchResultCache.invalidate(Agent.class);
+    }
+    return updated;
+  }
 }
@@ -1,15 +1,25 @@
 package io.hpp.noosphere.hub.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import io.hpp.noosphere.hub.domain.AgentStatus;
+import io.hpp.noosphere.hub.domain.QAgent;
 import io.hpp.noosphere.hub.domain.QAgentStatus;
+import io.hpp.noosphere.hub.domain.UuidV7Generator;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
 import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.query.NativeQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -21,7 +31,11 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface AgentStatusRepository extends JpaRepository<AgentStatus, UUID>, AgentStatusRepositoryCustom {
-
+  /**
+   * The last keep-alive of an agent, or its creation time when it never sent one. Also the keyset of the passes of the
+   * liveness sweep.
+   */
+  record KeepAlive(UUID agentId, Instant lastKeepAliveAt) {}
 }
 
 interface AgentStatusRepositoryCustom {
@@ -33,32 +47,97 @@ interface AgentStatusRepositoryCustom {
   Optional<AgentStatus> findByAgentId(UUID agentId);
 
   Page<AgentStatus> findByAgentStatusCode(StatusCode agentStatusCode, Pageable pageable);
+
+  /**
+   * Insert or move forward the {@code last_keep_alive_at} of several agents with a single multi-row upsert, then the
+   * latest keep-alive of the catalog rows of their containers. Agents which no longer exist are skipped.
+   *
+   * @param lastKeepAliveAtByAgentId the latest keep-alive timestamp of each agent.
+   * @return the number of affected rows as reported by the driver.
+   */
+  int upsertLastKeepAliveAt(Map<UUID, Instant> lastKeepAliveAtByAgentId);
+
+  /**
+   * Find the agents whose last keep-alive is older than the given instant, oldest first then by id: a range of
+   * {@code idx_agent_status__last_keep_alive_at_agent_id}, read in its order. Agents which never sent a keep-alive, and so
+   * have no agent status, are found by {@link #findWithoutKeepAliveCreatedBefore}.
+   *
+   * @param agentStatusCode     the current status code of the agents.
+   * @param lastKeepAliveBefore the keep-alive cutoff.
+   * @param after               the last agent of the previous page, {@code null} for the first page.
+   * @param limit               the maximum number of agents to return.
+   * @return the agents with their last keep-alive.
+   */
+  List<AgentStatusRepository.KeepAlive> findByLastKeepAliveAtBefore(
+    StatusCode agentStatusCode,
+    Instant lastKeepAliveBefore,
+    AgentStatusRepository.KeepAlive after,
+    int limit
+  );
+
+  /**
+   * Find the agents which never sent a keep-alive, and so have no agent status, created before the given instant, oldest
+   * first then by id: a range of {@code idx_agent__status_code_created_at}, anti-joined with {@code agent_status}.
+   *
+   * @param agentStatusCode the current status code of the agents.
+   * @param createdBefore   the keep-alive cutoff.
+   * @param after           the last agent of the previous page, {@code null} for the first page.
+   * @param limit           the maximum number of agents to return.
+   * @return the agents with their creation time.
+   */
+  List<AgentStatusRepository.KeepAlive> findWithoutKeepAliveCreatedBefore(
+    StatusCode agentStatusCode,
+    Instant createdBefore,
+    AgentStatusRepository.KeepAlive after,
+    int limit
+  );
 }
 
 @Repository
 class AgentStatusRepositoryCustomImpl implements AgentStatusRepositoryCustom {
 
+  private static final SortRegistry SORTS = SortRegistry.of(QAgentStatus.agentStatus.id)
+    .with("createdAt", QAgentStatus.agentStatus.createdAt)
+    .with("lastKeepAliveAt", QAgentStatus.agentStatus.lastKeepAliveAt);
+
   private final JPAQueryFactory jpaQueryFactory;
   private final EntityManager entityManager;
+  private final NameSearchIndex nameSearchIndex;
+  private final ContainerCatalogRepository containerCatalogRepository;
 
-  public AgentStatusRepositoryCustomImpl(JPAQueryFactory jpaQueryFactory, EntityManager entityManager) {
+  public AgentStatusRepositoryCustomImpl(
+    JPAQueryFactory jpaQueryFactory,
+    EntityManager entityManager,
+    NameSearchIndex nameSearchIndex,
+    ContainerCatalogRepository containerCatalogRepository
+  ) {
     this.jpaQueryFactory = jpaQueryFactory;
     this.entityManager = entityManager;
+    this.nameSearchIndex = nameSearchIndex;
+    this.containerCatalogRepository = containerCatalogRepository;
   }
 
   @Override
   public Page<AgentStatus> search(String agentName, StatusCode agentStatusCode, Pageable pageable) {
     QAgentStatus qAgentStatus = QAgentStatus.agentStatus;
+    QAgent qAgent = QAgent.agent;
     BooleanBuilder builder = new BooleanBuilder();
     if (agentStatusCode != null) {
-      builder.and(qAgentStatus.agent.statusCode.eq(agentStatusCode));
+      builder.and(qAgent.statusCode.eq(agentStatusCode));
     }
     if (CommonUtils.isValid(agentName)) {
-      builder.and(qAgentStatus.agent.name.containsIgnoreCase(agentName));
+      builder.and(nameSearchIndex.nameContains(NameSearchTarget.AGENT, qAgent.id, qAgent.name, agentName));
     }
     if (builder.hasValue()) {
-      JPQLQuery<AgentStatus> query = jpaQueryFactory.selectFrom(qAgentStatus).where(builder);
-      return QuerydslUtil.fetchPage(query, pageable);
+      // the filters join the agent anyway, so it is fetched with the rows. Its inverse agentStatus is resolved from the
+      // same row instead of one select per agent.
+      JPQLQuery<AgentStatus> query = jpaQueryFactory
+        .selectFrom(qAgentStatus)
+        .innerJoin(qAgentStatus.agent, qAgent)
+        .fetchJoin()
+        .where(builder);
+      JPQLQuery<AgentStatus> countQuery = jpaQueryFactory.selectFrom(qAgentStatus).innerJoin(qAgentStatus.agent, qAgent).where(builder);
+      return QuerydslUtil.fetchPage(query, countQuery, SORTS, pageable);
     } else {
       return Page.empty();
     }
@@ -82,4 +161,112 @@ class AgentStatusRepositoryCustomImpl implements AgentStatusRepositoryCustom {
     JPQLQuery<AgentStatus> query = jpaQueryFactory.selectFrom(qAgentStatus).where(builder);
     return Optional.ofNullable(query.fetchOne());
   }
+
+  @Override
+  public int upsertLastKeepAliveAt(Map<UUID, Instant> lastKeepAliveAtByAgentId) {
+    if (lastKeepAliveAtByAgentId.isEmpty()) {
+      return 0;
+    }
+    // agent_status.agent_id is unique, so existing rows are updated in place and first heartbeats create the row.
+    // The heartbeats are joined with agent, so that the ids of agents deleted since their heartbeat drop out instead of
+    // failing the foreign key, and with it every heartbeat of the batch. greatest() keeps a late flush from moving the
+    // timestamp backwards.
+    String sql =
+      "insert into agent_status (id, created_at, last_keep_alive_at, agent_id) " +
+      "select * from (" +
+      "select h.id, h.keep_alive created_at, h.keep_alive, a.id agent_id from (" +
+      String.join(" union all ", Collections.nCopies(lastKeepAliveAtByAgentId.size(), "select ? id, ? keep_alive, ? agent_id")) +
+      ") h join agent a on a.id = h.agent_id) heartbeat " +
+      "on duplicate key update last_keep_alive_at = " +
+      "greatest(coalesce(agent_status.last_keep_alive_at, heartbeat.keep_alive), heartbeat.keep_alive)";
+    NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+    // invalidates the AgentStatus second level cache region once the statement is executed
+    query.addSynchronizedEntityClass(AgentStatus.class);
+    // the agent rows are locked in primary key order, the order of the bulk status updates of agent
+    List<Map.Entry<UUID, Instant>> heartbeats = lastKeepAliveAtByAgentId
+      .entrySet()
+      .stream()
+      .sorted(Comparator.comparing(entry -> UuidV7Generator.toBytes(entry.getKey()), Arrays::compareUnsigned))
+      .toList();
+    int position = 1;
+    for (Map.Entry<UUID, Instant> entry : heartbeats) {
+      query.setParameter(position++, UuidV7Generator.toBytes(UuidV7Generator.generate()));
+      query.setParameter(position++, entry.getValue());
+      query.setParameter(position++, UuidV7Generator.toBytes(entry.getKey()));
+    }
+    int affected = query.executeUpdate();
+    containerCatalogRepository.updateLastKeepAliveAt(lastKeepAliveAtByAgentId.keySet());
+    return affected;
+  }
+
+  @Override
+  public List<AgentStatusRepository.KeepAlive> findByLastKeepAliveAtBefore(
+    StatusCode agentStatusCode,
+    Instant lastKeepAliveBefore,
+    AgentStatusRepository.KeepAlive after,
+    int limit
+  ) {
+    QAgent qAgent = QAgent.agent;
+    QAgentStatus qAgentStatus = QAgentStatus.agentStatus;
+    // driven from agent_status: the keep-alives before the cutoff are a range of
+    // idx_agent_status__last_keep_alive_at_agent_id, whose order is the order of the keyset, and each one joins its agent
+    // by primary key for the status filter
+    BooleanBuilder builder = new BooleanBuilder();
+    builder.and(qAgentStatus.lastKeepAliveAt.lt(lastKeepAliveBefore));
+    if (agentStatusCode != null) {
+      builder.and(qAgent.statusCode.eq(agentStatusCode));
+    }
+    if (after != null) {
+      builder.and(
+        qAgentStatus.lastKeepAliveAt
+          .gt(after.lastKeepAliveAt())
+          .or(qAgentStatus.lastKeepAliveAt.eq(after.lastKeepAliveAt()).and(qAgentStatus.agent.id.gt(after.agentId())))
+      );
+    }
+    return jpaQueryFactory
+      .select(qAgentStatus.agent.id, qAgentStatus.lastKeepAliveAt)
+      .from(qAgentStatus)
+      .innerJoin(qAgentStatus.agent, qAgent)
+      .where(builder)
+      .orderBy(qAgentStatus.lastKeepAliveAt.asc(), qAgentStatus.agent.id.asc())
+      .limit(limit)
+      .fetch()
+      .stream()
+      .map(tuple -> new AgentStatusRepository.KeepAlive(tuple.get(qAgentStatus.agent.id), tuple.get(qAgentStatus.lastKeepAliveAt)))
+      .toList();
+  }
+
+  @Override
+  public List<AgentStatusRepository.KeepAlive> findWithoutKeepAliveCreatedBefore(
+    StatusCode agentStatusCode,
+    Instant createdBefore,
+    AgentStatusRepository.KeepAlive after,
+    int limit
+  ) {
+    QAgent qAgent = QAgent.agent;
+    QAgentStatus qAgentStatus = QAgentStatus.agentStatus;
+    // driven from agent: the agents created before the cutoff are a range of idx_agent__status_code_created_at, which ends
+    // with the primary key and so is in the order of the keyset, and the unique agent_id of agent_status anti-joins them
+    BooleanBuilder builder = new BooleanBuilder();
+    builder.and(qAgent.createdAt.lt(createdBefore));
+    if (agentStatusCode != null) {
+      builder.and(qAgent.statusCode.eq(agentStatusCode));
+    }
+    builder.and(JPAExpressions.selectOne().from(qAgentStatus).where(qAgentStatus.agent.id.eq(qAgent.id)).notExists());
+    if (after != null) {
+      builder.and(
+        qAgent.createdAt.gt(after.lastKeepAliveAt()).or(qAgent.createdAt.eq(after.lastKeepAliveAt()).and(qAgent.id.gt(after.agentId())))
+      );
+    }
+    return jpaQueryFactory
+      .select(qAgent.id, qAgent.createdAt)
+      .from(qAgent)
+      .where(builder)
+      .orderBy(qAgent.createdAt.asc(), qAgent.id.asc())
+      .limit(limit)
+      .fetch()
+      .stream()
+      .map(tuple -> new AgentStatusRepository.KeepAlive(tuple.get(qAgent.id), tuple.get(qAgent.createdAt)))
+      .toList();
+  }
 }
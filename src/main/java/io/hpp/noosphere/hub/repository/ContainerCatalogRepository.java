@@ -0,0 +1,279 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.hpp.noosphere.hub.domain.ContainerCatalog;
+import io.hpp.noosphere.hub.domain.QContainerCatalog;
+import io.hpp.noosphere.hub.domain.UuidV7Generator;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Spring Data JPA repository for the ContainerCatalog read model.
+ * <p>
+ * Catalog rows are recomputed for the containers affected by a write, in the same transaction: container writes, agent
+ * link writes and agent status changes {@link ContainerCatalogRepositoryCustom#refresh refresh} the rows of the containers
+ * involved, and keep-alives only move {@code last_keep_alive_at} forward.
+ * <p>
+ * The aggregates are read without locks, then written to the catalog rows in container id order. So the only rows a
+ * catalog write locks are its own: keep-alives lock {@code agent_status} then {@code container_catalog}, status changes
+ * {@code agent} then {@code container_catalog}, and neither waits for the rows the other locked first. As the aggregate
+ * of a refresh is read from the snapshot of its transaction, the rows are refreshed once more after the commit.
+ */
+@Repository
+public interface ContainerCatalogRepository extends JpaRepository<ContainerCatalog, UUID>, ContainerCatalogRepositoryCustom {}
+
+interface ContainerCatalogRepositoryCustom {
+    /**
+     * List catalog rows without counting them.
+     *
+     * @param statusCode          the status of the containers, may be {@code null}.
+     * @param minOnlineAgentCount the lowest number of online agents, inclusive, may be {@code null}.
+     * @param pageable            the pagination information.
+     * @return the slice of catalog rows.
+     */
+    Slice<ContainerCatalog> search(StatusCode statusCode, Integer minOnlineAgentCount, Pageable pageable);
+
+    /**
+     * Recompute the catalog rows of containers from their agent links, with a single upsert. Pending changes of the
+     * persistence context are flushed first.
+     *
+     * @param containerIds the ids of the containers, missing containers are ignored.
+     * @return the number of affected rows as reported by the driver.
+     */
+    int refresh(Collection<UUID> containerIds);
+
+    /**
+     * Recompute the catalog rows of the containers linked to agents, e.g. after their status changed.
+     *
+     * @param agentIds the ids of the agents.
+     * @return the number of affected rows as reported by the driver.
+     */
+    int refreshByAgentIds(Collection<UUID> agentIds);
+
+    /**
+     * Move forward the latest keep-alive of the containers served by online agents, from the current
+     * {@code agent_status.last_keep_alive_at} of those agents. The counts are left untouched.
+     *
+     * @param agentIds the ids of the agents which sent a keep-alive.
+     * @return the number of updated rows.
+     */
+    int updateLastKeepAliveAt(Collection<UUID> agentIds);
+}
+
+@Repository
+class ContainerCatalogRepositoryCustomImpl implements ContainerCatalogRepositoryCustom {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerCatalogRepositoryCustomImpl.class);
+
+    private static final SortRegistry SORTS = SortRegistry.of(QContainerCatalog.containerCatalog.containerId)
+        .with("name", QContainerCatalog.containerCatalog.name)
+        .with("price", QContainerCatalog.containerCatalog.price)
+        .with("activeAgentCount", QContainerCatalog.containerCatalog.activeAgentCount)
+        .with("onlineAgentCount", QContainerCatalog.containerCatalog.onlineAgentCount)
+        .with("lastKeepAliveAt", QContainerCatalog.containerCatalog.lastKeepAliveAt);
+
+    /**
+     * The aggregates of the selected containers: active links, the active agents behind them, and their latest keep-alive.
+     * A plain select, which reads the rows of the transaction snapshot without locking them.
+     */
+    private static final String AGGREGATE_SQL =
+        "select c.id, c.name, c.price, c.status_code, count(ac.id), count(a.id), max(s.last_keep_alive_at) " +
+        "from container c " +
+        "left join agent_container ac on ac.container_id = c.id and ac.status_code = ? " +
+        "left join agent a on a.id = ac.agent_id and a.status_code = ? " +
+        "left join agent_status s on s.agent_id = a.id " +
+        "where c.id in (%s) " +
+        "group by c.id order by c.id";
+
+    /**
+     * Upsert of the aggregates, bound as a derived table. The outer select lets the upsert read them by name.
+     */
+    private static final String REFRESH_SQL =
+        "insert into container_catalog " +
+        "(container_id, name, price, status_code, active_agent_count, online_agent_count, last_keep_alive_at, refreshed_at) " +
+        "select * from (%s) refreshed_catalog " +
+        "on duplicate key update name = refreshed_catalog.name, price = refreshed_catalog.price, " +
+        "status_code = refreshed_catalog.status_code, active_agent_count = refreshed_catalog.active_agents, " +
+        "online_agent_count = refreshed_catalog.online_agents, last_keep_alive_at = refreshed_catalog.last_keep_alive, " +
+        "refreshed_at = refreshed_catalog.refreshed";
+
+    private static final String REFRESH_ROW_SQL =
+        "select ? container_id, ? name, ? price, ? status_code, ? active_agents, ? online_agents, ? last_keep_alive, ? refreshed";
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final EntityManager entityManager;
+    private final TransactionTemplate afterCommitTransactionTemplate;
+
+    public ContainerCatalogRepositoryCustomImpl(
+        JPAQueryFactory jpaQueryFactory,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.entityManager = entityManager;
+        this.afterCommitTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.afterCommitTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Slice<ContainerCatalog> search(StatusCode statusCode, Integer minOnlineAgentCount, Pageable pageable) {
+        QContainerCatalog qContainerCatalog = QContainerCatalog.containerCatalog;
+        BooleanBuilder builder = new BooleanBuilder();
+        if (statusCode != null) {
+            builder.and(qContainerCatalog.statusCode.eq(statusCode));
+        }
+        if (minOnlineAgentCount != null) {
+            builder.and(qContainerCatalog.onlineAgentCount.goe(minOnlineAgentCount));
+        }
+        JPQLQuery<ContainerCatalog> query = jpaQueryFactory.selectFrom(qContainerCatalog).where(builder);
+        return QuerydslUtil.fetchSlice(query, SORTS, pageable);
+    }
+
+    @Override
+    public int refresh(Collection<UUID> containerIds) {
+        if (containerIds.isEmpty()) {
+            return 0;
+        }
+        return executeRefresh(placeholders(containerIds.size()), containerIds);
+    }
+
+    @Override
+    public int refreshByAgentIds(Collection<UUID> agentIds) {
+        if (agentIds.isEmpty()) {
+            return 0;
+        }
+        // served by the agent_id foreign key index of agent_container
+        String containerIds = "select l.container_id from agent_container l where l.agent_id in (" + placeholders(agentIds.size()) + ")";
+        return executeRefresh(containerIds, agentIds);
+    }
+
+    @Override
+    public int updateLastKeepAliveAt(Collection<UUID> agentIds) {
+        if (agentIds.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        // the keep-alives of one flush are aggregated per container first, without locking the agent and link rows
+        String aggregateSql =
+            "select ac.container_id, max(s.last_keep_alive_at) " +
+            "from agent_container ac " +
+            "join agent a on a.id = ac.agent_id and a.status_code = ? " +
+            "join agent_status s on s.agent_id = ac.agent_id " +
+            "where ac.status_code = ? and ac.agent_id in (" +
+            placeholders(agentIds.size()) +
+            ") " +
+            "group by ac.container_id order by ac.container_id";
+        Query aggregate = entityManager.createNativeQuery(aggregateSql);
+        int position = 1;
+        aggregate.setParameter(position++, StatusCode.ACTIVE.name());
+        aggregate.setParameter(position++, StatusCode.ACTIVE.name());
+        for (UUID agentId : agentIds) {
+            aggregate.setParameter(position++, UuidV7Generator.toBytes(agentId));
+        }
+        List<Object[]> rows = resultRows(aggregate);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // a multi-table update changes each row once, the rows of the derived table are in container id order
+        String sql =
+            "update container_catalog cc join (" +
+            String.join(" union all ", Collections.nCopies(rows.size(), "select ? container_id, ? last_keep_alive")) +
+            ") k on k.container_id = cc.container_id " +
+            "set cc.last_keep_alive_at = greatest(coalesce(cc.last_keep_alive_at, k.last_keep_alive), k.last_keep_alive)";
+        return bind(createNativeQuery(sql), rows).executeUpdate();
+    }
+
+    private int executeRefresh(String containerIds, Collection<UUID> ids) {
+        // the aggregate reads container, agent_container and agent_status, so their pending changes must reach the database
+        entityManager.flush();
+        int affected = writeRefresh(containerIds, ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        // reads the writes committed since the snapshot of the transaction
+                        try {
+                            afterCommitTransactionTemplate.executeWithoutResult(status -> writeRefresh(containerIds, ids));
+                        } catch (RuntimeException e) {
+                            LOG.warn("Could not refresh the container catalog after commit: {}", e.getMessage());
+                        }
+                    }
+                }
+            );
+        }
+        return affected;
+    }
+
+    private int writeRefresh(String containerIds, Collection<UUID> ids) {
+        Query aggregate = entityManager.createNativeQuery(String.format(AGGREGATE_SQL, containerIds));
+        int position = 1;
+        aggregate.setParameter(position++, StatusCode.ACTIVE.name());
+        aggregate.setParameter(position++, StatusCode.ACTIVE.name());
+        for (UUID id : ids) {
+            aggregate.setParameter(position++, UuidV7Generator.toBytes(id));
+        }
+        List<Object[]> rows = resultRows(aggregate);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Instant refreshedAt = Instant.now();
+        List<Object[]> refreshedRows = rows
+            .stream()
+            .map(row -> {
+                Object[] refreshedRow = Arrays.copyOf(row, row.length + 1);
+                refreshedRow[row.length] = refreshedAt;
+                return refreshedRow;
+            })
+            .toList();
+        String sql = String.format(REFRESH_SQL, String.join(" union all ", Collections.nCopies(rows.size(), REFRESH_ROW_SQL)));
+        return bind(createNativeQuery(sql), refreshedRows).executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> resultRows(Query query) {
+        return (List<Object[]>) query.getResultList();
+    }
+
+    private static NativeQuery<?> bind(NativeQuery<?> query, List<Object[]> rows) {
+        int position = 1;
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                query.setParameter(position++, value);
+            }
+        }
+        return query;
+    }
+
+    private NativeQuery<?> createNativeQuery(String sql) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        // without a synchronized space Hibernate would evict every second level cache region, the catalog is not cached
+        query.addSynchronizedEntityClass(ContainerCatalog.class);
+        return query;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,84 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import io.hpp.noosphere.hub.domain.QContainer;
+import io.hpp.noosphere.hub.exception.InvalidDataException;
+import java.util.Map;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+/**
+ * Container parameters the search can filter on. Each one is a path of the {@code container.parameters} JSON document,
+ * extracted by the database into an indexed virtual column, so that the filters are index lookups instead of parsing the
+ * parameters of every row.
+ * <p>
+ * Making another parameter searchable takes a generated column with its index in a changelog, the read-only property of
+ * {@link io.hpp.noosphere.hub.domain.Container} mapping it, and a constant here.
+ */
+public enum ContainerParameter {
+    MODEL("model", QContainer.container.parameterModel),
+    GPU_CLASS("gpuClass", QContainer.container.parameterGpuClass),
+    MAX_TOKENS("maxTokens", QContainer.container.parameterMaxTokens);
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    private final String key;
+    private final SimpleExpression<?> path;
+
+    ContainerParameter(String key, SimpleExpression<?> path) {
+        this.key = key;
+        this.path = path;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param key the key of the parameter in the JSON document, e.g. {@code gpuClass}.
+     * @return the parameter.
+     * @throws InvalidDataException if the parameter is not searchable.
+     */
+    public static ContainerParameter of(String key) {
+        for (ContainerParameter parameter : values()) {
+            if (parameter.key.equals(key)) {
+                return parameter;
+            }
+        }
+        throw new InvalidDataException("parameters", key);
+    }
+
+    /**
+     * @param parameters the value of each searched parameter by key, {@code null} values are ignored.
+     * @return the predicate matching containers with all the given parameter values.
+     * @throws InvalidDataException if a parameter is not searchable, or its value does not convert to its type.
+     */
+    static BooleanBuilder predicate(Map<String, String> parameters) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (parameters != null) {
+            parameters.forEach((key, value) -> {
+                ContainerParameter parameter = of(key);
+                if (value != null) {
+                    builder.and(parameter.eq(value));
+                }
+            });
+        }
+        return builder;
+    }
+
+    private Predicate eq(String value) {
+        Object converted;
+        try {
+            converted = CONVERSION_SERVICE.convert(value, path.getType());
+        } catch (ConversionException e) {
+            throw new InvalidDataException("parameters." + key, value);
+        }
+        return Expressions.predicate(Ops.EQ, path, ConstantImpl.create(converted));
+    }
+}
@@ -1,58 +1,488 @@
 package io.hpp.noosphere.hub.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.QAgent;
+import io.hpp.noosphere.hub.domain.QAgentContainer;
 import io.hpp.noosphere.hub.domain.QContainer;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.service.dto.ContainerDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
 import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
 
 @Repository
-public interface ContainerRepository extends JpaRepository<Container, UUID>, ContainerRepositoryCustom {}
+public interface ContainerRepository extends JpaRepository<Container, UUID>, ContainerRepositoryCustom {
+    /**
+     * The outcome of a bulk delete: the number of deleted containers, and the selected containers which were kept because
+     * agents of other users are linked to them.
+     */
+    record BulkDeleteResult(long deleted, List<UUID> refusedIds) {}
+}
 
 interface ContainerRepositoryCustom {
     Page<Container> search(String name, StatusCode statusCode, String createdByUserId, Pageable pageable);
+    /**
+     * Search containers.
+     *
+     * @param minPrice      the lowest price, inclusive, may be {@code null}.
+     * @param maxPrice      the highest price, inclusive, may be {@code null}.
+     * @param parameters    the value of each searched {@link ContainerParameter} by key, may be {@code null}.
+     * @param countStrategy how to count the results.
+     * @param pageable      the pagination information.
+     * @return a page of entities, or a slice with {@link CountStrategy#NONE}.
+     */
+    Slice<Container> search(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        CountStrategy countStrategy,
+        Pageable pageable
+    );
+    /**
+     * Search containers through the {@link SearchResultCache}: only the ids of the page are searched and cached, the
+     * containers are multi-loaded from the second level cache.
+     *
+     * @param minPrice      the lowest price, inclusive, may be {@code null}.
+     * @param maxPrice      the highest price, inclusive, may be {@code null}.
+     * @param parameters    the value of each searched {@link ContainerParameter} by key, may be {@code null}.
+     * @param countStrategy how to count the results.
+     * @param pageable      the pagination information.
+     * @return a page of entities, or a slice with {@link CountStrategy#NONE}.
+     */
+    Slice<Container> searchCached(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        CountStrategy countStrategy,
+        Pageable pageable
+    );
+    /**
+     * Search containers, selecting only the columns serialized with {@code view} straight into DTOs instead of hydrating
+     * the entities. The large columns {@code description} and {@code parameters} are never selected, they are only loaded
+     * by the detail GET.
+     *
+     * @param minPrice      the lowest price, inclusive, may be {@code null}.
+     * @param maxPrice      the highest price, inclusive, may be {@code null}.
+     * @param parameters    the value of each searched {@link ContainerParameter} by key, may be {@code null}.
+     * @param view          {@link JsonViewType.Shallow} or {@link JsonViewType.Update}.
+     * @param countStrategy how to count the results.
+     * @param pageable      the pagination information.
+     * @return a page of DTOs, or a slice with {@link CountStrategy#NONE}.
+     */
+    Slice<ContainerDTO> searchView(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        Class<?> view,
+        CountStrategy countStrategy,
+        Pageable pageable
+    );
+    KeysetSlice<Container> scroll(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        String cursor,
+        Pageable pageable
+    );
     Page<Container> findActiveByName(String name, Pageable pageable);
     Page<Container> findActiveByCreatedByUserId(String userId, Pageable pageable);
+
+    /**
+     * Look up the owners of several containers with a single query.
+     *
+     * @param ids the ids of the containers.
+     * @return the id of the user who created each container, missing containers are left out.
+     */
+    Map<UUID, String> findCreatedByUserIdsByIdIn(Collection<UUID> ids);
+
+    /**
+     * Look up the version stamp of a container: the time of its last update, or of its creation when never updated. A
+     * container in the second level cache is read from it, otherwise only the two timestamps are selected.
+     *
+     * @param id the id of the container.
+     * @return the version stamp, or empty when the container does not exist.
+     */
+    Optional<Instant> findVersionById(UUID id);
+
+    /**
+     * Change the status code of the containers of a user selected by ids and filters, with one bulk update per batch of
+     * ids. Containers already in {@code statusCode} are left untouched. Their catalog rows are refreshed.
+     *
+     * @param ids               the ids of the containers, {@code null} to select them by the filters only.
+     * @param name              the name filter, may be {@code null}.
+     * @param currentStatusCode only containers currently in this status are updated, {@code null} for any status.
+     * @param createdByUserId   the owner of the containers.
+     * @param statusCode        the new status code.
+     * @param timestamp         the update time.
+     * @param batchSize         the number of containers per bulk update.
+     * @return the number of updated containers.
+     */
+    long bulkUpdateStatusCode(
+        Collection<UUID> ids,
+        String name,
+        StatusCode currentStatusCode,
+        String createdByUserId,
+        StatusCode statusCode,
+        Instant timestamp,
+        int batchSize
+    );
+
+    /**
+     * Delete the containers of a user selected by ids and filters, with their agent links, with bulk deletes per batch of
+     * ids. Containers linked to agents of other users are refused: neither they nor any of their links are deleted.
+     *
+     * @param ids               the ids of the containers, {@code null} to select them by the filters only.
+     * @param name              the name filter, may be {@code null}.
+     * @param currentStatusCode only containers currently in this status are deleted, {@code null} for any status.
+     * @param createdByUserId   the owner of the containers.
+     * @param batchSize         the number of containers per bulk delete.
+     * @return the number of deleted containers and the ids of the refused ones.
+     */
+    ContainerRepository.BulkDeleteResult bulkDelete(
+        Collection<UUID> ids,
+        String name,
+        StatusCode currentStatusCode,
+        String createdByUserId,
+        int batchSize
+    );
 }
 
 @Repository
 class ContainerRepositoryCustomImpl implements ContainerRepositoryCustom {
 
+    private static final SortRegistry SORTS = SortRegistry.of(QContainer.container.id)
+        .with("name", QContainer.container.name)
+        .with("price", QContainer.container.price)
+        .with("statusCode", QContainer.container.statusCode)
+        .with("createdAt", QContainer.container.createdAt)
+        .with("updatedAt", QContainer.container.updatedAt);
+
     private final JPAQueryFactory jpaQueryFactory;
     private final EntityManager entityManager;
+    private final SearchCountCache searchCountCache;
+    private final NameSearchIndex nameSearchIndex;
+    private final ContainerCatalogRepository containerCatalogRepository;
+    private final SearchResultCache searchResultCache;
 
-    public ContainerRepositoryCustomImpl(JPAQueryFactory jpaQueryFactory, EntityManager entityManager) {
+    public ContainerRepositoryCustomImpl(
+        JPAQueryFactory jpaQueryFactory,
+        EntityManager entityManager,
+        SearchCountCache searchCountCache,
+        NameSearchIndex nameSearchIndex,
+        ContainerCatalogRepository containerCatalogRepository,
+        SearchResultCache searchResultCache
+    ) {
         this.jpaQueryFactory = jpaQueryFactory;
         this.entityManager = entityManager;
+        this.searchCountCache = searchCountCache;
+        this.nameSearchIndex = nameSearchIndex;
+        this.containerCatalogRepository = containerCatalogRepository;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
     public Page<Container> search(String name, StatusCode statusCode, String createdByUserId, Pageable pageable) {
+        BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId, null, null, null);
+        if (builder.hasValue()) {
+            JPQLQuery<Container> query = jpaQueryFactory.selectFrom(QContainer.container).where(builder);
+            return QuerydslUtil.fetchPage(query, SORTS, pageable);
+        } else {
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Slice<Container> search(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        CountStrategy countStrategy,
+        Pageable pageable
+    ) {
+        BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId, minPrice, maxPrice, parameters);
+        if (builder.hasValue()) {
+            JPQLQuery<Container> query = jpaQueryFactory.selectFrom(QContainer.container).where(builder);
+            return QuerydslUtil.fetch(query, QContainer.container, builder, SORTS, pageable, countStrategy, searchCountCache);
+        } else {
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Slice<Container> searchCached(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        CountStrategy countStrategy,
+        Pageable pageable
+    ) {
+        BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId, minPrice, maxPrice, parameters);
+        if (builder.hasValue()) {
+            return searchResultCache.search(QContainer.container, builder, pageable, countStrategy, () -> {
+                JPQLQuery<UUID> query = jpaQueryFactory.select(QContainer.container.id).from(QContainer.container).where(builder);
+                return QuerydslUtil.fetch(query, QContainer.container, builder, SORTS, pageable, countStrategy, searchCountCache);
+            });
+        } else {
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Slice<ContainerDTO> searchView(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        Class<?> view,
+        CountStrategy countStrategy,
+        Pageable pageable
+    ) {
+        BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId, minPrice, maxPrice, parameters);
+        if (builder.hasValue()) {
+            JPQLQuery<ContainerDTO> query = jpaQueryFactory.select(projection(view)).from(QContainer.container).where(builder);
+            return QuerydslUtil.fetch(query, QContainer.container, builder, SORTS, pageable, countStrategy, searchCountCache);
+        } else {
+            return Page.empty();
+        }
+    }
+
+    private static Expression<ContainerDTO> projection(Class<?> view) {
+        QContainer qContainer = QContainer.container;
+        if (JsonViewType.Shallow.class.equals(view)) {
+            return Projections.fields(ContainerDTO.class, qContainer.id, qContainer.name);
+        }
+        if (JsonViewType.Update.class.equals(view)) {
+            return Projections.fields(ContainerDTO.class, qContainer.id, qContainer.name, qContainer.walletAddress, qContainer.price);
+        }
+        throw new IllegalArgumentException("No Container projection for view " + view.getName());
+    }
+
+    @Override
+    public KeysetSlice<Container> scroll(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters,
+        String cursor,
+        Pageable pageable
+    ) {
+        BooleanBuilder builder = searchPredicate(name, statusCode, createdByUserId, minPrice, maxPrice, parameters);
+        if (builder.hasValue()) {
+            JPQLQuery<Container> query = jpaQueryFactory.selectFrom(QContainer.container).where(builder);
+            return QuerydslUtil.fetchSlice(query, SORTS, pageable, cursor);
+        } else {
+            return KeysetSlice.empty(pageable);
+        }
+    }
+
+    private BooleanBuilder searchPredicate(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<String, String> parameters
+    ) {
         QContainer qContainer = QContainer.container;
         BooleanBuilder builder = new BooleanBuilder();
         if (statusCode != null) {
             builder.and(qContainer.statusCode.eq(statusCode));
         }
         if (CommonUtils.isValid(name)) {
-            builder.and(qContainer.name.containsIgnoreCase(name));
+            builder.and(nameSearchIndex.nameContains(NameSearchTarget.CONTAINER, qContainer.id, qContainer.name, name));
         }
         if (CommonUtils.isValid(createdByUserId)) {
             builder.and(qContainer.createdByUser.id.eq(createdByUserId));
         }
-        if (builder.hasValue()) {
-            JPQLQuery<Container> query = jpaQueryFactory.selectFrom(qContainer).where(builder);
-            return QuerydslUtil.fetchPage(query, pageable);
-        } else {
-            return Page.empty();
+        if (minPrice != null) {
+            builder.and(qContainer.price.goe(minPrice));
+        }
+        if (maxPrice != null) {
+            builder.and(qContainer.price.loe(maxPrice));
+        }
+        BooleanBuilder parameterPredicate = ContainerParameter.predicate(parameters);
+        if (parameterPredicate.hasValue()) {
+            builder.and(parameterPredicate);
+        }
+        return builder;
+    }
+
+    @Override
+    public Map<UUID, String> findCreatedByUserIdsByIdIn(Collection<UUID> ids) {
+        Map<UUID, String> createdByUserIds = new HashMap<>();
+        if (ids.isEmpty()) {
+            return createdByUserIds;
+        }
+        QContainer qContainer = QContainer.container;
+        // created_by_user_id is a column of container, no join with jhi_user is needed
+        for (Tuple tuple : jpaQueryFactory
+            .select(qContainer.id, qContainer.createdByUser.id)
+            .from(qContainer)
+            .where(qContainer.id.in(ids))
+            .fetch()) {
+            createdByUserIds.put(tuple.get(qContainer.id), tuple.get(qContainer.createdByUser.id));
+        }
+        return createdByUserIds;
+    }
+
+    @Override
+    public Optional<Instant> findVersionById(UUID id) {
+        if (entityManager.getEntityManagerFactory().getCache().contains(Container.class, id)) {
+            return Optional.ofNullable(entityManager.find(Container.class, id)).map(container ->
+                container.getUpdatedAt() != null ? container.getUpdatedAt() : container.getCreatedAt()
+            );
+        }
+        QContainer qContainer = QContainer.container;
+        return Optional.ofNullable(
+            jpaQueryFactory
+                .select(qContainer.updatedAt.coalesce(qContainer.createdAt))
+                .from(qContainer)
+                .where(qContainer.id.eq(id))
+                .fetchOne()
+        );
+    }
+
+    @Override
+    public long bulkUpdateStatusCode(
+        Collection<UUID> ids,
+        String name,
+        StatusCode currentStatusCode,
+        String createdByUserId,
+        StatusCode statusCode,
+        Instant timestamp,
+        int batchSize
+    ) {
+        if (ids != null && ids.isEmpty()) {
+            return 0;
+        }
+        QContainer qContainer = QContainer.container;
+        BooleanBuilder builder = bulkPredicate(ids, name, currentStatusCode, createdByUserId);
+        if (currentStatusCode == null) {
+            builder.and(qContainer.statusCode.ne(statusCode).or(qContainer.statusCode.isNull()));
+        }
+        // bulk updates evict the Container second level cache region
+        long updated = QuerydslUtil.forEachIdBatch(jpaQueryFactory, qContainer, qContainer.id, builder, batchSize, batch -> {
+            long batchUpdated = jpaQueryFactory
+                .update(qContainer)
+                .set(qContainer.statusCode, statusCode)
+                .set(qContainer.updatedAt, timestamp)
+                .where(qContainer.id.in(batch))
+                .execute();
+            containerCatalogRepository.refresh(batch);
+            return batchUpdated;
+        });
+        if (updated > 0) {
+            searchResultCache.invalidate(Container.class);
+        }
+        return updated;
+    }
+
+    @Override
+    public ContainerRepository.BulkDeleteResult bulkDelete(
+        Collection<UUID> ids,
+        String name,
+        StatusCode currentStatusCode,
+        String createdByUserId,
+        int batchSize
+    ) {
+        if (ids != null && ids.isEmpty()) {
+            return new ContainerRepository.BulkDeleteResult(0, List.of());
+        }
+        QContainer qContainer = QContainer.container;
+        QAgentContainer qAgentContainer = QAgentContainer.agentContainer;
+        QAgent qAgent = QAgent.agent;
+        BooleanBuilder builder = bulkPredicate(ids, name, currentStatusCode, createdByUserId);
+        List<UUID> refusedIds = new ArrayList<>();
+        // bulk deletes evict the Container and AgentContainer regions, and the agentContainers collection regions.
+        // The catalog rows go away with their containers.
+        long deleted = QuerydslUtil.forEachIdBatch(jpaQueryFactory, qContainer, qContainer.id, builder, batchSize, batch -> {
+            // the links of other users' agents are not the user's to delete, their containers are kept
+            List<UUID> refused = jpaQueryFactory
+                .selectDistinct(qAgentContainer.container.id)
+                .from(qAgentContainer)
+                .innerJoin(qAgentContainer.agent, qAgent)
+                .where(
+                    qAgentContainer.container.id.in(batch),
+                    qAgent.createdByUser.id.ne(createdByUserId).or(qAgent.createdByUser.id.isNull())
+                )
+                .fetch();
+            refusedIds.addAll(refused);
+            List<UUID> deletable = batch.stream().filter(id -> !refused.contains(id)).toList();
+            if (deletable.isEmpty()) {
+                return 0;
+            }
+            JPQLQuery<UUID> ownAgentIds = JPAExpressions.select(qAgent.id).from(qAgent).where(qAgent.createdByUser.id.eq(createdByUserId));
+            jpaQueryFactory
+                .delete(qAgentContainer)
+                .where(qAgentContainer.container.id.in(deletable), qAgentContainer.agent.id.in(ownAgentIds))
+                .execute();
+            // a link of another user's agent created since the check keeps its container, instead of failing the foreign key
+            QAgentContainer qForeignLink = new QAgentContainer("foreignLink");
+            return jpaQueryFactory
+                .delete(qContainer)
+                .where(
+                    qContainer.id.in(deletable),
+                    JPAExpressions.selectOne().from(qForeignLink).where(qForeignLink.container.id.eq(qContainer.id)).notExists()
+                )
+                .execute();
+        });
+        if (deleted > 0) {
+            searchResultCache.invalidate(Container.class);
+        }
+        return new ContainerRepository.BulkDeleteResult(deleted, refusedIds);
+    }
+
+    private BooleanBuilder bulkPredicate(Collection<UUID> ids, String name, StatusCode currentStatusCode, String createdByUserId) {
+        Assert.hasText(createdByUserId, "Bulk writes are restricted to the containers of a user");
+        BooleanBuilder builder = searchPredicate(name, currentStatusCode, createdByUserId, null, null, null);
+        if (ids != null) {
+            builder.and(QContainer.container.id.in(ids));
         }
+        return builder;
     }
 
     @Override
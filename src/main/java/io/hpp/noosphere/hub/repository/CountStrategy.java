@@ -0,0 +1,19 @@
+package io.hpp.noosphere.hub.repository;
+
+/**
+ * How a paged search gets the total number of results.
+ */
+public enum CountStrategy {
+    /**
+     * No count, the result is a {@link org.springframework.data.domain.Slice} that only knows whether a next page exists.
+     */
+    NONE,
+    /**
+     * A {@code count(*)} of the filtered query on every request.
+     */
+    EXACT,
+    /**
+     * A {@code count(*)} shared through the {@link SearchCountCache} for a short time, the total may be slightly stale.
+     */
+    CACHED,
+}
@@ -0,0 +1,30 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+/**
+ * {@link NameSearchBackend#FULLTEXT}: MySQL full-text indexes on the names, tokenized by the ngram parser.
+ * <p>
+ * The term is searched as a phrase, i.e. as consecutive ngrams, with the {@code match_against} function registered by
+ * {@link NameSearchFunctionContributor}.
+ */
+public class FulltextNameSearchIndex implements NameSearchIndex {
+
+    /**
+     * {@code ngram_token_size}, shorter terms have no ngram to look up.
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    @Override
+    public Predicate nameContains(NameSearchTarget target, SimpleExpression<?> id, StringExpression name, String term) {
+        if (term.strip().length() < NGRAM_TOKEN_SIZE) {
+            return name.containsIgnoreCase(term);
+        }
+        // quotes are the only operator left inside a boolean mode phrase
+        String phrase = '"' + term.replace('"', ' ') + '"';
+        return Expressions.booleanTemplate("function('match_against', {0}, {1}) > 0", name, phrase).and(name.containsIgnoreCase(term));
+    }
+}
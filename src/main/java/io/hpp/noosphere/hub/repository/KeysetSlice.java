@@ -0,0 +1,39 @@
+package io.hpp.noosphere.hub.repository;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A {@link org.springframework.data.domain.Slice} fetched with keyset pagination, carrying the cursor of the next slice.
+ *
+ * @param <T> the type of the content.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, Pageable pageable, String nextCursor) {
+        super(content, pageable, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> KeysetSlice<T> empty(Pageable pageable) {
+        return new KeysetSlice<>(List.of(), pageable, null);
+    }
+
+    /**
+     * @return the cursor to pass to get the next slice, {@code null} on the last slice.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public <U> KeysetSlice<U> map(Function<? super T, ? extends U> converter) {
+        return new KeysetSlice<>(getConvertedContent(converter), getPageable(), nextCursor);
+    }
+}
@@ -0,0 +1,16 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+/**
+ * {@link NameSearchBackend#LIKE}: no index, the name filters scan the tables.
+ */
+public class LikeNameSearchIndex implements NameSearchIndex {
+
+    @Override
+    public Predicate nameContains(NameSearchTarget target, SimpleExpression<?> id, StringExpression name, String term) {
+        return name.containsIgnoreCase(term);
+    }
+}
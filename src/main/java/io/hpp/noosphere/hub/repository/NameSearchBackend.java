@@ -0,0 +1,19 @@
+package io.hpp.noosphere.hub.repository;
+
+/**
+ * Implementations of the {@link NameSearchIndex}.
+ */
+public enum NameSearchBackend {
+    /**
+     * No index, {@code lower(name) like '%term%'} scans the table.
+     */
+    LIKE,
+    /**
+     * MySQL full-text indexes with the ngram parser. Their changes are only searchable once committed.
+     */
+    FULLTEXT,
+    /**
+     * In-memory trigram index, only aware of the changes made by this instance: single-node deployments only.
+     */
+    TRIGRAM,
+}
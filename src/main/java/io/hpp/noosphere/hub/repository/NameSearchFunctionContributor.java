@@ -0,0 +1,22 @@
+package io.hpp.noosphere.hub.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code match_against(column, phrase)}, the MySQL {@code match(column) against(phrase in boolean mode)}
+ * relevance used by {@link FulltextNameSearchIndex}.
+ */
+public class NameSearchFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions
+            .getFunctionRegistry()
+            .patternDescriptorBuilder("match_against", "match(?1) against(?2 in boolean mode)")
+            .setExactArgumentCount(2)
+            .setInvariantType(functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE))
+            .register();
+    }
+}
@@ -0,0 +1,24 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+/**
+ * Index serving the name filters of the searches, which {@code lower(name) like '%term%'} alone cannot use any index for.
+ * <p>
+ * The implementations narrow down the rows with their index and keep the {@code like} predicate to confirm them, so every
+ * backend returns the same rows as a plain {@link StringExpression#containsIgnoreCase(String)}.
+ */
+public interface NameSearchIndex {
+    /**
+     * Predicate matching the rows whose name contains {@code term}, ignoring case.
+     *
+     * @param target the searched entity.
+     * @param id     the id of the searched entity, or of the alias it is joined with.
+     * @param name   the name of the searched entity, or of the alias it is joined with.
+     * @param term   the searched term.
+     * @return the predicate.
+     */
+    Predicate nameContains(NameSearchTarget target, SimpleExpression<?> id, StringExpression name, String term);
+}
@@ -0,0 +1,37 @@
+package io.hpp.noosphere.hub.repository;
+
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.User;
+
+/**
+ * The entities whose {@code name} is searched through the {@link NameSearchIndex}.
+ */
+public enum NameSearchTarget {
+    AGENT(Agent.class),
+    CONTAINER(Container.class),
+    USER(User.class);
+
+    private final Class<?> entityClass;
+
+    NameSearchTarget(Class<?> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @param entityClass an entity class.
+     * @return the target of the entity, or {@code null} when its name is not searched.
+     */
+    public static NameSearchTarget of(Class<?> entityClass) {
+        for (NameSearchTarget target : values()) {
+            if (target.entityClass.equals(entityClass)) {
+                return target;
+            }
+        }
+        return null;
+    }
+}
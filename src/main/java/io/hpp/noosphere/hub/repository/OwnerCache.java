@@ -0,0 +1,144 @@
+package io.hpp.noosphere.hub.repository;
+
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.exception.PermissionDeniedException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the owners of entities, so that an ownership check neither hydrates the entity nor, on a hit, reaches the
+ * database.
+ * <p>
+ * Entries are keyed by the entity and its id, and only hold an {@link Owner}: the id of the user who created the entity
+ * and its status code, so that a keep-alive can tell an active agent without a query. Entities without an owner are not
+ * cached. Status changes evict the entries like deletes do. The time to live of the {@value #CACHE_NAME} cache is
+ * {@code application.owner-cache.ttl}.
+ */
+@Component
+public class OwnerCache {
+
+    public static final String CACHE_NAME = "owners";
+
+    private final CacheManager cacheManager;
+
+    public OwnerCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Check that an entity does not belong to another user, reading its owner with {@code lookup} on a miss.
+     *
+     * @param entityClass the class of the entity.
+     * @param id          the id of the entity.
+     * @param userId      the id of the user.
+     * @param lookup      the owners of entities by id, e.g. {@code findOwnersByIdIn}.
+     * @return the owner of the entity, {@code null} if it does not exist.
+     * @throws PermissionDeniedException if the entity belongs to another user or to none.
+     */
+    public Owner validateOwner(Class<?> entityClass, UUID id, String userId, Function<Collection<UUID>, Map<UUID, Owner>> lookup)
+        throws PermissionDeniedException {
+        Owner owner = getOwners(entityClass, Set.of(id), lookup).get(id);
+        if (owner == null) {
+            return null;
+        }
+        if (!userId.equals(owner.userId())) {
+            throw new PermissionDeniedException(id.toString());
+        }
+        return owner;
+    }
+
+    /**
+     * Get the owners of several entities, reading the misses with a single {@code lookup}.
+     *
+     * @param entityClass the class of the entities.
+     * @param ids         the ids of the entities.
+     * @param lookup      the owners of entities by id, e.g. {@code findOwnersByIdIn}.
+     * @return the owner of each existing entity, missing entities are absent from the map.
+     */
+    public Map<UUID, Owner> getOwners(Class<?> entityClass, Collection<UUID> ids, Function<Collection<UUID>, Map<UUID, Owner>> lookup) {
+        Map<UUID, Owner> owners = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID id : ids) {
+            Owner owner = getCache().get(key(entityClass, id), Owner.class);
+            if (owner != null) {
+                owners.put(id, owner);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            lookup
+                .apply(misses)
+                .forEach((id, owner) -> {
+                    owners.put(id, owner);
+                    if (owner.userId() != null) {
+                        getCache().put(key(entityClass, id), owner);
+                    }
+                });
+        }
+        return owners;
+    }
+
+    /**
+     * Forget the owner of an entity which is deleted, may change owner or changes status. Within a transaction the entry is
+     * evicted again after the commit, so that a check racing with the transaction cannot cache the old owner.
+     *
+     * @param entityClass the class of the entity.
+     * @param id          the id of the entity.
+     */
+    public void evict(Class<?> entityClass, UUID id) {
+        evict(entityClass, Set.of(id));
+    }
+
+    /**
+     * Forget the owners of several entities, like {@link #evict(Class, UUID)}.
+     *
+     * @param entityClass the class of the entities.
+     * @param ids         the ids of the entities.
+     */
+    public void evict(Class<?> entityClass, Collection<UUID> ids) {
+        List<String> keys = ids.stream().map(id -> key(entityClass, id)).toList();
+        keys.forEach(getCache()::evict);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        keys.forEach(getCache()::evict);
+                    }
+                }
+            );
+        }
+    }
+
+    public void clear() {
+        getCache().clear();
+    }
+
+    private Cache getCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+    }
+
+    private static String key(Class<?> entityClass, UUID id) {
+        return entityClass.getSimpleName() + ":" + id;
+    }
+
+    /**
+     * @param userId     the id of the user who created the entity.
+     * @param statusCode the status code of the entity.
+     */
+    public record Owner(String userId, StatusCode statusCode) implements Serializable {}
+}
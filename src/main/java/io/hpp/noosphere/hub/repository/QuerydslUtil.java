@@ -1,25 +1,56 @@
 package io.hpp.noosphere.hub.repository;
 
-import com.querydsl.core.types.Order;
-import com.querydsl.core.types.OrderSpecifier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.ComparablePath;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.hpp.noosphere.hub.exception.InvalidDataException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.util.Assert;
 
 public class QuerydslUtil {
 
-    public static <T> Page<T> fetchPage(JPQLQuery<T> query, Pageable pageable) {
+    public static final String ID_PROPERTY = "id";
+
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    public static <T> Page<T> fetchPage(JPQLQuery<T> query, SortRegistry sorts, Pageable pageable) {
         Assert.notNull(query, "Query must not be null");
         Assert.notNull(pageable, "Pageable must not be null");
 
         // sort 적용
-        applySorting(query, pageable.getSort());
+        query = applySorting(query, sorts, pageable.getSort());
 
         if (pageable.isPaged()) {
             long total = query.fetchCount();
@@ -37,14 +68,267 @@ public class QuerydslUtil {
         }
     }
 
-    public static <T> JPQLQuery<T> applySorting(JPQLQuery<T> query, Sort sort) {
-        if (sort != null) {
-            for (Sort.Order order : sort) {
-                query = query.orderBy(
-                    new OrderSpecifier<>(order.isAscending() ? Order.ASC : Order.DESC, Expressions.stringPath(order.getProperty()))
-                );
+    /**
+     * Fetch a page whose total is given by {@code total} instead of a count of {@code query}, which is only called when the
+     * pageable is paged.
+     */
+    public static <T> Page<T> fetchPage(JPQLQuery<T> query, SortRegistry sorts, Pageable pageable, LongSupplier total) {
+        Assert.notNull(query, "Query must not be null");
+        Assert.notNull(pageable, "Pageable must not be null");
+
+        query = applySorting(query, sorts, pageable.getSort());
+
+        if (pageable.isUnpaged()) {
+            List<T> content = query.fetch();
+            return new PageImpl<>(content, Pageable.unpaged(), content.size());
+        }
+        long count = total.getAsLong();
+        if (count == 0) {
+            return new PageImpl<>(Collections.emptyList(), pageable, count);
+        }
+        List<T> content = query.offset(pageable.getOffset()).limit(pageable.getPageSize()).fetch();
+        // PageImpl adjusts a stale total when the last page is reached
+        return new PageImpl<>(content, pageable, count);
+    }
+
+    /**
+     * Fetch a page counted with {@code countQuery}: a query with fetch joins cannot be counted, and the joins that only
+     * load the rows are useless to the count.
+     */
+    public static <T> Page<T> fetchPage(JPQLQuery<T> query, JPQLQuery<?> countQuery, SortRegistry sorts, Pageable pageable) {
+        Assert.notNull(countQuery, "Count query must not be null");
+        return fetchPage(query, sorts, pageable, countQuery::fetchCount);
+    }
+
+    /**
+     * Fetch an offset slice without counting: one extra row is fetched to tell whether there is a next slice.
+     */
+    public static <T> Slice<T> fetchSlice(JPQLQuery<T> query, SortRegistry sorts, Pageable pageable) {
+        Assert.notNull(query, "Query must not be null");
+        Assert.notNull(pageable, "Pageable must not be null");
+
+        query = applySorting(query, sorts, pageable.getSort());
+
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.fetch(), pageable, false);
+        }
+        List<T> content = new ArrayList<>(query.offset(pageable.getOffset()).limit(pageable.getPageSize() + 1L).fetch());
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Fetch a page or a slice depending on the count strategy.
+     *
+     * @param query            the query.
+     * @param root             the root entity of the query.
+     * @param predicate        the predicate of the query, part of the cache key of {@link CountStrategy#CACHED}.
+     * @param sorts            the sort keys accepted for the root entity.
+     * @param pageable         the pagination information.
+     * @param countStrategy    how to get the total.
+     * @param searchCountCache the cache used by {@link CountStrategy#CACHED}.
+     * @return a {@link Page} for {@link CountStrategy#EXACT} and {@link CountStrategy#CACHED}, a {@link Slice} otherwise.
+     */
+    public static <T> Slice<T> fetch(
+        JPQLQuery<T> query,
+        EntityPath<?> root,
+        Predicate predicate,
+        SortRegistry sorts,
+        Pageable pageable,
+        CountStrategy countStrategy,
+        SearchCountCache searchCountCache
+    ) {
+        return fetch(query, query, root, predicate, sorts, pageable, countStrategy, searchCountCache);
+    }
+
+    /**
+     * Fetch a page or a slice depending on the count strategy, counting with {@code countQuery}.
+     *
+     * @param query            the query.
+     * @param countQuery       the query counted for the total, {@code query} without its fetch joins.
+     * @param root             the root entity of the query.
+     * @param predicate        the predicate of the query, part of the cache key of {@link CountStrategy#CACHED}.
+     * @param sorts            the sort keys accepted for the root entity.
+     * @param pageable         the pagination information.
+     * @param countStrategy    how to get the total.
+     * @param searchCountCache the cache used by {@link CountStrategy#CACHED}.
+     * @return a {@link Page} for {@link CountStrategy#EXACT} and {@link CountStrategy#CACHED}, a {@link Slice} otherwise.
+     */
+    public static <T> Slice<T> fetch(
+        JPQLQuery<T> query,
+        JPQLQuery<?> countQuery,
+        EntityPath<?> root,
+        Predicate predicate,
+        SortRegistry sorts,
+        Pageable pageable,
+        CountStrategy countStrategy,
+        SearchCountCache searchCountCache
+    ) {
+        return switch (countStrategy) {
+            case NONE -> fetchSlice(query, sorts, pageable);
+            case CACHED -> fetchPage(query, sorts, pageable, () -> searchCountCache.count(root, predicate, countQuery::fetchCount));
+            case EXACT -> fetchPage(query, sorts, pageable, countQuery::fetchCount);
+        };
+    }
+
+    /**
+     * Fetch a slice with keyset pagination: instead of skipping {@code offset} rows, the query seeks past the last row of
+     * the previous slice, whose sort values are encoded in {@code cursor}. Every slice costs the same as the first one when
+     * the sort columns are indexed.
+     * <p>
+     * The sort is resolved by {@code sorts}, which appends {@code id} so that the order is total. The page number of
+     * {@code pageable} is ignored.
+     *
+     * @param query    the query selecting the root entity of {@code sorts}.
+     * @param sorts    the sort keys accepted for the root entity.
+     * @param pageable the size and sort of the slice.
+     * @param cursor   the cursor returned with the previous slice, {@code null} or empty for the first slice.
+     * @return the slice, with the cursor of the next slice if there is one.
+     */
+    public static <T> KeysetSlice<T> fetchSlice(JPQLQuery<T> query, SortRegistry sorts, Pageable pageable, String cursor) {
+        Assert.notNull(query, "Query must not be null");
+        Assert.notNull(sorts, "Sorts must not be null");
+        Assert.notNull(pageable, "Pageable must not be null");
+
+        List<SortRegistry.SortKey> orders = sorts.resolve(pageable.getSort());
+        for (SortRegistry.SortKey order : orders) {
+            query = query.orderBy(order.orderSpecifier());
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            query = query.where(seekPredicate(orders, decodeCursor(cursor, orders)));
+        }
+
+        if (pageable.isUnpaged()) {
+            return new KeysetSlice<>(query.fetch(), pageable, null);
+        }
+        // one extra row tells whether there is a next slice, without counting
+        List<T> content = new ArrayList<>(query.limit(pageable.getPageSize() + 1L).fetch());
+        String nextCursor = null;
+        if (content.size() > pageable.getPageSize()) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+            nextCursor = encodeCursor(orders, content.get(content.size() - 1));
+        }
+        return new KeysetSlice<>(content, pageable, nextCursor);
+    }
+
+    /**
+     * Apply a bulk statement to the rows matching {@code predicate}, one batch of ids at a time: each batch is read by
+     * seeking past the last id of the previous one, so every batch costs the same and no statement locks more than
+     * {@code batchSize} rows.
+     *
+     * @param jpaQueryFactory the query factory.
+     * @param root            the entity of the rows.
+     * @param id              the id of {@code root}.
+     * @param predicate       the rows to write.
+     * @param batchSize       the number of ids per batch.
+     * @param write           the bulk statement of a batch of ids, returning the number of rows it wrote.
+     * @return the number of rows written.
+     */
+    public static long forEachIdBatch(
+        JPAQueryFactory jpaQueryFactory,
+        EntityPath<?> root,
+        ComparablePath<UUID> id,
+        Predicate predicate,
+        int batchSize,
+        ToLongFunction<List<UUID>> write
+    ) {
+        Assert.isTrue(batchSize > 0, "Batch size must be positive");
+        long written = 0;
+        UUID after = null;
+        while (true) {
+            BooleanBuilder batch = new BooleanBuilder(predicate);
+            if (after != null) {
+                batch.and(id.gt(after));
+            }
+            List<UUID> ids = jpaQueryFactory.select(id).from(root).where(batch).orderBy(id.asc()).limit(batchSize).fetch();
+            if (ids.isEmpty()) {
+                return written;
+            }
+            written += write.applyAsLong(ids);
+            if (ids.size() < batchSize) {
+                return written;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Order {@code query} by the keys of {@code sort} registered in {@code sorts}, then by {@code id}.
+     *
+     * @throws InvalidDataException if the sort has an unregistered key.
+     */
+    public static <T> JPQLQuery<T> applySorting(JPQLQuery<T> query, SortRegistry sorts, Sort sort) {
+        Assert.notNull(sorts, "Sorts must not be null");
+        return query.orderBy(sorts.orderSpecifiers(sort != null ? sort : Sort.unsorted()));
+    }
+
+    /**
+     * Rows after the cursor: {@code (s1 > v1) or (s1 = v1 and s2 > v2) or ...}, with {@code <} for descending orders.
+     * Nulls sort first, as MySQL does.
+     */
+    private static Predicate seekPredicate(List<SortRegistry.SortKey> orders, List<Comparable<?>> values) {
+        BooleanBuilder seek = new BooleanBuilder();
+        BooleanBuilder ties = new BooleanBuilder();
+        for (int i = 0; i < orders.size(); i++) {
+            ComparableExpressionBase<?> path = orders.get(i).path();
+            Comparable<?> value = values.get(i);
+            Predicate after;
+            if (orders.get(i).ascending()) {
+                after = value == null ? path.isNotNull() : compare(Ops.GT, path, value);
+            } else {
+                after = value == null ? null : compare(Ops.LT, path, value).or(path.isNull());
+            }
+            if (after != null) {
+                seek.or(new BooleanBuilder(ties).and(after));
+            }
+            ties.and(value == null ? path.isNull() : compare(Ops.EQ, path, value));
+        }
+        // only reachable when every sort value of the cursor is null and all orders are descending
+        return seek.hasValue() ? seek : Expressions.FALSE.isTrue();
+    }
+
+    private static BooleanExpression compare(Ops operator, ComparableExpressionBase<?> path, Comparable<?> value) {
+        return Expressions.booleanOperation(operator, path, ConstantImpl.create(value));
+    }
+
+    private static String encodeCursor(List<SortRegistry.SortKey> orders, Object row) {
+        BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+        beanWrapper.setAutoGrowNestedPaths(true);
+        List<String> values = new ArrayList<>(orders.size());
+        for (SortRegistry.SortKey order : orders) {
+            Object value = beanWrapper.getPropertyValue(order.property());
+            values.add(value == null ? null : value instanceof Instant ? value.toString() : CONVERSION_SERVICE.convert(value, String.class));
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode keyset cursor", e);
+        }
+    }
+
+    private static List<Comparable<?>> decodeCursor(String cursor, List<SortRegistry.SortKey> orders) {
+        try {
+            List<String> values = CURSOR_MAPPER.readValue(
+                new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8),
+                new TypeReference<List<String>>() {}
+            );
+            if (values.size() != orders.size()) {
+                throw new InvalidDataException("cursor", cursor);
+            }
+            List<Comparable<?>> decoded = new ArrayList<>(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                String value = values.get(i);
+                Class<?> type = orders.get(i).path().getType();
+                Object converted = value == null ? null : Instant.class.equals(type) ? Instant.parse(value) : CONVERSION_SERVICE.convert(value, type);
+                decoded.add((Comparable<?>) converted);
             }
+            return decoded;
+        } catch (IllegalArgumentException | JsonProcessingException | DateTimeException | ConversionException e) {
+            throw new InvalidDataException("cursor", cursor);
         }
-        return query;
     }
 }
@@ -0,0 +1,57 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Short-lived cache of search result counts, used by {@link CountStrategy#CACHED}.
+ * <p>
+ * Counts are keyed by the searched entity and the normalized search predicate. The time to live of the
+ * {@value #CACHE_NAME} cache is {@code application.pagination.count-cache-ttl}.
+ */
+@Component
+public class SearchCountCache {
+
+    public static final String CACHE_NAME = "searchCounts";
+
+    private final CacheManager cacheManager;
+
+    public SearchCountCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the cached count of a search, counting it with {@code counter} on a miss.
+     *
+     * @param root      the searched entity.
+     * @param predicate the search predicate.
+     * @param counter   the exact count of the search.
+     * @return the count.
+     */
+    public long count(EntityPath<?> root, Predicate predicate, LongSupplier counter) {
+        Long count = getCache().get(key(root, predicate), counter::getAsLong);
+        return count != null ? count : counter.getAsLong();
+    }
+
+    public void clear() {
+        getCache().clear();
+    }
+
+    private Cache getCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+    }
+
+    private static String key(EntityPath<?> root, Predicate predicate) {
+        // string comparisons use a case-insensitive collation, so searches differing only by case share a count
+        String normalized = predicate != null ? predicate.toString().trim().toLowerCase(Locale.ROOT) : "";
+        return root.getType().getSimpleName() + ":" + DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import jakarta.persistence.EntityManager;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Opt-in cache of search results, enabled by {@code application.search-result-cache.enabled}.
+ * <p>
+ * Only the ids of a result are cached, keyed by the normalized search predicate and the pagination, in one cache per
+ * searched entity: {@value #CACHE_NAME_PREFIX} followed by its simple name. The entities are multi-loaded by id, so a
+ * repeated search costs a cache hit and reads of the second level cache. Writes to an entity type clear its cache, see
+ * {@link #invalidate(Class)}; the time to live of the caches is {@code application.search-result-cache.ttl}.
+ * <p>
+ * Read-only transactions may be served by a lagging read replica, whose ids could outlive the invalidation of a write
+ * committed just before. The ids of a miss are therefore searched in a new read-write transaction, on the primary database.
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String CACHE_NAME_PREFIX = "searchResults.";
+
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+    private final TransactionTemplate primaryTransactionTemplate;
+    private final boolean enabled;
+
+    public SearchResultCache(
+        CacheManager cacheManager,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.cacheManager = cacheManager;
+        this.entityManager = entityManager;
+        this.primaryTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.primaryTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = Boolean.TRUE.equals(applicationProperties.getSearchResultCache().getEnabled());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get a search result, running {@code search} for the ids of its entities on a miss.
+     *
+     * @param root          the searched entity, identified by a {@link UUID}.
+     * @param predicate     the search predicate.
+     * @param pageable      the pagination information.
+     * @param countStrategy how {@code search} counts the results.
+     * @param search        the ids of the page of the search, e.g. a {@link QuerydslUtil#fetch} of the id of {@code root}.
+     * @return the entities of the page, in the order of the search.
+     */
+    public <T> Slice<T> search(
+        EntityPath<T> root,
+        Predicate predicate,
+        Pageable pageable,
+        CountStrategy countStrategy,
+        Supplier<Slice<UUID>> search
+    ) {
+        Cache cache = getCache(root.getType());
+        String key = key(predicate, pageable, countStrategy);
+        Result result = cache.get(key, Result.class);
+        if (result == null) {
+            // a read-write transaction uses the write pool, which always connects to the primary database
+            result = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? primaryTransactionTemplate.execute(status -> Result.of(search.get()))
+                : Result.of(search.get());
+            cache.put(key, result);
+        }
+        List<T> content = load(root.getType(), result.ids());
+        if (result.total() != null) {
+            return new PageImpl<>(content, pageable, result.total());
+        }
+        return new SliceImpl<>(content, pageable, result.hasNext());
+    }
+
+    /**
+     * Forget the results of the searches of an entity type which is created, updated or deleted. Within a transaction
+     * the cache is cleared again after the commit, so that a search racing with the transaction cannot keep its old result.
+     *
+     * @param entityClass the class of the entity.
+     */
+    public void invalidate(Class<?> entityClass) {
+        if (!enabled) {
+            return;
+        }
+        Cache cache = getCache(entityClass);
+        cache.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.clear();
+                    }
+                }
+            );
+        }
+    }
+
+    private <T> List<T> load(Class<T> entityClass, List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // the second level cache is read first, its misses are loaded by a single select
+        return entityManager.unwrap(Session.class).byMultipleIds(entityClass).multiLoad(ids).stream().filter(Objects::nonNull).toList();
+    }
+
+    private Cache getCache(Class<?> entityClass) {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME_PREFIX + entityClass.getSimpleName()));
+    }
+
+    private static String key(Predicate predicate, Pageable pageable, CountStrategy countStrategy) {
+        // string comparisons use a case-insensitive collation, so searches differing only by case share a result
+        String normalized = predicate != null ? predicate.toString().trim().toLowerCase(Locale.ROOT) : "";
+        String page = pageable.isPaged() ? pageable.getPageNumber() + ":" + pageable.getPageSize() : "unpaged";
+        String search = normalized + "|" + page + "|" + pageable.getSort() + "|" + countStrategy;
+        return DigestUtils.md5DigestAsHex(search.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param ids     the ids of the entities of the page, in order.
+     * @param hasNext whether a next page exists.
+     * @param total   the total number of results, {@code null} when the search was not counted.
+     */
+    record Result(List<UUID> ids, boolean hasNext, Long total) implements Serializable {
+        static Result of(Slice<UUID> slice) {
+            Long total = slice instanceof Page<UUID> page ? page.getTotalElements() : null;
+            return new Result(List.copyOf(slice.getContent()), slice.hasNext(), total);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import io.hpp.noosphere.hub.exception.InvalidDataException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort keys accepted by the searches of one entity, with the typed paths they sort by.
+ * <p>
+ * Only the registered keys can be sorted by, any other key is rejected with an {@link InvalidDataException} instead of
+ * reaching the database as an arbitrary {@code order by}. {@code id} is always registered and always appended last, so the
+ * order is total: offset pages do not shift between requests, and keyset cursors have a unique position.
+ */
+public final class SortRegistry {
+
+    private final Map<String, SortKey> keys;
+
+    private SortRegistry(Map<String, SortKey> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @param id the id of the entity, the tiebreaker of every sort.
+     * @return a registry only accepting {@code id}.
+     */
+    public static <P extends ComparableExpressionBase<?> & Path<?>> SortRegistry of(P id) {
+        return new SortRegistry(Map.of()).with(QuerydslUtil.ID_PROPERTY, id);
+    }
+
+    /**
+     * @param key  the sort key of the API.
+     * @param path the path sorted by, a property of the entity or of an entity it is joined with.
+     * @return a copy of this registry also accepting {@code key}.
+     */
+    public <P extends ComparableExpressionBase<?> & Path<?>> SortRegistry with(String key, P path) {
+        Map<String, SortKey> copy = new LinkedHashMap<>(keys);
+        copy.put(key, new SortKey(path, propertyPath(path), true));
+        return new SortRegistry(copy);
+    }
+
+    /**
+     * Resolve the orders of a sort, followed by {@code id} when the sort does not already include it.
+     *
+     * @param sort the requested sort.
+     * @return the resolved orders.
+     * @throws InvalidDataException if the sort has an unregistered key.
+     */
+    List<SortKey> resolve(Sort sort) {
+        List<SortKey> resolved = new ArrayList<>();
+        boolean hasId = false;
+        for (Sort.Order order : sort) {
+            SortKey key = keys.get(order.getProperty());
+            if (key == null) {
+                throw new InvalidDataException("sort", order.getProperty());
+            }
+            resolved.add(new SortKey(key.path(), key.property(), order.isAscending()));
+            hasId |= QuerydslUtil.ID_PROPERTY.equals(order.getProperty());
+        }
+        if (!hasId) {
+            resolved.add(keys.get(QuerydslUtil.ID_PROPERTY));
+        }
+        return resolved;
+    }
+
+    /**
+     * @param sort the requested sort.
+     * @return the order specifiers of the resolved orders.
+     * @throws InvalidDataException if the sort has an unregistered key.
+     */
+    OrderSpecifier<?>[] orderSpecifiers(Sort sort) {
+        return resolve(sort).stream().map(SortKey::orderSpecifier).toArray(OrderSpecifier<?>[]::new);
+    }
+
+    /**
+     * The property path of {@code path} relative to its root, e.g. {@code container.name}.
+     */
+    private static String propertyPath(Path<?> path) {
+        Deque<String> names = new ArrayDeque<>();
+        for (Path<?> current = path; current.getMetadata().getParent() != null; current = current.getMetadata().getParent()) {
+            names.addFirst(current.getMetadata().getName());
+        }
+        return String.join(".", names);
+    }
+
+    /**
+     * @param path      the path sorted by.
+     * @param property  the property path of {@code path}, which reads the sort value of a row.
+     * @param ascending the direction.
+     */
+    record SortKey(ComparableExpressionBase<?> path, String property, boolean ascending) {
+        OrderSpecifier<?> orderSpecifier() {
+            return ascending ? path.asc() : path.desc();
+        }
+    }
+}
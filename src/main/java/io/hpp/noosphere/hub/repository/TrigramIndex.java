@@ -0,0 +1,143 @@
+package io.hpp.noosphere.hub.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Names of one entity, indexed by their trigrams: the names containing a term are among the names containing every
+ * trigram of the term. Names are compared without case and accents, as the {@code utf8mb4_0900_ai_ci} collation does.
+ */
+final class TrigramIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<Object, String> names = new HashMap<>();
+    private final Map<String, Set<Object>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Index the names read from the database. The entries already indexed are newer and kept.
+     *
+     * @param rows the ids and names.
+     */
+    void load(Collection<Object[]> rows) {
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                if (!names.containsKey(row[0])) {
+                    add(row[0], (String) row[1]);
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void put(Object id, String name) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+            add(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Object id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the ids of the names containing a term.
+     *
+     * @param term  the searched term.
+     * @param limit the maximum number of ids.
+     * @return the ids, or {@code null} when more than {@code limit} names contain the term.
+     */
+    List<Object> find(String term, int limit) {
+        String needle = normalize(term);
+        lock.readLock().lock();
+        try {
+            Collection<Object> candidates = names.keySet();
+            for (String gram : grams(needle)) {
+                Set<Object> posting = postings.get(gram);
+                if (posting == null) {
+                    return List.of();
+                }
+                if (posting.size() < candidates.size()) {
+                    candidates = posting;
+                }
+            }
+            List<Object> ids = new ArrayList<>();
+            for (Object id : candidates) {
+                if (names.get(id).contains(needle)) {
+                    if (ids.size() == limit) {
+                        return null;
+                    }
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Object id, String name) {
+        if (name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        names.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void delete(Object id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (String gram : grams(name)) {
+            Set<Object> posting = postings.get(gram);
+            if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    static String normalize(String value) {
+        return MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
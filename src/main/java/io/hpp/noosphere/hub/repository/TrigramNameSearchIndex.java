@@ -0,0 +1,139 @@
+package io.hpp.noosphere.hub.repository;
+
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FlushModeType;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link NameSearchBackend#TRIGRAM}: in-memory {@link TrigramIndex} of the names, turned into an {@code id in (...)}
+ * predicate.
+ * <p>
+ * The names of an entity are loaded by its first search, then kept up to date by the inserts, updates and deletes
+ * committed through Hibernate by this instance. Bulk and native statements and the other instances are not seen, which
+ * restricts this backend to single-node deployments.
+ */
+public class TrigramNameSearchIndex
+    implements NameSearchIndex, PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrigramNameSearchIndex.class);
+
+    private final EntityManager entityManager;
+    private final int maxCandidates;
+    private final Map<NameSearchTarget, TrigramIndex> indexes = new EnumMap<>(NameSearchTarget.class);
+
+    /**
+     * @param entityManager        the shared entity manager, which loads the names.
+     * @param entityManagerFactory the factory whose committed changes are indexed.
+     * @param maxCandidates        the largest number of ids put in a predicate, above which the index is not selective
+     *                             enough and the name is filtered with {@code like} only.
+     */
+    public TrigramNameSearchIndex(EntityManager entityManager, EntityManagerFactory entityManagerFactory, int maxCandidates) {
+        this.entityManager = entityManager;
+        this.maxCandidates = maxCandidates;
+        for (NameSearchTarget target : NameSearchTarget.values()) {
+            indexes.put(target, new TrigramIndex());
+        }
+        EventListenerRegistry eventListenerRegistry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public Predicate nameContains(NameSearchTarget target, SimpleExpression<?> id, StringExpression name, String term) {
+        TrigramIndex index = indexes.get(target);
+        if (!index.isLoaded()) {
+            load(target, index);
+        }
+        List<Object> ids = index.find(term, maxCandidates);
+        if (ids == null) {
+            return name.containsIgnoreCase(term);
+        }
+        // like still confirms the rows, in case a rename committed by another transaction has not been indexed yet
+        return Expressions.booleanOperation(Ops.IN, id, ConstantImpl.create(ids)).and(name.containsIgnoreCase(term));
+    }
+
+    private void load(NameSearchTarget target, TrigramIndex index) {
+        synchronized (index) {
+            if (index.isLoaded()) {
+                return;
+            }
+            List<Object[]> rows = entityManager
+                .createQuery("select e.id, e.name from " + target.getEntityClass().getSimpleName() + " e", Object[].class)
+                // the pending changes of the current transaction may still be rolled back
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+            index.load(rows);
+            LOG.info("Loaded {} {} names into the trigram index", rows.size(), target);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        put(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        put(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        NameSearchTarget target = NameSearchTarget.of(event.getPersister().getMappedClass());
+        if (target != null) {
+            indexes.get(target).remove(event.getId());
+        }
+    }
+
+    private void put(EntityPersister persister, Object id, Object entity) {
+        NameSearchTarget target = NameSearchTarget.of(persister.getMappedClass());
+        if (target != null) {
+            indexes.get(target).put(id, (String) persister.getPropertyValue(entity, "name"));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was indexed before the commit
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was indexed before the commit
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was indexed before the commit
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return NameSearchTarget.of(persister.getMappedClass()) != null;
+    }
+}
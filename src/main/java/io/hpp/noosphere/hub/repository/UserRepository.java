@@ -2,11 +2,15 @@ package io.hpp.noosphere.hub.repository;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import io.hpp.noosphere.hub.domain.QUser;
 import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.security.ApiKeyDigest;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
 import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -45,44 +49,71 @@ interface UserRepositoryCustom {
 @Repository
 class UserRepositoryCustomImpl implements UserRepositoryCustom {
 
+    private static final SortRegistry SORTS = SortRegistry.of(QUser.user.id)
+        .with("login", QUser.user.login)
+        .with("name", QUser.user.name)
+        .with("email", QUser.user.email)
+        .with("activated", QUser.user.activated)
+        .with("createdDate", QUser.user.createdDate)
+        .with("lastModifiedDate", QUser.user.lastModifiedDate);
+
     private final JPAQueryFactory jpaQueryFactory;
     private final EntityManager entityManager;
+    private final NameSearchIndex nameSearchIndex;
 
-    public UserRepositoryCustomImpl(JPAQueryFactory jpaQueryFactory, EntityManager entityManager) {
+    public UserRepositoryCustomImpl(JPAQueryFactory jpaQueryFactory, EntityManager entityManager, NameSearchIndex nameSearchIndex) {
         this.jpaQueryFactory = jpaQueryFactory;
         this.entityManager = entityManager;
+        this.nameSearchIndex = nameSearchIndex;
     }
 
     @Override
     public Optional<User> findOneByEmail(String email) {
-        return findOneByEmail(email, Boolean.TRUE);
+        // cached: the authorities are fetched with the user, they cannot be loaded once it left the session
+        return findOneByEmail(email, Boolean.TRUE, true);
     }
 
     @Override
     public Optional<User> findOneByEmail(String email, Boolean activated) {
+        return findOneByEmail(email, activated, false);
+    }
+
+    private Optional<User> findOneByEmail(String email, Boolean activated, boolean withAuthorities) {
         QUser qUser = QUser.user;
         BooleanBuilder builder = new BooleanBuilder();
         builder.and(qUser.email.eq(email));
         if (activated != null) {
             builder.and(qUser.activated.eq(activated));
         }
-        return Optional.ofNullable(jpaQueryFactory.selectFrom(qUser).where(builder).fetchOne());
+        return Optional.ofNullable(selectFrom(qUser, withAuthorities).where(builder).fetchOne());
     }
 
     @Override
     public Optional<User> findOneByApiKey(String apiKey) {
-        return findOneByApiKey(apiKey, Boolean.TRUE);
+        // cached: the authorities are fetched with the user, they cannot be loaded once it left the session
+        return findOneByApiKey(apiKey, Boolean.TRUE, true);
     }
 
     @Override
     public Optional<User> findOneByApiKey(String apiKey, Boolean activated) {
+        return findOneByApiKey(apiKey, activated, false);
+    }
+
+    private Optional<User> findOneByApiKey(String apiKey, Boolean activated, boolean withAuthorities) {
+        if (apiKey == null) {
+            return Optional.empty();
+        }
         QUser qUser = QUser.user;
         BooleanBuilder builder = new BooleanBuilder();
-        builder.and(qUser.apiKey.eq(apiKey));
+        // one probe of the unique api_key_hash index, the plaintext key is never used in a predicate
+        builder.and(qUser.apiKeyHash.eq(ApiKeyDigest.digest(apiKey)));
         if (activated != null) {
             builder.and(qUser.activated.eq(activated));
         }
-        return Optional.ofNullable(jpaQueryFactory.selectFrom(qUser).where(builder).fetchOne());
+        return Optional.ofNullable(selectFrom(qUser, withAuthorities).where(builder).fetchOne()).filter(user ->
+            user.getApiKey() != null &&
+            MessageDigest.isEqual(user.getApiKey().getBytes(StandardCharsets.UTF_8), apiKey.getBytes(StandardCharsets.UTF_8))
+        );
     }
 
     @Override
@@ -110,13 +141,22 @@ class UserRepositoryCustomImpl implements UserRepositoryCustom {
             builder.and(qUser.activated.eq(activated));
         }
         if (CommonUtils.isValid(name)) {
-            builder.and(qUser.name.containsIgnoreCase(name));
+            builder.and(nameSearchIndex.nameContains(NameSearchTarget.USER, qUser.id, qUser.name, name));
         }
         if (builder.hasValue()) {
             JPQLQuery<User> query = jpaQueryFactory.selectFrom(qUser).where(builder);
-            return QuerydslUtil.fetchPage(query, pageable);
+            return QuerydslUtil.fetchPage(query, SORTS, pageable);
         } else {
             return Page.empty();
         }
     }
+
+    private JPAQuery<User> selectFrom(QUser qUser, boolean withAuthorities) {
+        JPAQuery<User> query = jpaQueryFactory.selectFrom(qUser);
+        if (withAuthorities) {
+            // Hibernate removes the duplicated users of the fetch join
+            query.leftJoin(qUser.authorities).fetchJoin();
+        }
+        return query;
+    }
 }
@@ -3,16 +3,13 @@ package io.hpp.noosphere.hub.security;
 import io.hpp.noosphere.hub.service.UserService;
 import io.hpp.noosphere.hub.service.dto.UserDTO;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Set;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -20,10 +17,12 @@ public class ApiKeyAuthManager implements AuthenticationManager {
 
   private final Logger log = LoggerFactory.getLogger(ApiKeyAuthManager.class);
 
-  private UserService userService;
+  private final UserService userService;
+  private final ApiKeyAuthenticationCache apiKeyAuthenticationCache;
 
-  public ApiKeyAuthManager(UserService userService){
+  public ApiKeyAuthManager(UserService userService, ApiKeyAuthenticationCache apiKeyAuthenticationCache){
     this.userService = userService;
+    this.apiKeyAuthenticationCache = apiKeyAuthenticationCache;
   }
 
 
@@ -33,22 +32,31 @@ public class ApiKeyAuthManager implements AuthenticationManager {
     if (!CommonUtils.isValid(apiKey)) {
       throw new BadCredentialsException("The API key was not found or not the expected value.");
     }
+    Optional<ApiKeyAuthenticationCache.Entry> cached = apiKeyAuthenticationCache.get(apiKey);
+    if (cached.isPresent()) {
+      return new ApiKeyAuthentication(apiKey, cached.get().userId(), cached.get().authorities());
+    }
+    if (apiKeyAuthenticationCache.isUnknown(apiKey)) {
+      throw new BadCredentialsException("The API key was not found or not the expected value.");
+    }
+    UserDTO userDTO;
     try {
-      UserDTO userDTO = userService.findByApiKey(apiKey, true);
-      Set<String>  authorities = userDTO.getAuthorities();
-      Collection<SimpleGrantedAuthority> authorityList = new ArrayList<>();
-      authentication.getAuthorities().clear();
-      for (String authority: authorities){
-        authorityList.add(new SimpleGrantedAuthority(authority));
-      }
-     authentication = new ApiKeyAuthentication(apiKey, userDTO.getId(), authorityList);
-//      authentication.getAuthorities().addAll(authorityList);
+      userDTO = userService.findByApiKey(apiKey, true);
     } catch (Exception e) {
-      log.error("failed to find user by api key " + apiKey, e);
+      // lookup failures are not cached, the key may be valid
+      log.error("failed to find user by api key", e);
+      throw new BadCredentialsException("The API key was not found or not the expected value.");
+    }
+    if (userDTO == null) {
+      apiKeyAuthenticationCache.putUnknown(apiKey);
       throw new BadCredentialsException("The API key was not found or not the expected value.");
     }
-//    authentication.setAuthenticated(true);
-    return authentication;
+    ApiKeyAuthenticationCache.Entry entry = new ApiKeyAuthenticationCache.Entry(
+      userDTO.getId(),
+      ApiKeyAuthenticationCache.toGrantedAuthorities(userDTO.getAuthorities())
+    );
+    apiKeyAuthenticationCache.put(apiKey, entry);
+    return new ApiKeyAuthentication(apiKey, entry.userId(), entry.authorities());
   }
 
 }
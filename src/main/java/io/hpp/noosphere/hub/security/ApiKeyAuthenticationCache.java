@@ -0,0 +1,188 @@
+package io.hpp.noosphere.hub.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local cache of resolved API keys used by {@link ApiKeyAuthManager}.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the key, so plaintext keys are not kept in memory. Keys that could not be
+ * resolved are remembered for a shorter time in a separate negative cache, so that a client retrying with a bad key does
+ * not reach the database and Keycloak on every request.
+ * <p>
+ * Evictions are published on the {@value #INVALIDATION_TOPIC} topic so that the other nodes forget the key or the user
+ * too. The digests resolved to each user are indexed, so that evicting a user does not scan the cache.
+ */
+@Component
+public class ApiKeyAuthenticationCache {
+
+  public static final String CACHE_NAME = "apiKeyAuthentication";
+  public static final String NEGATIVE_CACHE_NAME = "apiKeyAuthenticationNegative";
+
+  static final String INVALIDATION_TOPIC = "apiKeyAuthenticationInvalidations";
+
+  public record Entry(String userId, List<GrantedAuthority> authorities) {}
+
+  private final boolean enabled;
+  private final Cache<String, Entry> cache;
+  private final Cache<String, Boolean> negativeCache;
+  private final ConcurrentMap<String, Set<String>> digestsByUserId = new ConcurrentHashMap<>();
+  private final ITopic<Invalidation> topic;
+
+  public ApiKeyAuthenticationCache(
+    ApplicationProperties applicationProperties,
+    HazelcastInstance hazelcastInstance,
+    MeterRegistry meterRegistry
+  ) {
+    ApplicationProperties.ApiKey properties = applicationProperties.getApiKey();
+    this.enabled = Boolean.TRUE.equals(properties.getCacheEnabled());
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(properties.getCacheMaxSize())
+      .expireAfterWrite(properties.getCacheTtl())
+      .recordStats()
+      .<String, Entry>evictionListener((digest, entry, cause) -> unindex(entry, digest))
+      .build();
+    this.negativeCache = Caffeine.newBuilder()
+      .maximumSize(properties.getNegativeCacheMaxSize())
+      .expireAfterWrite(properties.getNegativeCacheTtl())
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, NEGATIVE_CACHE_NAME);
+    this.topic = hazelcastInstance.getTopic(INVALIDATION_TOPIC);
+    this.topic.addMessageListener(this::onInvalidation);
+  }
+
+  public Optional<Entry> get(String apiKey) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(cache.getIfPresent(ApiKeyDigest.digestHex(apiKey)));
+  }
+
+  public boolean isUnknown(String apiKey) {
+    return enabled && negativeCache.getIfPresent(ApiKeyDigest.digestHex(apiKey)) != null;
+  }
+
+  public void put(String apiKey, Entry entry) {
+    if (!enabled) {
+      return;
+    }
+    String digest = ApiKeyDigest.digestHex(apiKey);
+    negativeCache.invalidate(digest);
+    digestsByUserId.computeIfAbsent(entry.userId(), userId -> ConcurrentHashMap.newKeySet()).add(digest);
+    Entry replaced = cache.asMap().put(digest, entry);
+    if (replaced != null && !replaced.userId().equals(entry.userId())) {
+      // the key was resolved to another user before
+      unindex(replaced, digest);
+    }
+  }
+
+  public void putUnknown(String apiKey) {
+    if (!enabled) {
+      return;
+    }
+    negativeCache.put(ApiKeyDigest.digestHex(apiKey), Boolean.TRUE);
+  }
+
+  /**
+   * Forget everything known about a key, resolved or not.
+   *
+   * @param apiKey the API key.
+   */
+  public void evict(String apiKey) {
+    String digest = ApiKeyDigest.digestHex(apiKey);
+    evictDigest(digest);
+    topic.publish(new Invalidation(digest, null));
+  }
+
+  /**
+   * Forget the keys resolved to a user, including keys the user no longer has.
+   *
+   * @param userId the id of the user.
+   */
+  public void evictUser(String userId) {
+    evictUserLocally(userId);
+    topic.publish(new Invalidation(null, userId));
+  }
+
+  public static List<GrantedAuthority> toGrantedAuthorities(Collection<String> authorities) {
+    if (authorities == null) {
+      return List.of();
+    }
+    return authorities.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+    negativeCache.invalidateAll();
+    digestsByUserId.clear();
+  }
+
+  private void evictDigest(String digest) {
+    Entry entry = cache.asMap().remove(digest);
+    if (entry != null) {
+      unindex(entry, digest);
+    }
+    negativeCache.invalidate(digest);
+  }
+
+  private void evictUserLocally(String userId) {
+    Set<String> digests = digestsByUserId.remove(userId);
+    if (digests == null) {
+      return;
+    }
+    for (String digest : digests) {
+      // the key may have been resolved to another user since
+      cache.asMap().computeIfPresent(digest, (key, entry) -> entry.userId().equals(userId) ? null : entry);
+    }
+  }
+
+  private void unindex(Entry entry, String digest) {
+    if (entry == null) {
+      return;
+    }
+    digestsByUserId.computeIfPresent(entry.userId(), (userId, digests) -> {
+      digests.remove(digest);
+      return digests.isEmpty() ? null : digests;
+    });
+  }
+
+  private void onInvalidation(Message<Invalidation> message) {
+    Member publisher = message.getPublishingMember();
+    if (publisher != null && publisher.localMember()) {
+      // the publisher already evicted its own entries
+      return;
+    }
+    Invalidation invalidation = message.getMessageObject();
+    if (invalidation.digest() != null) {
+      evictDigest(invalidation.digest());
+    }
+    if (invalidation.userId() != null) {
+      evictUserLocally(invalidation.userId());
+    }
+  }
+
+  /**
+   * @param digest the digest of the evicted key, {@code null} when a user was evicted.
+   * @param userId the id of the evicted user, {@code null} when a key was evicted.
+   */
+  record Invalidation(String digest, String userId) implements Serializable {}
+}
@@ -0,0 +1,31 @@
+package io.hpp.noosphere.hub.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digest of API keys, so plaintext keys do not have to be used as lookup keys.
+ */
+public final class ApiKeyDigest {
+
+  public static final int LENGTH = 32;
+
+  private static final String ALGORITHM = "SHA-256";
+
+  private ApiKeyDigest() {}
+
+  public static byte[] digest(String apiKey) {
+    try {
+      return MessageDigest.getInstance(ALGORITHM).digest(apiKey.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static String digestHex(String apiKey) {
+    return HexFormat.of().formatHex(digest(apiKey));
+  }
+}
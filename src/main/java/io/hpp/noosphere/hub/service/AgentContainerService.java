@@ -1,20 +1,29 @@
 package io.hpp.noosphere.hub.service;
 
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.domain.AgentContainer;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.AgentContainerRepository;
+import io.hpp.noosphere.hub.repository.ContainerCatalogRepository;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.repository.KeysetSlice;
 import io.hpp.noosphere.hub.service.dto.AgentContainerDTO;
 import io.hpp.noosphere.hub.service.dto.AgentDTO;
 import io.hpp.noosphere.hub.service.dto.ContainerDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.service.mapper.AgentContainerMapper;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,15 +40,26 @@ public class AgentContainerService {
 
     private final AgentContainerMapper agentContainerMapper;
 
-    public AgentContainerService(AgentContainerRepository agentContainerRepository, AgentContainerMapper agentContainerMapper) {
+    private final ContainerCatalogRepository containerCatalogRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    public AgentContainerService(
+        AgentContainerRepository agentContainerRepository,
+        AgentContainerMapper agentContainerMapper,
+        ContainerCatalogRepository containerCatalogRepository,
+        ApplicationProperties applicationProperties
+    ) {
         this.agentContainerRepository = agentContainerRepository;
         this.agentContainerMapper = agentContainerMapper;
+        this.containerCatalogRepository = containerCatalogRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     public AgentContainerDTO create(AgentService agentService, String userId, UUID agentId, UUID containerId, Instant timestamp)
         throws PermissionDeniedException {
         LOG.debug("Request to save Agent {}, Container {}", agentId, containerId);
-        agentService.validateOwner(agentId, userId);
+        agentService.checkOwner(agentId, userId);
         AgentContainerDTO agentContainerDTO = new AgentContainerDTO();
         AgentDTO agentDTO = new AgentDTO();
         agentDTO.setId(agentId);
@@ -51,6 +71,7 @@ public class AgentContainerService {
         agentContainerDTO.setStatusCode(StatusCode.ACTIVE);
         AgentContainer agentContainer = agentContainerMapper.toEntity(agentContainerDTO);
         agentContainer = agentContainerRepository.save(agentContainer);
+        containerCatalogRepository.refresh(Set.of(containerId));
         return agentContainerMapper.toDto(agentContainer);
     }
 
@@ -66,6 +87,47 @@ public class AgentContainerService {
         return agentContainerRepository.search(agentId, containerName, statusCode, pageable).map(agentContainerMapper::toDto);
     }
 
+    /**
+     * Search the agentContainers of an agent, counting the results with the given strategy.
+     * <p>
+     * Below {@link JsonViewType.Full} only the columns of {@code view} are selected, without hydrating the entities.
+     *
+     * @param view          the {@link JsonViewType} the results are serialized with.
+     * @param countStrategy how to count the results.
+     * @param pageable      the pagination information.
+     * @return a page of entities, or a slice with {@link CountStrategy#NONE}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<AgentContainerDTO> search(
+        UUID agentId,
+        String containerName,
+        StatusCode statusCode,
+        Class<?> view,
+        CountStrategy countStrategy,
+        Pageable pageable
+    ) {
+        LOG.debug("Request to search AgentContainers, view {}, count {}", view.getSimpleName(), countStrategy);
+        if (JsonViewType.Full.class.isAssignableFrom(view)) {
+            return agentContainerRepository
+                .search(agentId, containerName, statusCode, countStrategy, pageable)
+                .map(agentContainerMapper::toDto);
+        }
+        return agentContainerRepository.searchView(agentId, containerName, statusCode, view, countStrategy, pageable);
+    }
+
+    /**
+     * Search the agentContainers of an agent with keyset pagination.
+     *
+     * @param cursor   the cursor of the previous slice, empty for the first slice.
+     * @param pageable the size and sort of the slice.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<AgentContainerDTO> scroll(UUID agentId, String containerName, StatusCode statusCode, String cursor, Pageable pageable) {
+        LOG.debug("Request to scroll AgentContainers");
+        return agentContainerRepository.scroll(agentId, containerName, statusCode, cursor, pageable).map(agentContainerMapper::toDto);
+    }
+
     /**
      * Get one agentContainer by id.
      *
@@ -84,10 +146,91 @@ public class AgentContainerService {
         return agentContainerRepository.findByAgentIdAndContainerId(agentId, containerId).map(agentContainerMapper::toDto);
     }
 
+    /**
+     * Get the version stamps of an agent container and of the agent and the container it is serialized with, without
+     * loading them.
+     *
+     * @param agentId     the id of the agent.
+     * @param containerId the id of the container.
+     * @return the version stamps, or empty when the agent container does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<Instant>> findVersions(UUID agentId, UUID containerId) {
+        return agentContainerRepository.findVersionsByAgentIdAndContainerId(agentId, containerId);
+    }
+
     public void delete(AgentService agentService, String userId, UUID agentId, UUID id) throws PermissionDeniedException {
         LOG.debug("Request to delete AgentContainer : {}", id);
-        agentService.validateOwner(agentId, userId);
+        agentService.checkOwner(agentId, userId);
         Optional<AgentContainer> optionalAgentContainer = agentContainerRepository.findByAgentIdAndContainerId(agentId, id);
-        optionalAgentContainer.ifPresent(agentContainerRepository::delete);
+        if (optionalAgentContainer.isPresent()) {
+            agentContainerRepository.delete(optionalAgentContainer.get());
+            containerCatalogRepository.refresh(Set.of(id));
+        }
+    }
+
+    /**
+     * Change the status code of the agent containers of the agents of a user, selected by agents, containers and status.
+     *
+     * @param agentIds          the ids of the agents, {@code null} for all the agents of the user.
+     * @param containerIds      the ids of the containers, {@code null} for any container.
+     * @param currentStatusCode the current status filter, may be {@code null}.
+     * @param statusCode        the new status code.
+     * @return the number of updated agent containers.
+     * @throws PermissionDeniedException if one of {@code agentIds} is an agent of another user.
+     */
+    public long bulkUpdateStatusCode(
+        AgentService agentService,
+        String userId,
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode,
+        StatusCode statusCode,
+        Instant timestamp
+    ) throws PermissionDeniedException {
+        LOG.debug(
+            "Request to update the status of AgentContainers : {} {} {} to {}",
+            agentIds,
+            containerIds,
+            currentStatusCode,
+            statusCode
+        );
+        agentService.validateOwner(agentIds, userId);
+        return agentContainerRepository.bulkUpdateStatusCode(
+            agentIds,
+            containerIds,
+            currentStatusCode,
+            userId,
+            statusCode,
+            timestamp,
+            applicationProperties.getBulk().getBatchSize()
+        );
+    }
+
+    /**
+     * Delete the agent containers of the agents of a user, selected by agents, containers and status.
+     *
+     * @param agentIds          the ids of the agents, {@code null} for all the agents of the user.
+     * @param containerIds      the ids of the containers, {@code null} for any container.
+     * @param currentStatusCode the current status filter, may be {@code null}.
+     * @return the number of deleted agent containers.
+     * @throws PermissionDeniedException if one of {@code agentIds} is an agent of another user.
+     */
+    public long bulkDelete(
+        AgentService agentService,
+        String userId,
+        Collection<UUID> agentIds,
+        Collection<UUID> containerIds,
+        StatusCode currentStatusCode
+    ) throws PermissionDeniedException {
+        LOG.debug("Request to delete AgentContainers : {} {} {}", agentIds, containerIds, currentStatusCode);
+        agentService.validateOwner(agentIds, userId);
+        return agentContainerRepository.bulkDelete(
+            agentIds,
+            containerIds,
+            currentStatusCode,
+            userId,
+            applicationProperties.getBulk().getBatchSize()
+        );
     }
 }
@@ -0,0 +1,112 @@
+package io.hpp.noosphere.hub.service;
+
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind buffer for agent keep-alive heartbeats.
+ * <p>
+ * Only the latest {@code lastKeepAliveAt} of each agent is kept in memory. Pending entries are written every
+ * {@code application.heartbeat.flush-interval} with multi-row upserts, so the heartbeats received during one interval cost
+ * about one database round trip instead of one transaction each.
+ */
+@Service
+public class AgentHeartbeatBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentHeartbeatBuffer.class);
+
+    private final ConcurrentMap<UUID, Instant> pending = new ConcurrentHashMap<>();
+
+    private final AgentStatusRepository agentStatusRepository;
+    private final ApplicationProperties applicationProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public AgentHeartbeatBuffer(
+        AgentStatusRepository agentStatusRepository,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.agentStatusRepository = agentStatusRepository;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(applicationProperties.getHeartbeat().getWriteBehind());
+    }
+
+    /**
+     * Record a heartbeat, keeping the most recent timestamp when the agent already has one pending.
+     *
+     * @param agentId   the id of the agent.
+     * @param timestamp the time of the heartbeat.
+     */
+    public void record(UUID agentId, Instant timestamp) {
+        pending.merge(agentId, timestamp, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    public boolean isPending(UUID agentId) {
+        return pending.containsKey(agentId);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write all pending heartbeats, one upsert statement per {@code application.heartbeat.flush-batch-size} agents.
+     */
+    @Scheduled(fixedDelayString = "${application.heartbeat.flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int batchSize = applicationProperties.getHeartbeat().getFlushBatchSize();
+        Map<UUID, Instant> batch = new HashMap<>();
+        int flushed = 0;
+        for (Map.Entry<UUID, Instant> entry : pending.entrySet()) {
+            // a heartbeat that raced in after the snapshot keeps its entry and goes out with the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() >= batchSize) {
+                    flushed += write(batch);
+                    batch = new HashMap<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += write(batch);
+        }
+        LOG.debug("Flushed {} agent heartbeats", flushed);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        LOG.info("Flushing {} pending agent heartbeats", pending.size());
+        flush();
+    }
+
+    private int write(Map<UUID, Instant> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> agentStatusRepository.upsertLastKeepAliveAt(batch));
+            return batch.size();
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to flush {} agent heartbeats, keeping them for the next flush", batch.size(), e);
+            batch.forEach(this::record);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.hpp.noosphere.hub.service;
+
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentRepository;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Demotes {@link StatusCode#ACTIVE} agents whose last keep-alive is older than {@code application.liveness.timeout} to
+ * {@link StatusCode#INACTIVE}, so routing queries stop returning dead agents.
+ * <p>
+ * A sweep makes two passes of batches: the agents whose last keep-alive expired, then the agents which never sent one and
+ * expire from their creation time. Each batch is one keyset query, a range of an index read in its order, and one bulk
+ * update of {@code agent}. Agents with a heartbeat still waiting in the {@link AgentHeartbeatBuffer} are left alone, and the
+ * next batch starts after them.
+ */
+@Service
+public class AgentLivenessSweeper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentLivenessSweeper.class);
+
+    private final AgentStatusRepository agentStatusRepository;
+    private final AgentRepository agentRepository;
+    private final AgentHeartbeatBuffer agentHeartbeatBuffer;
+    private final ApplicationProperties applicationProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter scannedCounter;
+    private final Counter demotedCounter;
+    private final Timer sweepTimer;
+
+    public AgentLivenessSweeper(
+        AgentStatusRepository agentStatusRepository,
+        AgentRepository agentRepository,
+        AgentHeartbeatBuffer agentHeartbeatBuffer,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.agentStatusRepository = agentStatusRepository;
+        this.agentRepository = agentRepository;
+        this.agentHeartbeatBuffer = agentHeartbeatBuffer;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scannedCounter = Counter.builder("noosphere.agent.liveness.scanned")
+            .description("Agents found with an expired keep-alive")
+            .register(meterRegistry);
+        this.demotedCounter = Counter.builder("noosphere.agent.liveness.demoted")
+            .description("Agents demoted to INACTIVE")
+            .register(meterRegistry);
+        this.sweepTimer = Timer.builder("noosphere.agent.liveness.sweep").description("Duration of a liveness sweep").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.liveness.sweep-interval:PT30S}")
+    public void sweep() {
+        if (!Boolean.TRUE.equals(applicationProperties.getLiveness().getEnabled())) {
+            return;
+        }
+        sweepTimer.record(() -> sweep(Instant.now()));
+    }
+
+    /**
+     * Demote the agents whose last keep-alive is older than {@code now - application.liveness.timeout}.
+     *
+     * @param now the reference time of the sweep.
+     * @return the number of demoted agents.
+     */
+    public long sweep(Instant now) {
+        Instant cutoff = now.minus(applicationProperties.getLiveness().getTimeout());
+        int batchSize = applicationProperties.getLiveness().getBatchSize();
+        Pass expired = sweep(now, batchSize, after ->
+            agentStatusRepository.findByLastKeepAliveAtBefore(StatusCode.ACTIVE, cutoff, after, batchSize)
+        );
+        Pass neverSeen = sweep(now, batchSize, after ->
+            agentStatusRepository.findWithoutKeepAliveCreatedBefore(StatusCode.ACTIVE, cutoff, after, batchSize)
+        );
+        long scanned = expired.scanned() + neverSeen.scanned();
+        long demoted = expired.demoted() + neverSeen.demoted();
+        scannedCounter.increment(scanned);
+        demotedCounter.increment(demoted);
+        if (demoted > 0) {
+            LOG.info("Liveness sweep demoted {} of {} agents without keep-alive since {}", demoted, scanned, cutoff);
+        } else {
+            LOG.debug("Liveness sweep found {} agents without keep-alive since {}", scanned, cutoff);
+        }
+        return demoted;
+    }
+
+    /**
+     * Demote the agents of one pass of the sweep, batch by batch.
+     *
+     * @param now       the reference time of the sweep.
+     * @param batchSize the number of agents per batch.
+     * @param batches   the batch after the given agent, the last one of the previous batch or {@code null} for the first batch.
+     * @return the numbers of found and demoted agents.
+     */
+    private Pass sweep(
+        Instant now,
+        int batchSize,
+        Function<AgentStatusRepository.KeepAlive, List<AgentStatusRepository.KeepAlive>> batches
+    ) {
+        long scanned = 0;
+        long demoted = 0;
+        AgentStatusRepository.KeepAlive after = null;
+        while (true) {
+            List<AgentStatusRepository.KeepAlive> agents = batches.apply(after);
+            scanned += agents.size();
+            List<UUID> staleAgentIds = agents
+                .stream()
+                .map(AgentStatusRepository.KeepAlive::agentId)
+                .filter(agentId -> !agentHeartbeatBuffer.isPending(agentId))
+                .toList();
+            if (!staleAgentIds.isEmpty()) {
+                Long updated = transactionTemplate.execute(status ->
+                    agentRepository.updateStatusCode(staleAgentIds, StatusCode.ACTIVE, StatusCode.INACTIVE, now)
+                );
+                demoted += updated != null ? updated : 0;
+            }
+            if (agents.size() < batchSize) {
+                return new Pass(scanned, demoted);
+            }
+            // continues after the last agent of the batch, past the ones waiting for their heartbeat to be flushed
+            after = agents.get(agents.size() - 1);
+        }
+    }
+
+    private record Pass(long scanned, long demoted) {}
+}
@@ -5,17 +5,28 @@ import io.hpp.noosphere.hub.domain.User;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.AgentRepository;
+import io.hpp.noosphere.hub.repository.ContainerCatalogRepository;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.repository.KeysetSlice;
+import io.hpp.noosphere.hub.repository.OwnerCache;
+import io.hpp.noosphere.hub.repository.SearchResultCache;
 import io.hpp.noosphere.hub.repository.UserRepository;
 import io.hpp.noosphere.hub.service.dto.AgentDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.service.dto.UserDTO;
 import io.hpp.noosphere.hub.service.mapper.AgentMapper;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,10 +41,22 @@ public class AgentService {
 
     private final AgentRepository agentRepository;
     private final AgentMapper agentMapper;
+    private final OwnerCache ownerCache;
+    private final ContainerCatalogRepository containerCatalogRepository;
+    private final SearchResultCache searchResultCache;
 
-    public AgentService(AgentRepository agentRepository, AgentMapper agentMapper) {
+    public AgentService(
+        AgentRepository agentRepository,
+        AgentMapper agentMapper,
+        OwnerCache ownerCache,
+        ContainerCatalogRepository containerCatalogRepository,
+        SearchResultCache searchResultCache
+    ) {
         this.agentRepository = agentRepository;
         this.agentMapper = agentMapper;
+        this.ownerCache = ownerCache;
+        this.containerCatalogRepository = containerCatalogRepository;
+        this.searchResultCache = searchResultCache;
     }
 
     public Agent validateOwner(UUID id, String userId) throws PermissionDeniedException {
@@ -48,6 +71,60 @@ public class AgentService {
         return agent;
     }
 
+    /**
+     * Check that an agent does not belong to another user without loading it: the owner is read from the {@link OwnerCache},
+     * or else from the {@code created_by_user_id} column alone.
+     *
+     * @param id     the id of the agent.
+     * @param userId the id of the user.
+     * @return {@code true} if the agent belongs to the user, {@code false} if it does not exist.
+     * @throws PermissionDeniedException if the agent belongs to another user.
+     */
+    public boolean checkOwner(UUID id, String userId) throws PermissionDeniedException {
+        return checkOwnerEntry(id, userId).isPresent();
+    }
+
+    /**
+     * Check that an agent does not belong to another user like {@link #checkOwner(UUID, String)}, and get the cached entry
+     * of its owner, which also holds its status code.
+     *
+     * @param id     the id of the agent.
+     * @param userId the id of the user.
+     * @return the owner and status code of the agent, empty if it does not exist.
+     * @throws PermissionDeniedException if the agent belongs to another user.
+     */
+    public Optional<OwnerCache.Owner> checkOwnerEntry(UUID id, String userId) throws PermissionDeniedException {
+        return Optional.ofNullable(ownerCache.validateOwner(Agent.class, id, userId, agentRepository::findOwnersByIdIn));
+    }
+
+    /**
+     * Get the owners and status codes of several agents from the {@link OwnerCache}, the misses are read with one query.
+     *
+     * @param ids the ids of the agents.
+     * @return the owner of each existing agent, missing agents are absent from the map.
+     */
+    public Map<UUID, OwnerCache.Owner> findOwners(Collection<UUID> ids) {
+        return ownerCache.getOwners(Agent.class, ids, agentRepository::findOwnersByIdIn);
+    }
+
+    /**
+     * Check with a single query that none of the agents belongs to another user. Missing agents are ignored.
+     *
+     * @param ids    the ids of the agents.
+     * @param userId the id of the user.
+     * @throws PermissionDeniedException with the id of the first agent of another user.
+     */
+    public void validateOwner(Collection<UUID> ids, String userId) throws PermissionDeniedException {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<UUID, String> entry : agentRepository.findCreatedByUserIdsByIdIn(ids).entrySet()) {
+            if (!userId.equals(entry.getValue())) {
+                throw new PermissionDeniedException(entry.getKey().toString());
+            }
+        }
+    }
+
     /**
      * Save a agent.
      *
@@ -63,6 +140,7 @@ public class AgentService {
         agentDTO.setStatusCode(StatusCode.ACTIVE);
         Agent agent = agentMapper.toEntity(agentDTO);
         agent = agentRepository.save(agent);
+        searchResultCache.invalidate(Agent.class);
         return agentMapper.toDto(agent);
     }
 
@@ -71,11 +149,19 @@ public class AgentService {
         LOG.debug("Request to partially update Agent : {}", agentDTO);
         Agent agent = this.validateOwner(agentDTO.getId(), userId);
         if (agent != null) {
+            StatusCode statusCode = agent.getStatusCode();
             agentMapper.partialUpdate(agent, agentDTO);
+            // the update may carry another createdByUser
+            ownerCache.evict(Agent.class, agent.getId());
             agent.setUpdatedAt(timestamp);
             User user = userService.findById(userId);
             agent.setUpdatedByUser(user);
             agent = agentRepository.save(agent);
+            searchResultCache.invalidate(Agent.class);
+            if (!Objects.equals(statusCode, agent.getStatusCode())) {
+                // the agent joins or leaves the online agents of its containers
+                containerCatalogRepository.refreshByAgentIds(Set.of(agent.getId()));
+            }
             return agentMapper.toDto(agent);
         } else {
             return null;
@@ -94,6 +180,50 @@ public class AgentService {
         return agentRepository.search(name, statusCode, createdByUserId, pageable).map(agentMapper::toDto);
     }
 
+    /**
+     * Search agents, counting the results with the given strategy.
+     * <p>
+     * Below {@link JsonViewType.Full} only the columns of {@code view} are selected, without hydrating the entities. With
+     * the {@link SearchResultCache} enabled, the agents are loaded by the ids of the cached result whatever the view.
+     *
+     * @param view          the {@link JsonViewType} the results are serialized with.
+     * @param countStrategy how to count the results.
+     * @param pageable      the pagination information.
+     * @return a page of entities, or a slice with {@link CountStrategy#NONE}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<AgentDTO> search(
+        String name,
+        StatusCode statusCode,
+        String createdByUserId,
+        Class<?> view,
+        CountStrategy countStrategy,
+        Pageable pageable
+    ) {
+        LOG.debug("Request to search all Agents, view {}, count {}", view.getSimpleName(), countStrategy);
+        if (searchResultCache.isEnabled()) {
+            // whole agents from the second level cache, serialized with the view all the same
+            return agentRepository.searchCached(name, statusCode, createdByUserId, countStrategy, pageable).map(agentMapper::toDto);
+        }
+        if (JsonViewType.Full.class.isAssignableFrom(view)) {
+            return agentRepository.search(name, statusCode, createdByUserId, countStrategy, pageable).map(agentMapper::toDto);
+        }
+        return agentRepository.searchView(name, statusCode, createdByUserId, view, countStrategy, pageable);
+    }
+
+    /**
+     * Search agents with keyset pagination.
+     *
+     * @param cursor   the cursor of the previous slice, empty for the first slice.
+     * @param pageable the size and sort of the slice.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<AgentDTO> scroll(String name, StatusCode statusCode, String createdByUserId, String cursor, Pageable pageable) {
+        LOG.debug("Request to scroll Agents");
+        return agentRepository.scroll(name, statusCode, createdByUserId, cursor, pageable).map(agentMapper::toDto);
+    }
+
     /**
      * Get one agent by id.
      *
@@ -108,6 +238,17 @@ public class AgentService {
         return agentRepository.findById(id).map(agentMapper::toDto);
     }
 
+    /**
+     * Get the version stamp of an agent, without mapping it: the time of its last update, or of its creation.
+     *
+     * @param id the id of the entity.
+     * @return the version stamp, or empty when the agent does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> findVersion(UUID id) {
+        return agentRepository.findVersionById(id);
+    }
+
     /**
      * Delete the agent by id.
      *
@@ -118,6 +259,8 @@ public class AgentService {
         Agent agent = this.validateOwner(id, userId);
         if (agent != null) {
             agentRepository.delete(agent);
+            ownerCache.evict(Agent.class, id);
+            searchResultCache.invalidate(Agent.class);
         }
     }
 }
@@ -1,16 +1,26 @@
 package io.hpp.noosphere.hub.service;
 
-import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.domain.AgentStatus;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
 import io.hpp.noosphere.hub.exception.AgentNotFoundException;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.AgentRepository;
 import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import io.hpp.noosphere.hub.repository.OwnerCache;
 import io.hpp.noosphere.hub.service.dto.AgentStatusDTO;
+import io.hpp.noosphere.hub.service.dto.KeepAliveResultDTO;
 import io.hpp.noosphere.hub.service.mapper.AgentStatusMapper;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,17 +44,23 @@ public class AgentStatusService {
 
     private final AgentStatusMapper agentStatusMapper;
     private final AgentService agentService;
+    private final AgentHeartbeatBuffer agentHeartbeatBuffer;
+    private final ApplicationProperties applicationProperties;
 
     public AgentStatusService(
         AgentStatusRepository agentStatusRepository,
         AgentStatusMapper agentStatusMapper,
         AgentRepository agentRepository,
-        AgentService agentService
+        AgentService agentService,
+        AgentHeartbeatBuffer agentHeartbeatBuffer,
+        ApplicationProperties applicationProperties
     ) {
         this.agentStatusRepository = agentStatusRepository;
         this.agentStatusMapper = agentStatusMapper;
         this.agentRepository = agentRepository;
         this.agentService = agentService;
+        this.agentHeartbeatBuffer = agentHeartbeatBuffer;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -96,30 +112,94 @@ public class AgentStatusService {
             .map(agentStatusMapper::toDto);
     }
 
+    /**
+     * Record a keep-alive of an agent.
+     * <p>
+     * Ownership and status are read from the {@link OwnerCache} without loading the agent.
+     * Only an agent which is not active yet is activated, with a bulk update: bulk updates evict the Agent second level cache
+     * region, so the keep-alive of an active agent writes nothing to the agent. With {@code application.heartbeat.write-behind}
+     * enabled the timestamp is only buffered and written by {@link AgentHeartbeatBuffer#flush()}, otherwise it is upserted
+     * right away.
+     *
+     * @param userId    the id of the user owning the agent.
+     * @param agentId   the id of the agent.
+     * @param timestamp the time of the keep-alive.
+     */
     public void updateKeepAlive(String userId, UUID agentId, Instant timestamp)
         throws AgentNotFoundException, PermissionDeniedException {
-        Agent agent = agentService.validateOwner(agentId, userId);
-        AgentStatus agentStatus = null;
-        if (agent != null) {
-            if (!StatusCode.ACTIVE.equals(agent.getStatusCode())) {
-                agent.setStatusCode(StatusCode.ACTIVE);
-                agent = agentRepository.save(agent);
-            }
-            Optional<AgentStatus> optionalAgentStatus = agentStatusRepository.findByAgentId(agentId);
-            if (optionalAgentStatus.isPresent()) {
-                agentStatus = optionalAgentStatus.get();
-                agentStatus.setLastKeepAliveAt(timestamp);
-                agentStatus = agentStatusRepository.save(agentStatus);
+        OwnerCache.Owner owner = agentService
+            .checkOwnerEntry(agentId, userId)
+            .orElseThrow(() -> new AgentNotFoundException(agentId.toString()));
+        if (owner.statusCode() != StatusCode.ACTIVE) {
+            agentRepository.updateStatusCode(Set.of(agentId), null, StatusCode.ACTIVE, timestamp);
+        }
+        if (agentHeartbeatBuffer.isEnabled()) {
+            agentHeartbeatBuffer.record(agentId, timestamp);
+        } else {
+            agentStatusRepository.upsertLastKeepAliveAt(Map.of(agentId, timestamp));
+        }
+    }
+
+    /**
+     * Record the keep-alives of several agents of the same user.
+     * <p>
+     * Ownership and status of all the agents are read from the owner cache, its misses with one query. The owned agents
+     * which are not active yet are activated with one bulk update, and the timestamps are buffered or upserted
+     * {@code application.heartbeat.flush-batch-size} rows per statement. Unknown and foreign agents are reported in the
+     * result instead of failing the whole batch.
+     *
+     * @param userId     the id of the user owning the agents.
+     * @param keepAlives the time of the keep-alive of each agent, {@code null} or future timestamps are replaced by {@code now}.
+     * @param now        the time the keep-alives were received.
+     * @return the result of each agent, in request order.
+     */
+    public List<KeepAliveResultDTO> updateKeepAlives(String userId, Map<UUID, Instant> keepAlives, Instant now) {
+        LOG.debug("Request to keep alive {} agents", keepAlives.size());
+        Map<UUID, OwnerCache.Owner> owners = agentService.findOwners(keepAlives.keySet());
+
+        List<KeepAliveResultDTO> results = new ArrayList<>(keepAlives.size());
+        Map<UUID, Instant> owned = new LinkedHashMap<>();
+        Set<UUID> inactive = new HashSet<>();
+        for (Map.Entry<UUID, Instant> entry : keepAlives.entrySet()) {
+            UUID agentId = entry.getKey();
+            OwnerCache.Owner owner = owners.get(agentId);
+            if (owner == null) {
+                results.add(new KeepAliveResultDTO(agentId, KeepAliveResultDTO.Result.NOT_FOUND, null));
+            } else if (!Objects.equals(owner.userId(), userId)) {
+                results.add(new KeepAliveResultDTO(agentId, KeepAliveResultDTO.Result.PERMISSION_DENIED, null));
             } else {
-                agentStatus = new AgentStatus();
-                agentStatus.setAgent(agent);
-                agentStatus.setCreatedAt(timestamp);
-                agentStatus.setLastKeepAliveAt(timestamp);
-                agentStatus = agentStatusRepository.save(agentStatus);
+                Instant timestamp = entry.getValue() == null || entry.getValue().isAfter(now) ? now : entry.getValue();
+                owned.put(agentId, timestamp);
+                if (owner.statusCode() != StatusCode.ACTIVE) {
+                    inactive.add(agentId);
+                }
+                results.add(new KeepAliveResultDTO(agentId, KeepAliveResultDTO.Result.OK, timestamp));
             }
+        }
+        if (owned.isEmpty()) {
+            return results;
+        }
+
+        if (!inactive.isEmpty()) {
+            agentRepository.updateStatusCode(inactive, null, StatusCode.ACTIVE, now);
+        }
+        if (agentHeartbeatBuffer.isEnabled()) {
+            owned.forEach(agentHeartbeatBuffer::record);
         } else {
-            throw new AgentNotFoundException(agentId.toString());
+            int batchSize = applicationProperties.getHeartbeat().getFlushBatchSize();
+            Map<UUID, Instant> batch = new HashMap<>();
+            for (Map.Entry<UUID, Instant> entry : owned.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() >= batchSize) {
+                    agentStatusRepository.upsertLastKeepAliveAt(batch);
+                    batch = new HashMap<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                agentStatusRepository.upsertLastKeepAliveAt(batch);
+            }
         }
+        return results;
     }
 
     /**
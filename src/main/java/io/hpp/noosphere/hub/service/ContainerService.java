@@ -1,20 +1,43 @@
 package io.hpp.noosphere.hub.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.ContainerCatalog;
 import io.hpp.noosphere.hub.domain.User;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.exception.InvalidDataException;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
+import io.hpp.noosphere.hub.repository.ContainerCatalogRepository;
 import io.hpp.noosphere.hub.repository.ContainerRepository;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.repository.KeysetSlice;
+import io.hpp.noosphere.hub.repository.SearchResultCache;
+import io.hpp.noosphere.hub.service.dto.BulkResultDTO;
+import io.hpp.noosphere.hub.service.dto.ContainerCatalogDTO;
 import io.hpp.noosphere.hub.service.dto.ContainerDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.service.dto.UserDTO;
+import io.hpp.noosphere.hub.service.mapper.ContainerCatalogMapper;
 import io.hpp.noosphere.hub.service.mapper.ContainerMapper;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,9 +54,32 @@ public class ContainerService {
 
   private final ContainerMapper containerMapper;
 
-  public ContainerService(ContainerRepository containerRepository, ContainerMapper containerMapper) {
+  private final ContainerCatalogRepository containerCatalogRepository;
+
+  private final ContainerCatalogMapper containerCatalogMapper;
+
+  private final SearchResultCache searchResultCache;
+
+  private final ApplicationProperties applicationProperties;
+
+  private final ObjectReader jsonReader;
+
+  public ContainerService(
+    ContainerRepository containerRepository,
+    ContainerMapper containerMapper,
+    ContainerCatalogRepository containerCatalogRepository,
+    ContainerCatalogMapper containerCatalogMapper,
+    SearchResultCache searchResultCache,
+    ApplicationProperties applicationProperties,
+    ObjectMapper objectMapper
+  ) {
     this.containerRepository = containerRepository;
     this.containerMapper = containerMapper;
+    this.containerCatalogRepository = containerCatalogRepository;
+    this.containerCatalogMapper = containerCatalogMapper;
+    this.searchResultCache = searchResultCache;
+    this.applicationProperties = applicationProperties;
+    this.jsonReader = objectMapper.reader().with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
   }
 
 
@@ -49,6 +95,24 @@ public class ContainerService {
     return container;
   }
 
+  /**
+   * Check with a single query that none of the containers belongs to another user. Missing containers are ignored.
+   *
+   * @param ids    the ids of the containers.
+   * @param userId the id of the user.
+   * @throws PermissionDeniedException with the id of the first container of another user.
+   */
+  public void validateOwner(Collection<UUID> ids, String userId) throws PermissionDeniedException {
+    if (ids == null || ids.isEmpty()) {
+      return;
+    }
+    for (Map.Entry<UUID, String> entry : containerRepository.findCreatedByUserIdsByIdIn(ids).entrySet()) {
+      if (!userId.equals(entry.getValue())) {
+        throw new PermissionDeniedException(entry.getKey().toString());
+      }
+    }
+  }
+
   /**
    * Save a container.
    *
@@ -62,8 +126,11 @@ public class ContainerService {
     containerDTO.setCreatedByUser(userDTO);
     containerDTO.setCreatedAt(timestamp);
     containerDTO.setStatusCode(StatusCode.ACTIVE);
+    validateParameters(containerDTO.getParameters());
     Container container = containerMapper.toEntity(containerDTO);
     container = containerRepository.save(container);
+    containerCatalogRepository.refresh(Set.of(container.getId()));
+    searchResultCache.invalidate(Container.class);
     return containerMapper.toDto(container);
   }
 
@@ -76,6 +143,7 @@ public class ContainerService {
   public ContainerDTO partialUpdate(UserService userService, String userId, ContainerDTO containerDTO, Instant timestamp)
     throws PermissionDeniedException {
     LOG.debug("Request to partially update Container : {}", containerDTO);
+    validateParameters(containerDTO.getParameters());
     Container container = this.validateOwner(containerDTO.getId(), userId);
     if (container != null) {
       containerMapper.partialUpdate(container, containerDTO);
@@ -83,6 +151,8 @@ public class ContainerService {
       User user = userService.findById(userId);
       container.setUpdatedByUser(user);
       container = containerRepository.save(container);
+      containerCatalogRepository.refresh(Set.of(container.getId()));
+      searchResultCache.invalidate(Container.class);
       return containerMapper.toDto(container);
     } else {
       return null;
@@ -101,6 +171,91 @@ public class ContainerService {
     return containerRepository.search(name, statusCode, createdByUserId, pageable).map(containerMapper::toDto);
   }
 
+  /**
+   * Search containers, counting the results with the given strategy.
+   * <p>
+   * Below {@link JsonViewType.Full} only the columns of {@code view} are selected, without hydrating the entities. With
+   * the {@link SearchResultCache} enabled, the containers are loaded by the ids of the cached result whatever the view.
+   *
+   * @param minPrice      the lowest price, inclusive, may be {@code null}.
+   * @param maxPrice      the highest price, inclusive, may be {@code null}.
+   * @param parameters    the value of each searched container parameter by key, may be {@code null}.
+   * @param view          the {@link JsonViewType} the results are serialized with.
+   * @param countStrategy how to count the results.
+   * @param pageable      the pagination information.
+   * @return a page of entities, or a slice with {@link CountStrategy#NONE}.
+   */
+  @Transactional(readOnly = true)
+  public Slice<ContainerDTO> search(
+    String name,
+    StatusCode statusCode,
+    String createdByUserId,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    Map<String, String> parameters,
+    Class<?> view,
+    CountStrategy countStrategy,
+    Pageable pageable
+  ) {
+    LOG.debug("Request to search Containers, view {}, count {}", view.getSimpleName(), countStrategy);
+    if (searchResultCache.isEnabled()) {
+      // whole containers from the second level cache, serialized with the view all the same
+      return containerRepository
+        .searchCached(name, statusCode, createdByUserId, minPrice, maxPrice, parameters, countStrategy, pageable)
+        .map(containerMapper::toDto);
+    }
+    if (JsonViewType.Full.class.isAssignableFrom(view)) {
+      return containerRepository
+        .search(name, statusCode, createdByUserId, minPrice, maxPrice, parameters, countStrategy, pageable)
+        .map(containerMapper::toDto);
+    }
+    return containerRepository.searchView(name, statusCode, createdByUserId, minPrice, maxPrice, parameters, view, countStrategy, pageable);
+  }
+
+  /**
+   * Search containers with keyset pagination.
+   *
+   * @param minPrice   the lowest price, inclusive, may be {@code null}.
+   * @param maxPrice   the highest price, inclusive, may be {@code null}.
+   * @param parameters the value of each searched container parameter by key, may be {@code null}.
+   * @param cursor     the cursor of the previous slice, empty for the first slice.
+   * @param pageable   the size and sort of the slice.
+   * @return the slice of entities.
+   */
+  @Transactional(readOnly = true)
+  public KeysetSlice<ContainerDTO> scroll(
+    String name,
+    StatusCode statusCode,
+    String createdByUserId,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    Map<String, String> parameters,
+    String cursor,
+    Pageable pageable
+  ) {
+    LOG.debug("Request to scroll Containers");
+    return containerRepository
+      .scroll(name, statusCode, createdByUserId, minPrice, maxPrice, parameters, cursor, pageable)
+      .map(containerMapper::toDto);
+  }
+
+  /**
+   * List the catalog rows of containers, with the live counts of the agents serving them, without counting the rows.
+   *
+   * @param statusCode          the status of the containers, may be {@code null}.
+   * @param minOnlineAgentCount the lowest number of online agents, inclusive, may be {@code null}.
+   * @param pageable            the pagination information.
+   * @param now                 the instant the heartbeat ages are measured at.
+   * @return the slice of catalog rows.
+   */
+  @Transactional(readOnly = true)
+  public Slice<ContainerCatalogDTO> catalog(StatusCode statusCode, Integer minOnlineAgentCount, Pageable pageable, Instant now) {
+    LOG.debug("Request to list the Container catalog");
+    return containerCatalogRepository
+      .search(statusCode, minOnlineAgentCount, pageable)
+      .map(containerCatalog -> toCatalogDto(containerCatalog, now));
+  }
+
   /**
    * Get one container by id.
    *
@@ -113,6 +268,17 @@ public class ContainerService {
     return containerRepository.findById(id).map(containerMapper::toDto);
   }
 
+  /**
+   * Get the version stamp of a container, without mapping it: the time of its last update, or of its creation.
+   *
+   * @param id the id of the entity.
+   * @return the version stamp, or empty when the container does not exist.
+   */
+  @Transactional(readOnly = true)
+  public Optional<Instant> findVersion(UUID id) {
+    return containerRepository.findVersionById(id);
+  }
+
   /**
    * Delete the container by id.
    *
@@ -123,6 +289,91 @@ public class ContainerService {
     Container container = this.validateOwner(id, userId);
     if (container != null) {
       containerRepository.delete(container);
+      searchResultCache.invalidate(Container.class);
+    }
+  }
+
+  /**
+   * Change the status code of the containers of a user selected by ids, or by filters when {@code ids} is {@code null}.
+   *
+   * @param ids               the ids of the containers, may be {@code null}.
+   * @param name              the name filter, may be {@code null}.
+   * @param currentStatusCode the current status filter, may be {@code null}.
+   * @param statusCode        the new status code.
+   * @return the number of updated containers.
+   * @throws PermissionDeniedException if one of {@code ids} is a container of another user.
+   */
+  public long bulkUpdateStatusCode(
+    String userId,
+    Collection<UUID> ids,
+    String name,
+    StatusCode currentStatusCode,
+    StatusCode statusCode,
+    Instant timestamp
+  ) throws PermissionDeniedException {
+    LOG.debug("Request to update the status of Containers : {} {} {} to {}", ids, name, currentStatusCode, statusCode);
+    this.validateOwner(ids, userId);
+    return containerRepository.bulkUpdateStatusCode(
+      ids,
+      name,
+      currentStatusCode,
+      userId,
+      statusCode,
+      timestamp,
+      applicationProperties.getBulk().getBatchSize()
+    );
+  }
+
+  /**
+   * Delete the containers of a user selected by ids, or by filters when {@code ids} is {@code null}, with their agent
+   * containers. Containers linked to agents of other users are kept and reported as failed.
+   *
+   * @param ids               the ids of the containers, may be {@code null}.
+   * @param name              the name filter, may be {@code null}.
+   * @param currentStatusCode the current status filter, may be {@code null}.
+   * @return the number of deleted containers, and the ids of the refused ones.
+   * @throws PermissionDeniedException if one of {@code ids} is a container of another user.
+   */
+  public BulkResultDTO bulkDelete(String userId, Collection<UUID> ids, String name, StatusCode currentStatusCode)
+    throws PermissionDeniedException {
+    LOG.debug("Request to delete Containers : {} {} {}", ids, name, currentStatusCode);
+    this.validateOwner(ids, userId);
+    ContainerRepository.BulkDeleteResult result = containerRepository.bulkDelete(
+      ids,
+      name,
+      currentStatusCode,
+      userId,
+      applicationProperties.getBulk().getBatchSize()
+    );
+    if (!result.refusedIds().isEmpty()) {
+      LOG.debug("Containers linked to agents of other users were not deleted : {}", result.refusedIds());
+    }
+    return new BulkResultDTO(result.deleted(), new ArrayList<>(result.refusedIds()));
+  }
+
+  private ContainerCatalogDTO toCatalogDto(ContainerCatalog containerCatalog, Instant now) {
+    ContainerCatalogDTO containerCatalogDTO = containerCatalogMapper.toDto(containerCatalog);
+    if (containerCatalog.getLastKeepAliveAt() != null) {
+      containerCatalogDTO.setHeartbeatAgeSeconds(Duration.between(containerCatalog.getLastKeepAliveAt(), now).toSeconds());
+    }
+    return containerCatalogDTO;
+  }
+
+  /**
+   * Reject parameters which are not a JSON document before they reach the {@code json} column.
+   */
+  private void validateParameters(String parameters) {
+    if (parameters == null) {
+      return;
+    }
+    JsonNode document;
+    try {
+      document = jsonReader.readTree(parameters);
+    } catch (JsonProcessingException e) {
+      throw new InvalidDataException("parameters");
+    }
+    if (document == null || document.isMissingNode()) {
+      throw new InvalidDataException("parameters");
     }
   }
 }
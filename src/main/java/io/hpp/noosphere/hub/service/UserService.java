@@ -10,16 +10,26 @@ import io.hpp.noosphere.hub.domain.Authority;
 import io.hpp.noosphere.hub.domain.User;
 import io.hpp.noosphere.hub.repository.AuthorityRepository;
 import io.hpp.noosphere.hub.repository.UserRepository;
+import io.hpp.noosphere.hub.security.ApiKeyAuthenticationCache;
+import io.hpp.noosphere.hub.security.ApiKeyDigest;
 import io.hpp.noosphere.hub.security.SecurityUtils;
 import io.hpp.noosphere.hub.service.dto.UserDTO;
 import io.hpp.noosphere.hub.service.mapper.UserMapper;
 import io.hpp.noosphere.hub.service.uil.CommonUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.representations.idm.GroupRepresentation;
@@ -34,7 +44,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service class for managing users.
@@ -54,6 +69,15 @@ public class UserService {
 
     private final Keycloak keycloakAdminClient;
     private final ApplicationProperties applicationProperties;
+    private final ApiKeyAuthenticationCache apiKeyAuthenticationCache;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Keycloak lookups in progress, by API key digest.
+     */
+    private final ConcurrentMap<String, CompletableFuture<UserDTO>> keycloakLookups = new ConcurrentHashMap<>();
+    private final Counter originatingKeycloakLookupCounter;
+    private final Counter coalescedKeycloakLookupCounter;
 
     public UserService(
         UserRepository userRepository,
@@ -61,7 +85,10 @@ public class UserService {
         CacheManager cacheManager,
         UserMapper userMapper,
         Keycloak keycloakAdminClient,
-        ApplicationProperties applicationProperties
+        ApplicationProperties applicationProperties,
+        ApiKeyAuthenticationCache apiKeyAuthenticationCache,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
     ) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
@@ -69,6 +96,16 @@ public class UserService {
         this.userMapper = userMapper;
         this.keycloakAdminClient = keycloakAdminClient;
         this.applicationProperties = applicationProperties;
+        this.apiKeyAuthenticationCache = apiKeyAuthenticationCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.originatingKeycloakLookupCounter = Counter.builder("noosphere.api-key.keycloak.lookups")
+            .description("Keycloak lookups of unknown API keys")
+            .tag("call", "originating")
+            .register(meterRegistry);
+        this.coalescedKeycloakLookupCounter = Counter.builder("noosphere.api-key.keycloak.lookups")
+            .description("Keycloak lookups of unknown API keys")
+            .tag("call", "coalesced")
+            .register(meterRegistry);
     }
 
     private static User getUser(Map<String, Object> details) {
@@ -155,6 +192,8 @@ public class UserService {
         SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByEmail)
             .ifPresent(user -> {
+                // the email and the key may change, evict the user under its current keys
+                this.clearUserCaches(user);
                 user.setName(CommonUtils.buildFullName(langKey, firstName, lastName));
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
@@ -265,9 +304,32 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evictIfPresent(user.getEmail());
-        if (user.getApiKey() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_API_KEY_CACHE)).evictIfPresent(user.getApiKey());
+        String email = user.getEmail();
+        String apiKey = user.getApiKey();
+        String userId = user.getId();
+        clearUserCaches(email, apiKey, userId);
+        // a concurrent reader may cache the row read before the commit again, evict once more when it is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        clearUserCaches(email, apiKey, userId);
+                    }
+                }
+            );
+        }
+    }
+
+    private void clearUserCaches(String email, String apiKey, String userId) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evictIfPresent(email);
+        if (apiKey != null) {
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_API_KEY_CACHE)).evictIfPresent(apiKey);
+            apiKeyAuthenticationCache.evict(apiKey);
+        }
+        // also drops the previous key of a user whose key was just changed
+        if (userId != null) {
+            apiKeyAuthenticationCache.evictUser(userId);
         }
     }
 
@@ -334,19 +396,103 @@ public class UserService {
         return userDTO;
     }
 
+    /**
+     * Find the user of an API key, creating it from Keycloak when it is not known locally yet.
+     * <p>
+     * Runs without a surrounding transaction, so callers waiting for a Keycloak lookup do not hold a database connection.
+     *
+     * @param apiKey    the API key.
+     * @param activated whether the local user must be activated.
+     * @return the user, or {@code null} if neither the database nor Keycloak knows the key.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO findByApiKey(String apiKey, Boolean activated) {
         Optional<User> optionalUser = this.findOptionalByApiKey(apiKey, activated);
         if (optionalUser.isEmpty()) {
-            UserRepresentation keycloakUser = findKeycloakUserByApiKey(apiKey);
-            if (keycloakUser != null) {
-                UserDTO userDTO = createUserFromKeycloakUser(keycloakUser);
-                this.createUser(userDTO);
-                return userDTO;
-            }
+            return findKeycloakUserByApiKeyOnce(apiKey, activated);
         }
         return optionalUser.map(userMapper::userToUserDTO).orElse(null);
     }
 
+    /**
+     * Look up and create the user of an API key from Keycloak. Concurrent calls for the same key share a single lookup: the
+     * first caller queries Keycloak, creates the user and publishes it to the {@link ApiKeyAuthenticationCache}, the others
+     * wait at most {@code application.api-key.keycloak-lookup-timeout} for its result.
+     * <p>
+     * A caller arriving just after a previous lookup finished becomes the first caller of a new lookup, so it reads the
+     * {@link ApiKeyAuthenticationCache} and the write pool again before calling Keycloak. The user is created in its own
+     * transaction, unless another instance created it in the meantime.
+     */
+    private UserDTO findKeycloakUserByApiKeyOnce(String apiKey, Boolean activated) {
+        String digest = ApiKeyDigest.digestHex(apiKey);
+        CompletableFuture<UserDTO> lookup = new CompletableFuture<>();
+        CompletableFuture<UserDTO> inFlight = keycloakLookups.putIfAbsent(digest, lookup);
+        if (inFlight != null) {
+            coalescedKeycloakLookupCounter.increment();
+            return awaitKeycloakLookup(inFlight);
+        }
+        try {
+            UserDTO userDTO = findKnownUserByApiKey(apiKey, activated);
+            if (userDTO == null) {
+                originatingKeycloakLookupCounter.increment();
+                UserRepresentation keycloakUser = findKeycloakUserByApiKey(apiKey);
+                if (keycloakUser != null) {
+                    UserDTO keycloakUserDTO = createUserFromKeycloakUser(keycloakUser);
+                    // createUser is called on this instance, bypassing its proxy: the transaction is opened here
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (!userRepository.existsById(keycloakUserDTO.getId())) {
+                            createUser(keycloakUserDTO);
+                        }
+                    });
+                    apiKeyAuthenticationCache.put(
+                        apiKey,
+                        new ApiKeyAuthenticationCache.Entry(
+                            keycloakUserDTO.getId(),
+                            ApiKeyAuthenticationCache.toGrantedAuthorities(keycloakUserDTO.getAuthorities())
+                        )
+                    );
+                    userDTO = keycloakUserDTO;
+                }
+            }
+            lookup.complete(userDTO);
+            return userDTO;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            keycloakLookups.remove(digest, lookup);
+        }
+    }
+
+    /**
+     * Find the user of an API key resolved by a lookup which already finished: from the {@link ApiKeyAuthenticationCache},
+     * or else from the database within a read-write transaction, which is served by the write pool and never by a lagging
+     * read replica.
+     */
+    private UserDTO findKnownUserByApiKey(String apiKey, Boolean activated) {
+        Optional<ApiKeyAuthenticationCache.Entry> cached = apiKeyAuthenticationCache.get(apiKey);
+        return transactionTemplate.execute(status -> {
+            Optional<User> user = cached.isPresent()
+                ? userRepository.findById(cached.get().userId())
+                : userRepository.findOneByApiKey(apiKey, activated);
+            return user.map(userMapper::userToUserDTO).orElse(null);
+        });
+    }
+
+    private UserDTO awaitKeycloakLookup(CompletableFuture<UserDTO> lookup) {
+        long timeout = applicationProperties.getApiKey().getKeycloakLookupTimeout().toMillis();
+        try {
+            return lookup.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the Keycloak lookup of an API key", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The Keycloak lookup of an API key failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the Keycloak lookup of an API key", e);
+        }
+    }
+
     @Transactional(readOnly = true)
     public Page<UserDTO> search(String name, Boolean activated, Pageable pageable) {
         LOG.debug("Request to search Users");
@@ -0,0 +1,35 @@
+package io.hpp.noosphere.hub.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a bulk status update or delete.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema
+public class BulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "Number of updated or deleted rows")
+    @JsonView(JsonViewType.Shallow.class)
+    private long count;
+
+    @Schema(description = "Ids of the selected rows which were refused, e.g. containers linked to agents of other users")
+    @JsonView(JsonViewType.Shallow.class)
+    private List<UUID> failedIds = new ArrayList<>();
+
+    public BulkResultDTO(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,50 @@
+package io.hpp.noosphere.hub.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A DTO for the {@link io.hpp.noosphere.hub.domain.ContainerCatalog} entity.
+ */
+@Data
+@NoArgsConstructor
+@Schema
+public class ContainerCatalogDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @JsonView(JsonViewType.Shallow.class)
+    private UUID containerId;
+
+    @JsonView(JsonViewType.Shallow.class)
+    private String name;
+
+    @JsonView(JsonViewType.Shallow.class)
+    private BigDecimal price;
+
+    @JsonView(JsonViewType.Shallow.class)
+    private StatusCode statusCode;
+
+    @Schema(description = "Number of active agent containers")
+    @JsonView(JsonViewType.Shallow.class)
+    private Integer activeAgentCount;
+
+    @Schema(description = "Number of active agents among the active agent containers")
+    @JsonView(JsonViewType.Shallow.class)
+    private Integer onlineAgentCount;
+
+    @Schema(description = "Latest keep-alive of the online agents")
+    @JsonView(JsonViewType.Shallow.class)
+    private Instant lastKeepAliveAt;
+
+    @Schema(description = "Seconds since the latest keep-alive of the online agents, null without any")
+    @JsonView(JsonViewType.Shallow.class)
+    private Long heartbeatAgeSeconds;
+}
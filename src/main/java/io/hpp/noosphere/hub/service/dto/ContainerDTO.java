@@ -51,7 +51,6 @@ public class ContainerDTO implements Serializable {
     @JsonView(JsonViewType.Update.class)
     private String description;
 
-    @Lob
     @JsonView(JsonViewType.Update.class)
     private String parameters;
 
@@ -0,0 +1,39 @@
+package io.hpp.noosphere.hub.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one agent keep-alive of a batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema
+public class KeepAliveResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Result {
+        OK,
+        NOT_FOUND,
+        PERMISSION_DENIED,
+    }
+
+    @JsonView(JsonViewType.Shallow.class)
+    private UUID agentId;
+
+    @JsonView(JsonViewType.Shallow.class)
+    private Result result;
+
+    @JsonView(JsonViewType.Shallow.class)
+    private Instant lastKeepAliveAt;
+}
@@ -0,0 +1,14 @@
+package io.hpp.noosphere.hub.service.mapper;
+
+import io.hpp.noosphere.hub.domain.ContainerCatalog;
+import io.hpp.noosphere.hub.service.dto.ContainerCatalogDTO;
+import org.mapstruct.*;
+
+/**
+ * Mapper for the read-only entity {@link ContainerCatalog} and its DTO {@link ContainerCatalogDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface ContainerCatalogMapper {
+    @Mapping(target = "heartbeatAgeSeconds", ignore = true)
+    ContainerCatalogDTO toDto(ContainerCatalog containerCatalog);
+}
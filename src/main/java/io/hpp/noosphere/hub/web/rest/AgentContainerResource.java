@@ -1,15 +1,24 @@
 package io.hpp.noosphere.hub.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.config.OpenApiConfiguration;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.AgentContainerRepository;
+import io.hpp.noosphere.hub.repository.KeysetSlice;
 import io.hpp.noosphere.hub.service.AgentContainerService;
 import io.hpp.noosphere.hub.service.AgentService;
 import io.hpp.noosphere.hub.service.dto.AgentContainerDTO;
+import io.hpp.noosphere.hub.service.dto.BulkResultDTO;
 import io.hpp.noosphere.hub.service.dto.JsonViewType;
+import io.hpp.noosphere.hub.web.rest.errors.BadRequestAlertException;
+import io.hpp.noosphere.hub.web.rest.util.ETagUtil;
+import io.hpp.noosphere.hub.web.rest.util.KeysetPaginationUtil;
+import io.hpp.noosphere.hub.web.rest.util.SlicePaginationUtil;
+import io.hpp.noosphere.hub.web.rest.vm.BulkAgentContainerVm;
 import io.hpp.noosphere.hub.web.rest.vm.SearchAgentContainerVm;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.extensions.Extension;
 import io.swagger.v3.oas.annotations.extensions.ExtensionProperty;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,8 +35,8 @@ import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -38,10 +47,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -62,6 +72,7 @@ public class AgentContainerResource {
     private final AgentContainerService agentContainerService;
     private final AgentService agentService;
     private final IAuthenticationFacade authenticationFacade;
+    private final ApplicationProperties applicationProperties;
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
@@ -69,11 +80,13 @@ public class AgentContainerResource {
     public AgentContainerResource(
         AgentContainerService agentContainerService,
         AgentService agentService,
-        IAuthenticationFacade authenticationFacade
+        IAuthenticationFacade authenticationFacade,
+        ApplicationProperties applicationProperties
     ) {
         this.agentContainerService = agentContainerService;
         this.authenticationFacade = authenticationFacade;
         this.agentService = agentService;
+        this.applicationProperties = applicationProperties;
     }
 
     @Operation(summary = "Register Container")
@@ -120,16 +133,30 @@ public class AgentContainerResource {
     public ResponseEntity<List<AgentContainerDTO>> search(
         @PathVariable(value = "agentId", required = true) final UUID agentId,
         @RequestBody SearchAgentContainerVm searchVm,
+        @Parameter(description = "Keyset cursor, empty for the first slice") @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get a page of AgentContainers");
-        Page<AgentContainerDTO> page = agentContainerService.search(
+        if (KeysetPaginationUtil.isKeysetRequest(cursor)) {
+            KeysetSlice<AgentContainerDTO> slice = agentContainerService.scroll(
+                agentId,
+                searchVm.getContainerName(),
+                searchVm.getStatusCode(),
+                cursor,
+                pageable
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Slice<AgentContainerDTO> page = agentContainerService.search(
             agentId,
             searchVm.getContainerName(),
             searchVm.getStatusCode(),
+            JsonViewType.Shallow.class,
+            applicationProperties.getPagination().getAgentContainerSearch(),
             pageable
         );
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -138,9 +165,15 @@ public class AgentContainerResource {
     @JsonView(JsonViewType.Shallow.class)
     public ResponseEntity<AgentContainerDTO> getAgentContainer(
         @PathVariable(value = "agentId", required = true) final UUID agentId,
-        @PathVariable(value = "containerId", required = true) final UUID containerId
+        @PathVariable(value = "containerId", required = true) final UUID containerId,
+        ServletWebRequest request
     ) {
         LOG.debug("REST request to get Agent {}, Container {}", agentId, containerId);
+        // the agent and the container are serialized with the link, their updates change its entity tag too
+        Optional<String> eTag = agentContainerService.findVersions(agentId, containerId).map(ETagUtil::generateETag);
+        if (eTag.isPresent() && ETagUtil.checkNotModified(request, eTag.get())) {
+            return null;
+        }
         Optional<AgentContainerDTO> agentContainerDTO = agentContainerService.findOne(agentId, containerId);
         return ResponseUtil.wrapOrNotFound(agentContainerDTO);
     }
@@ -157,4 +190,86 @@ public class AgentContainerResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, containerId.toString()))
             .build();
     }
+
+    @Operation(summary = "Bulk Update Registered Container Status")
+    @ApiResponses(
+        {
+            @ApiResponse(
+                responseCode = "200",
+                content = @Content(
+                    schema = @Schema(implementation = BulkResultDTO.class),
+                    mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE
+                ),
+                description = "Successful operation"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Invalid input"
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Internal server error"
+            ),
+        }
+    )
+    @JsonView(JsonViewType.Shallow.class)
+    @PostMapping("/containers/bulk/status")
+    public ResponseEntity<BulkResultDTO> bulkUpdateStatus(@RequestBody BulkAgentContainerVm bulkAgentContainerVm)
+        throws PermissionDeniedException {
+        LOG.debug("REST request to update the status of AgentContainers : {}", bulkAgentContainerVm);
+        if (bulkAgentContainerVm.getStatusCode() == null) {
+            throw new BadRequestAlertException("A new status code is required", ENTITY_NAME, "statuscodenull");
+        }
+        Instant now = Instant.now();
+        long count = agentContainerService.bulkUpdateStatusCode(
+            agentService,
+            authenticationFacade.getUserId(),
+            bulkAgentContainerVm.getAgentIds(),
+            bulkAgentContainerVm.getContainerIds(),
+            bulkAgentContainerVm.getCurrentStatusCode(),
+            bulkAgentContainerVm.getStatusCode(),
+            now
+        );
+        return ResponseEntity.ok(new BulkResultDTO(count));
+    }
+
+    @Operation(summary = "Bulk Delete Registered Containers")
+    @ApiResponses(
+        {
+            @ApiResponse(
+                responseCode = "200",
+                content = @Content(
+                    schema = @Schema(implementation = BulkResultDTO.class),
+                    mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE
+                ),
+                description = "Successful operation"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Invalid input"
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Internal server error"
+            ),
+        }
+    )
+    @JsonView(JsonViewType.Shallow.class)
+    @PostMapping("/containers/bulk/delete")
+    public ResponseEntity<BulkResultDTO> bulkDelete(@RequestBody BulkAgentContainerVm bulkAgentContainerVm)
+        throws PermissionDeniedException {
+        LOG.debug("REST request to delete AgentContainers : {}", bulkAgentContainerVm);
+        long count = agentContainerService.bulkDelete(
+            agentService,
+            authenticationFacade.getUserId(),
+            bulkAgentContainerVm.getAgentIds(),
+            bulkAgentContainerVm.getContainerIds(),
+            bulkAgentContainerVm.getCurrentStatusCode()
+        );
+        return ResponseEntity.ok(new BulkResultDTO(count));
+    }
 }
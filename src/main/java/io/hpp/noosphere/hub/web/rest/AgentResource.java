@@ -1,16 +1,22 @@
 package io.hpp.noosphere.hub.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.config.OpenApiConfiguration;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.AgentRepository;
+import io.hpp.noosphere.hub.repository.KeysetSlice;
 import io.hpp.noosphere.hub.service.AgentService;
 import io.hpp.noosphere.hub.service.UserService;
 import io.hpp.noosphere.hub.service.dto.AgentDTO;
 import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.web.rest.errors.BadRequestAlertException;
+import io.hpp.noosphere.hub.web.rest.util.ETagUtil;
+import io.hpp.noosphere.hub.web.rest.util.KeysetPaginationUtil;
+import io.hpp.noosphere.hub.web.rest.util.SlicePaginationUtil;
 import io.hpp.noosphere.hub.web.rest.vm.SearchAgentVm;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.extensions.Extension;
 import io.swagger.v3.oas.annotations.extensions.ExtensionProperty;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -30,8 +36,8 @@ import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,10 +48,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -67,6 +74,7 @@ public class AgentResource {
     private final AgentService agentService;
     private final AgentRepository agentRepository;
     private final UserService userService;
+    private final ApplicationProperties applicationProperties;
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
@@ -75,12 +83,14 @@ public class AgentResource {
         AgentService agentService,
         AgentRepository agentRepository,
         UserService userService,
-        IAuthenticationFacade authenticationFacade
+        IAuthenticationFacade authenticationFacade,
+        ApplicationProperties applicationProperties
     ) {
         this.authenticationFacade = authenticationFacade;
         this.agentService = agentService;
         this.agentRepository = agentRepository;
         this.userService = userService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -142,6 +152,7 @@ public class AgentResource {
      * {@code POST  /agents/search} : search agents.
      *
      * @param searchVm the search criteria of the request.
+     * @param cursor   the keyset cursor, {@code null} for offset pagination.
      * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of agents in body.
      */
@@ -172,11 +183,30 @@ public class AgentResource {
     @JsonView(JsonViewType.Shallow.class)
     public ResponseEntity<List<AgentDTO>> search(
         @RequestBody SearchAgentVm searchVm,
+        @Parameter(description = "Keyset cursor, empty for the first slice") @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to search Agents");
-        Page<AgentDTO> page = agentService.search(searchVm.getName(), searchVm.getStatusCode(), searchVm.getCreatedByUserId(), pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (KeysetPaginationUtil.isKeysetRequest(cursor)) {
+            KeysetSlice<AgentDTO> slice = agentService.scroll(
+                searchVm.getName(),
+                searchVm.getStatusCode(),
+                searchVm.getCreatedByUserId(),
+                cursor,
+                pageable
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Slice<AgentDTO> page = agentService.search(
+            searchVm.getName(),
+            searchVm.getStatusCode(),
+            searchVm.getCreatedByUserId(),
+            JsonViewType.Shallow.class,
+            applicationProperties.getPagination().getAgentSearch(),
+            pageable
+        );
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -184,12 +214,18 @@ public class AgentResource {
      * {@code GET  /agents/:id} : get the "id" agent.
      *
      * @param id the id of the agentDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the agentDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request, conditional on the {@code ETag} of the agent with {@code If-None-Match}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the agentDTO, with status
+     * {@code 304 (Not Modified)} when the agent did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
     @JsonView(JsonViewType.Update.class)
-    public ResponseEntity<AgentDTO> getAgent(@PathVariable("id") UUID id) {
+    public ResponseEntity<AgentDTO> getAgent(@PathVariable("id") UUID id, ServletWebRequest request) {
         LOG.debug("REST request to get Agent : {}", id);
+        Optional<String> eTag = agentService.findVersion(id).map(ETagUtil::generateETag);
+        if (eTag.isPresent() && ETagUtil.checkNotModified(request, eTag.get())) {
+            return null;
+        }
         Optional<AgentDTO> agentDTO = agentService.findOne(id);
         return ResponseUtil.wrapOrNotFound(agentDTO);
     }
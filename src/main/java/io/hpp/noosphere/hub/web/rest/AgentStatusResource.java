@@ -1,6 +1,7 @@
 package io.hpp.noosphere.hub.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.exception.AgentNotFoundException;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.AgentRepository;
@@ -9,6 +10,9 @@ import io.hpp.noosphere.hub.service.AgentStatusService;
 import io.hpp.noosphere.hub.service.dto.AgentDTO;
 import io.hpp.noosphere.hub.service.dto.AgentStatusDTO;
 import io.hpp.noosphere.hub.service.dto.JsonViewType;
+import io.hpp.noosphere.hub.service.dto.KeepAliveResultDTO;
+import io.hpp.noosphere.hub.web.rest.errors.BadRequestAlertException;
+import io.hpp.noosphere.hub.web.rest.vm.KeepAliveVm;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -18,6 +22,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +33,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -41,13 +49,19 @@ public class AgentStatusResource {
     private static final String ENTITY_NAME = "agentStatus";
     private final AgentStatusService agentStatusService;
     private final IAuthenticationFacade authenticationFacade;
+    private final ApplicationProperties applicationProperties;
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
-    public AgentStatusResource(AgentStatusService agentStatusService, IAuthenticationFacade authenticationFacade) {
+    public AgentStatusResource(
+        AgentStatusService agentStatusService,
+        IAuthenticationFacade authenticationFacade,
+        ApplicationProperties applicationProperties
+    ) {
         this.agentStatusService = agentStatusService;
         this.authenticationFacade = authenticationFacade;
+        this.applicationProperties = applicationProperties;
     }
 
     @Tag(name = "Agent", description = "Agent Controller")
@@ -77,4 +91,57 @@ public class AgentStatusResource {
         agentStatusService.updateKeepAlive(authenticationFacade.getUserId(), agentId, now);
         return ResponseEntity.ok().build();
     }
+
+    @Tag(name = "Agent", description = "Agent Controller")
+    @Operation(summary = "Keep Alive Agents", description = "Keep alive several agents of the current user with one request")
+    @ApiResponses(
+        {
+            @ApiResponse(
+                responseCode = "200",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = KeepAliveResultDTO.class))
+                ),
+                description = "Successful operation"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Invalid input"
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Internal server error"
+            ),
+        }
+    )
+    @JsonView(JsonViewType.Shallow.class)
+    @PutMapping("/keep-alive")
+    public ResponseEntity<List<KeepAliveResultDTO>> keepAlives(@RequestBody List<KeepAliveVm> keepAliveVms) {
+        LOG.debug("REST request to keep alive {} agents", keepAliveVms.size());
+        if (keepAliveVms.isEmpty()) {
+            throw new BadRequestAlertException("No agent to keep alive", ENTITY_NAME, "empty");
+        }
+        if (keepAliveVms.size() > applicationProperties.getHeartbeat().getMaxBatchSize()) {
+            throw new BadRequestAlertException("Too many agents in one keep alive request", ENTITY_NAME, "batchtoolarge");
+        }
+
+        // an agent listed twice keeps its latest timestamp, a missing timestamp stands for the time of the request
+        Map<UUID, Instant> keepAlives = new LinkedHashMap<>();
+        for (KeepAliveVm keepAliveVm : keepAliveVms) {
+            if (keepAliveVm.getAgentId() == null) {
+                throw new BadRequestAlertException("Agent ID is required", ENTITY_NAME, "idnull");
+            }
+            UUID agentId = keepAliveVm.getAgentId();
+            Instant timestamp = keepAliveVm.getTimestamp();
+            Instant current = keepAlives.get(agentId);
+            if (!keepAlives.containsKey(agentId) || (current != null && (timestamp == null || timestamp.isAfter(current)))) {
+                keepAlives.put(agentId, timestamp);
+            }
+        }
+
+        Instant now = Instant.now();
+        return ResponseEntity.ok(agentStatusService.updateKeepAlives(authenticationFacade.getUserId(), keepAlives, now));
+    }
 }
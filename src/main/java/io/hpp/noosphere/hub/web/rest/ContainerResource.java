@@ -1,18 +1,28 @@
 package io.hpp.noosphere.hub.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
 import io.hpp.noosphere.hub.config.OpenApiConfiguration;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
 import io.hpp.noosphere.hub.exception.PermissionDeniedException;
 import io.hpp.noosphere.hub.repository.ContainerRepository;
+import io.hpp.noosphere.hub.repository.KeysetSlice;
 import io.hpp.noosphere.hub.service.ContainerService;
 import io.hpp.noosphere.hub.service.UserService;
 import io.hpp.noosphere.hub.service.dto.AgentDTO;
+import io.hpp.noosphere.hub.service.dto.BulkResultDTO;
+import io.hpp.noosphere.hub.service.dto.ContainerCatalogDTO;
 import io.hpp.noosphere.hub.service.dto.ContainerDTO;
 import io.hpp.noosphere.hub.service.dto.JsonViewType;
 import io.hpp.noosphere.hub.web.rest.errors.BadRequestAlertException;
+import io.hpp.noosphere.hub.web.rest.util.ETagUtil;
+import io.hpp.noosphere.hub.web.rest.util.KeysetPaginationUtil;
+import io.hpp.noosphere.hub.web.rest.util.SlicePaginationUtil;
+import io.hpp.noosphere.hub.web.rest.vm.BulkContainerVm;
 import io.hpp.noosphere.hub.web.rest.vm.SearchAgentVm;
 import io.hpp.noosphere.hub.web.rest.vm.SearchContainerVm;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.extensions.Extension;
 import io.swagger.v3.oas.annotations.extensions.ExtensionProperty;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -32,8 +42,8 @@ import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -44,10 +54,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -70,6 +81,7 @@ public class ContainerResource {
     private final ContainerRepository containerRepository;
 
     private final UserService userService;
+    private final ApplicationProperties applicationProperties;
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
@@ -78,12 +90,14 @@ public class ContainerResource {
         ContainerService containerService,
         ContainerRepository containerRepository,
         UserService userService,
-        IAuthenticationFacade authenticationFacade
+        IAuthenticationFacade authenticationFacade,
+        ApplicationProperties applicationProperties
     ) {
         this.containerService = containerService;
         this.containerRepository = containerRepository;
         this.authenticationFacade = authenticationFacade;
         this.userService = userService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -145,6 +159,7 @@ public class ContainerResource {
      * {@code POST  /containers/search} : search containers.
      *
      * @param searchVm the search criteria of the request.
+     * @param cursor   the keyset cursor, {@code null} for offset pagination.
      * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of containers in body.
      */
@@ -175,16 +190,83 @@ public class ContainerResource {
     @JsonView(JsonViewType.Update.class)
     public ResponseEntity<List<ContainerDTO>> search(
         @RequestBody SearchContainerVm searchVm,
+        @Parameter(description = "Keyset cursor, empty for the first slice") @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to search Containers");
-        Page<ContainerDTO> page = containerService.search(
+        if (KeysetPaginationUtil.isKeysetRequest(cursor)) {
+            KeysetSlice<ContainerDTO> slice = containerService.scroll(
+                searchVm.getName(),
+                searchVm.getStatusCode(),
+                searchVm.getCreatedByUserId(),
+                searchVm.getMinPrice(),
+                searchVm.getMaxPrice(),
+                searchVm.getParameters(),
+                cursor,
+                pageable
+            );
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Slice<ContainerDTO> page = containerService.search(
             searchVm.getName(),
             searchVm.getStatusCode(),
             searchVm.getCreatedByUserId(),
+            searchVm.getMinPrice(),
+            searchVm.getMaxPrice(),
+            searchVm.getParameters(),
+            JsonViewType.Update.class,
+            applicationProperties.getPagination().getContainerSearch(),
             pageable
         );
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /containers/catalog} : list the catalog of containers, with the live counts of the agents serving them.
+     * <p>
+     * Each container is one row of the catalog read model, without joining its agents. The slice is not counted.
+     *
+     * @param statusCode          the status of the containers, {@code ACTIVE} by default.
+     * @param minOnlineAgentCount the lowest number of online agents, inclusive.
+     * @param pageable            the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of catalog rows in body.
+     */
+    @GetMapping("/catalog")
+    @Operation(summary = "List Container Catalog")
+    @ApiResponses(
+        {
+            @ApiResponse(
+                responseCode = "200",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ContainerCatalogDTO.class))
+                ),
+                description = "Successful operation"
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Internal server error"
+            ),
+        }
+    )
+    @JsonView(JsonViewType.Shallow.class)
+    public ResponseEntity<List<ContainerCatalogDTO>> getCatalog(
+        @Parameter(description = "Container Status Code") @RequestParam(
+            value = "statusCode",
+            defaultValue = "ACTIVE"
+        ) StatusCode statusCode,
+        @Parameter(description = "Lowest number of online agents, inclusive") @RequestParam(
+            value = "minOnlineAgentCount",
+            required = false
+        ) Integer minOnlineAgentCount,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get the Container catalog");
+        Slice<ContainerCatalogDTO> page = containerService.catalog(statusCode, minOnlineAgentCount, pageable, Instant.now());
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -192,12 +274,18 @@ public class ContainerResource {
      * {@code GET  /containers/:id} : get the "id" container.
      *
      * @param id the id of the containerDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the containerDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request, conditional on the {@code ETag} of the container with {@code If-None-Match}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the containerDTO, with status
+     * {@code 304 (Not Modified)} when the container did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
     @JsonView(JsonViewType.Update.class)
-    public ResponseEntity<ContainerDTO> getContainer(@PathVariable("id") UUID id) {
+    public ResponseEntity<ContainerDTO> getContainer(@PathVariable("id") UUID id, ServletWebRequest request) {
         LOG.debug("REST request to get Container : {}", id);
+        Optional<String> eTag = containerService.findVersion(id).map(ETagUtil::generateETag);
+        if (eTag.isPresent() && ETagUtil.checkNotModified(request, eTag.get())) {
+            return null;
+        }
         Optional<ContainerDTO> containerDTO = containerService.findOne(id);
         return ResponseUtil.wrapOrNotFound(containerDTO);
     }
@@ -216,4 +304,98 @@ public class ContainerResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code POST  /containers/bulk/status} : change the status of the containers of the current user selected by ids, or
+     * by filters when no ids are given.
+     *
+     * @param bulkContainerVm the containers and their new status.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of updated containers in body.
+     */
+    @Operation(summary = "Bulk Update Container Status")
+    @ApiResponses(
+        {
+            @ApiResponse(
+                responseCode = "200",
+                content = @Content(
+                    schema = @Schema(implementation = BulkResultDTO.class),
+                    mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE
+                ),
+                description = "Successful operation"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Invalid input"
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Internal server error"
+            ),
+        }
+    )
+    @JsonView(JsonViewType.Shallow.class)
+    @PostMapping("/bulk/status")
+    public ResponseEntity<BulkResultDTO> bulkUpdateStatus(@RequestBody BulkContainerVm bulkContainerVm)
+        throws PermissionDeniedException {
+        LOG.debug("REST request to update the status of Containers : {}", bulkContainerVm);
+        if (bulkContainerVm.getStatusCode() == null) {
+            throw new BadRequestAlertException("A new status code is required", ENTITY_NAME, "statuscodenull");
+        }
+        Instant now = Instant.now();
+        long count = containerService.bulkUpdateStatusCode(
+            authenticationFacade.getUserId(),
+            bulkContainerVm.getIds(),
+            bulkContainerVm.getName(),
+            bulkContainerVm.getCurrentStatusCode(),
+            bulkContainerVm.getStatusCode(),
+            now
+        );
+        return ResponseEntity.ok(new BulkResultDTO(count));
+    }
+
+    /**
+     * {@code POST  /containers/bulk/delete} : delete the containers of the current user selected by ids, or by filters
+     * when no ids are given, with their agent containers. Containers linked to agents of other users are kept.
+     *
+     * @param bulkContainerVm the containers.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of deleted containers, and the ids of
+     * the kept ones, in body.
+     */
+    @Operation(summary = "Bulk Delete Containers")
+    @ApiResponses(
+        {
+            @ApiResponse(
+                responseCode = "200",
+                content = @Content(
+                    schema = @Schema(implementation = BulkResultDTO.class),
+                    mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE
+                ),
+                description = "Successful operation"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Invalid input"
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_UTF8_VALUE),
+                description = "Internal server error"
+            ),
+        }
+    )
+    @JsonView(JsonViewType.Shallow.class)
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResultDTO> bulkDelete(@RequestBody BulkContainerVm bulkContainerVm) throws PermissionDeniedException {
+        LOG.debug("REST request to delete Containers : {}", bulkContainerVm);
+        BulkResultDTO result = containerService.bulkDelete(
+            authenticationFacade.getUserId(),
+            bulkContainerVm.getIds(),
+            bulkContainerVm.getName(),
+            bulkContainerVm.getCurrentStatusCode()
+        );
+        return ResponseEntity.ok(result);
+    }
 }
@@ -0,0 +1,62 @@
+package io.hpp.noosphere.hub.web.rest.util;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Utility class for conditional GETs of entities, which have no {@code @Version}.
+ * <p>
+ * The strong entity tag of a resource is made of the version stamps of the entities it is serialized from, the time of
+ * their last update. A matching {@code If-None-Match} is answered with {@code 304 (Not Modified)} once the stamps are read,
+ * before the entities are loaded and mapped.
+ * <p>
+ * The stamps must cover every entity of the serialized view: a conditional GET of a view serializing an association
+ * whose stamp is not part of the tag would answer {@code 304} after the association changed. The views of agents and
+ * containers only serialize their own columns, the view of an agent container serializes its agent and its container.
+ */
+public final class ETagUtil {
+
+    /**
+     * Clients may store the responses as long as they revalidate them, instead of the {@code no-store} of Spring Security.
+     */
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ETagUtil() {}
+
+    public static String generateETag(Instant version) {
+        return generateETag(List.of(version));
+    }
+
+    /**
+     * @param versions the version stamps of the entities of a resource, in a fixed order.
+     * @return the quoted entity tag, e.g. {@code "6182a3c1d2e40-6182a3c1d2e41"}.
+     */
+    public static String generateETag(Collection<Instant> versions) {
+        // the timestamp columns keep microseconds, a stamp read from memory is truncated to match the one read from the database
+        return versions
+            .stream()
+            .map(version -> Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, version)))
+            .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    /**
+     * Check the {@code If-None-Match} header of a GET against the entity tag of the resource. The {@code ETag} and
+     * {@code Cache-Control} headers are set on the response in any case.
+     *
+     * @param request the current request.
+     * @param eTag    the entity tag of the resource.
+     * @return {@code true} when the response status was set to {@code 304 (Not Modified)}: the handler returns {@code null}.
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String eTag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(eTag);
+    }
+}
@@ -0,0 +1,44 @@
+package io.hpp.noosphere.hub.web.rest.util;
+
+import io.hpp.noosphere.hub.repository.KeysetSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination, the counterpart of {@link tech.jhipster.web.util.PaginationUtil} for
+ * {@link KeysetSlice}.
+ * <p>
+ * The cursor of the next slice is returned in the {@code X-Next-Cursor} header and as a {@code rel="next"} link. Both are
+ * absent on the last slice.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+    public static final String HEADER_X_NEXT_CURSOR = "X-Next-Cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Whether a request asks for keyset pagination, which it does by sending a {@code cursor} parameter, empty for the
+     * first slice.
+     *
+     * @param cursor the value of the {@code cursor} request parameter.
+     * @return {@code true} for keyset pagination, {@code false} for offset pagination.
+     */
+    public static boolean isKeysetRequest(String cursor) {
+        return cursor != null;
+    }
+
+    public static <T> HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.getNextCursor() != null) {
+            headers.add(HEADER_X_NEXT_CURSOR, slice.getNextCursor());
+            String link = uriBuilder
+                .replaceQueryParam(CURSOR_PARAMETER, slice.getNextCursor())
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
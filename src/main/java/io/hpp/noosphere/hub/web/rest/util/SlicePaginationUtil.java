@@ -0,0 +1,55 @@
+package io.hpp.noosphere.hub.web.rest.util;
+
+import java.text.MessageFormat;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for handling pagination of results that may not be counted.
+ * <p>
+ * A {@link Page} gets the usual {@code X-Total-Count} and {@code Link} headers of {@link PaginationUtil}. A plain
+ * {@link Slice} gets {@code X-Has-Next-Page} and {@code next}/{@code prev} links only.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String HEADER_X_HAS_NEXT_PAGE = "X-Has-Next-Page";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private SlicePaginationUtil() {}
+
+    public static <T> HttpHeaders generatePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        if (slice instanceof Page<T> page) {
+            return PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next"));
+        }
+        if (slice.hasPrevious()) {
+            if (!link.isEmpty()) {
+                link.append(",");
+            }
+            link.append(prepareLink(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev"));
+        }
+        if (!link.isEmpty()) {
+            headers.add(HttpHeaders.LINK, link.toString());
+        }
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+}
@@ -0,0 +1,22 @@
+package io.hpp.noosphere.hub.web.rest.vm;
+
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.List;
+import java.util.UUID;
+import lombok.Data;
+
+@Data
+@Schema
+public class BulkAgentContainerVm {
+
+    @Schema(description = "Agent IDs, all the agents of the current user when omitted", requiredMode = RequiredMode.NOT_REQUIRED)
+    private List<UUID> agentIds;
+    @Schema(description = "Container IDs, any container when omitted", requiredMode = RequiredMode.NOT_REQUIRED)
+    private List<UUID> containerIds;
+    @Schema(description = "Current Agent Container Status Code", requiredMode = RequiredMode.NOT_REQUIRED)
+    private StatusCode currentStatusCode;
+    @Schema(description = "New Agent Container Status Code, required by the status update", requiredMode = RequiredMode.NOT_REQUIRED)
+    private StatusCode statusCode;
+}
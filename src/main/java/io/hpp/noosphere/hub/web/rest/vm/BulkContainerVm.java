@@ -0,0 +1,25 @@
+package io.hpp.noosphere.hub.web.rest.vm;
+
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.List;
+import java.util.UUID;
+import lombok.Data;
+
+@Data
+@Schema
+public class BulkContainerVm {
+
+    @Schema(
+        description = "Container IDs, all the matching containers of the current user when omitted",
+        requiredMode = RequiredMode.NOT_REQUIRED
+    )
+    private List<UUID> ids;
+    @Schema(description = "Container Name", requiredMode = RequiredMode.NOT_REQUIRED)
+    private String name;
+    @Schema(description = "Current Container Status Code", requiredMode = RequiredMode.NOT_REQUIRED)
+    private StatusCode currentStatusCode;
+    @Schema(description = "New Container Status Code, required by the status update", requiredMode = RequiredMode.NOT_REQUIRED)
+    private StatusCode statusCode;
+}
@@ -0,0 +1,17 @@
+package io.hpp.noosphere.hub.web.rest.vm;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Data;
+
+@Data
+@Schema
+public class KeepAliveVm {
+
+    @Schema(description = "Agent ID", requiredMode = RequiredMode.REQUIRED)
+    private UUID agentId;
+    @Schema(description = "Keep Alive Timestamp, defaults to the time the request is received", requiredMode = RequiredMode.NOT_REQUIRED)
+    private Instant timestamp;
+}
@@ -3,6 +3,8 @@ package io.hpp.noosphere.hub.web.rest.vm;
 import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.math.BigDecimal;
+import java.util.Map;
 import lombok.Data;
 
 @Data
@@ -15,4 +17,14 @@ public class SearchContainerVm {
     private StatusCode statusCode;
     @Schema(description = "Created By User Id", requiredMode = RequiredMode.NOT_REQUIRED)
     private String createdByUserId;
+    @Schema(description = "Lowest Container Price, inclusive", requiredMode = RequiredMode.NOT_REQUIRED)
+    private BigDecimal minPrice;
+    @Schema(description = "Highest Container Price, inclusive", requiredMode = RequiredMode.NOT_REQUIRED)
+    private BigDecimal maxPrice;
+    @Schema(
+        description = "Container Parameter values by key, one of model, gpuClass or maxTokens",
+        example = "{\"model\": \"llama-3-8b\", \"gpuClass\": \"A100\"}",
+        requiredMode = RequiredMode.NOT_REQUIRED
+    )
+    private Map<String, String> parameters;
 }
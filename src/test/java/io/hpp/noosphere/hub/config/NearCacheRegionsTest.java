@@ -0,0 +1,65 @@
+package io.hpp.noosphere.hub.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.LifecycleService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.nearcache.NearCacheStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NearCacheRegionsTest {
+
+    private static final String CONTAINER_REGION = "io.hpp.noosphere.hub.domain.Container";
+
+    private HazelcastInstance hazelcastInstance;
+    private IMap<Object, Object> map;
+    private NearCacheStats nearCacheStats;
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        hazelcastInstance = mock(HazelcastInstance.class);
+        LifecycleService lifecycleService = mock(LifecycleService.class);
+        when(lifecycleService.isRunning()).thenReturn(true);
+        when(hazelcastInstance.getLifecycleService()).thenReturn(lifecycleService);
+        map = mock(IMap.class);
+        when(hazelcastInstance.getMap(CONTAINER_REGION)).thenReturn(map);
+        LocalMapStats localMapStats = mock(LocalMapStats.class);
+        nearCacheStats = mock(NearCacheStats.class);
+        when(map.getLocalMapStats()).thenReturn(localMapStats);
+        when(localMapStats.getNearCacheStats()).thenReturn(nearCacheStats);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getNearCache().getRegions().put("Container", new ApplicationProperties.NearCache.Region());
+    }
+
+    @Test
+    void publishesTheHitRatioOfEachRegion() {
+        when(nearCacheStats.getHits()).thenReturn(3L);
+        when(nearCacheStats.getMisses()).thenReturn(1L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new NearCacheRegions(hazelcastInstance, applicationProperties).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("noosphere.cache.near.hit.ratio").tag("region", CONTAINER_REGION).gauge().value()).isEqualTo(0.75);
+        assertThat(meterRegistry.get("noosphere.cache.near.hits").tag("region", CONTAINER_REGION).functionCounter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void preloadsUpToTheMaxSize() {
+        applicationProperties.getNearCache().getRegions().get("Container").setPreload(true);
+        applicationProperties.getNearCache().getRegions().get("Container").setMaxSize(1);
+        when(map.iterator(1)).thenReturn(Map.<Object, Object>of("a", 1, "b", 2).entrySet().iterator());
+
+        new NearCacheRegions(hazelcastInstance, applicationProperties).preload();
+
+        verify(map).getAll(argThat((Set<Object> keys) -> keys.size() == 1));
+    }
+}
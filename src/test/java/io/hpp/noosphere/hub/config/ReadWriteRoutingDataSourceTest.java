@@ -0,0 +1,95 @@
+package io.hpp.noosphere.hub.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource writeDataSource;
+    private DataSource readDataSource;
+    private Connection writeConnection;
+    private Connection readConnection;
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        writeDataSource = mock(DataSource.class);
+        readDataSource = mock(DataSource.class);
+        writeConnection = mock(Connection.class);
+        readConnection = mock(Connection.class);
+        when(writeDataSource.getConnection()).thenReturn(writeConnection);
+        when(readDataSource.getConnection()).thenReturn(readConnection);
+        routingDataSource = new ReadWriteRoutingDataSource(writeDataSource, readDataSource, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readWriteTransactionsUseTheWritePool() throws SQLException {
+        assertThat(routingDataSource.getConnection()).isSameAs(writeConnection);
+        verifyNoInteractions(readDataSource);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReadPool() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(readConnection);
+        verifyNoInteractions(writeDataSource);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheWritePoolWhileTheReadPoolIsUnavailable() throws SQLException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        routingDataSource.bindTo(meterRegistry);
+        // Hikari reports the last connection failure as the cause of its acquisition timeout
+        when(readDataSource.getConnection()).thenThrow(
+            new SQLTransientConnectionException(
+                "HikariRead - Connection is not available, request timed out after 30000ms.",
+                "08S01",
+                new SQLNonTransientConnectionException("Communications link failure", "08S01")
+            )
+        );
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(writeConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(writeConnection);
+
+        // the read pool is not asked again before the retry interval has elapsed
+        verify(readDataSource, times(1)).getConnection();
+        assertThat(meterRegistry.get("noosphere.datasource.read.fallbacks").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionsWaitForAnExhaustedReadPool() throws SQLException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        routingDataSource.bindTo(meterRegistry);
+        SQLTransientConnectionException timeout = new SQLTransientConnectionException(
+            "HikariRead - Connection is not available, request timed out after 30000ms."
+        );
+        when(readDataSource.getConnection()).thenThrow(timeout).thenReturn(readConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThatThrownBy(routingDataSource::getConnection).isSameAs(timeout);
+        // the next read-only transaction tries the read pool again, the write pool is never used for reads
+        assertThat(routingDataSource.getConnection()).isSameAs(readConnection);
+        verifyNoInteractions(writeDataSource);
+        assertThat(meterRegistry.get("noosphere.datasource.read.fallbacks").functionCounter().count()).isZero();
+    }
+}
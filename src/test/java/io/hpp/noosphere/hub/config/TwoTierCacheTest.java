@@ -0,0 +1,91 @@
+package io.hpp.noosphere.hub.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class TwoTierCacheTest {
+
+    private ConcurrentMapCache cluster;
+    private List<Object> invalidations;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cluster = new ConcurrentMapCache("users");
+        invalidations = new ArrayList<>();
+        cache = new TwoTierCache(
+            cluster,
+            Caffeine.newBuilder().<Object, Cache.ValueWrapper>build(),
+            new DefaultSerializationServiceBuilder().build(),
+            invalidations::add
+        );
+    }
+
+    @Test
+    void servesClusterHitsFromTheLocalTier() {
+        cluster.put("a", "1");
+        assertThat(cache.get("a", String.class)).isEqualTo("1");
+
+        cluster.put("a", "2");
+
+        assertThat(cache.get("a", String.class)).isEqualTo("1");
+        assertThat(invalidations).isEmpty();
+    }
+
+    @Test
+    void writesBothTiersAndPublishesTheKey() {
+        cache.put("a", "1");
+        cache.evict("b");
+        cache.clear();
+
+        assertThat(cluster.get("a")).isNull();
+        assertThat(invalidations).containsExactly("a", "b", null);
+    }
+
+    @Test
+    void dropsTheLocalCopyOnInvalidation() {
+        cache.put("a", "1");
+        cluster.put("a", "2");
+
+        cache.invalidateLocal("a");
+
+        assertThat(cache.get("a", String.class)).isEqualTo("2");
+    }
+
+    @Test
+    void loadsOnceThroughBothTiers() {
+        assertThat(cache.get("a", () -> "1")).isEqualTo("1");
+        assertThat(cache.get("a", () -> "2")).isEqualTo("1");
+        assertThat(cluster.get("a", String.class)).isEqualTo("1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handsOutACopyOfMutableValues() {
+        cache.put("a", new ArrayList<>(List.of("1")));
+
+        List<String> first = cache.get("a", List.class);
+        first.add("2");
+
+        assertThat(cache.get("a", List.class)).containsExactly("1").isNotSameAs(first);
+        assertThat(cache.get("a", () -> List.of())).isEqualTo(List.of("1"));
+    }
+
+    @Test
+    void sharesImmutableValues() {
+        Owner owner = new Owner("user");
+        cache.put("a", owner);
+
+        assertThat(cache.get("a", Owner.class)).isSameAs(owner);
+    }
+
+    private record Owner(String userId) {}
+}
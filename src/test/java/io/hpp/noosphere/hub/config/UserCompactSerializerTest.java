@@ -0,0 +1,68 @@
+package io.hpp.noosphere.hub.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.SerializationServiceSupport;
+import io.hpp.noosphere.hub.domain.Authority;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.security.ApiKeyDigest;
+import io.hpp.noosphere.hub.security.AuthoritiesConstants;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class UserCompactSerializerTest {
+
+    private static HazelcastInstance hazelcastInstance;
+    private static SerializationService serializationService;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config();
+        config.setClusterName("user-compact-serializer-test");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        CacheConfiguration.initializeSerializationConfig(config.getSerializationConfig());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        serializationService = ((SerializationServiceSupport) hazelcastInstance).getSerializationService();
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    void roundTripsACachedUser() {
+        User user = new User();
+        user.setId("user-compact-serializer");
+        user.setLogin("compact");
+        user.setEmail("compact@localhost");
+        user.setActivated(true);
+        user.setApiKey("compact-api-key");
+        Set<Authority> authorities = new HashSet<>();
+        authorities.add(new Authority().name(AuthoritiesConstants.USER).setIsPersisted());
+        user.setAuthorities(authorities);
+        user.setCreatedDate(Instant.parse("2026-06-01T12:30:00.123456Z"));
+        user.setLastModifiedDate(null);
+
+        User copy = serializationService.toObject(serializationService.toData(user));
+
+        assertThat(copy).isNotSameAs(user).isEqualTo(user);
+        assertThat(copy.getLogin()).isEqualTo("compact");
+        assertThat(copy.isActivated()).isTrue();
+        assertThat(copy.getApiKeyHash()).isEqualTo(ApiKeyDigest.digest("compact-api-key"));
+        assertThat(copy.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+        assertThat(copy.getAuthorities()).allMatch(authority -> !authority.isNew());
+        assertThat(copy.getCreatedDate()).isEqualTo(user.getCreatedDate());
+        assertThat(copy.getLastModifiedDate()).isNull();
+        assertThat(copy.getFirstName()).isNull();
+    }
+}
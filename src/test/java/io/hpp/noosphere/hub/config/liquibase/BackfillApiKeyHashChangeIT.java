@@ -0,0 +1,155 @@
+package io.hpp.noosphere.hub.config.liquibase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.repository.UserRepository;
+import io.hpp.noosphere.hub.security.ApiKeyDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import javax.sql.DataSource;
+import liquibase.changelog.ChangeLogParameters;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.parser.ChangeLogParserFactory;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import liquibase.resource.ResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Runs the backfill of changeset {@code 20261018000002} on users written before it: their plaintext API keys are stored
+ * without digest, as right after the {@code api_key_hash} column was added.
+ * <p>
+ * The backfill commits its batches, so the users are written and deleted outside of the test transaction.
+ */
+@IntegrationTest
+class BackfillApiKeyHashChangeIT {
+
+    private static final String CHANGELOG = "config/liquibase/changelog/20261018000002_added_api_key_hash_User.xml";
+    private static final String USER_ID_PREFIX = "backfill-api-key-hash-";
+    private static final List<String> LEGACY_API_KEYS = List.of("legacy-api-key-1", "legacy-api-key-2", "legacy-api-key-3");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement insert = connection.prepareStatement(
+                "insert into jhi_user (id, login, email, activated, created_by, api_key, api_key_hash) " +
+                "values (?, ?, ?, true, 'system', ?, ?)"
+            )
+        ) {
+            connection.setAutoCommit(true);
+            for (String apiKey : LEGACY_API_KEYS) {
+                insert.setString(1, USER_ID_PREFIX + apiKey);
+                insert.setString(2, USER_ID_PREFIX + apiKey);
+                insert.setString(3, USER_ID_PREFIX + apiKey + "@localhost");
+                insert.setString(4, apiKey);
+                insert.setBytes(5, null);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement delete = connection.prepareStatement("delete from jhi_user where id like ?")
+        ) {
+            connection.setAutoCommit(true);
+            delete.setString(1, USER_ID_PREFIX + "%");
+            delete.executeUpdate();
+        }
+    }
+
+    @Test
+    void hashesThePlaintextKeysOfTheChangeset() throws Exception {
+        for (String apiKey : LEGACY_API_KEYS) {
+            assertThat(userRepository.findOneByApiKey(apiKey, null)).isEmpty();
+        }
+
+        runBackfillChangeSet();
+
+        for (String apiKey : LEGACY_API_KEYS) {
+            assertThat(apiKeyHash(USER_ID_PREFIX + apiKey)).isEqualTo(ApiKeyDigest.digest(apiKey));
+            assertThat(userRepository.findOneByApiKey(apiKey, null)).map(User::getId).hasValue(USER_ID_PREFIX + apiKey);
+        }
+    }
+
+    @Test
+    void hashesEveryBatch() throws Exception {
+        BackfillApiKeyHashChange change = new BackfillApiKeyHashChange();
+        change.setBatchSize(1);
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            assertThat(change.validate(database).hasErrors()).isFalse();
+            change.execute(database);
+        }
+
+        for (String apiKey : LEGACY_API_KEYS) {
+            assertThat(apiKeyHash(USER_ID_PREFIX + apiKey)).isEqualTo(ApiKeyDigest.digest(apiKey));
+        }
+    }
+
+    @Test
+    void confirmsTheKeyOfTheUserFoundByDigest() throws Exception {
+        runBackfillChangeSet();
+        String apiKey = LEGACY_API_KEYS.get(0);
+        // the stored key no longer matches its digest, as if the digest collided with the presented key
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement update = connection.prepareStatement("update jhi_user set api_key = ? where id = ?")
+        ) {
+            connection.setAutoCommit(true);
+            update.setString(1, apiKey + "-rotated");
+            update.setString(2, USER_ID_PREFIX + apiKey);
+            update.executeUpdate();
+        }
+
+        assertThat(userRepository.findOneByApiKey(apiKey, null)).isEmpty();
+        assertThat(userRepository.findOneByApiKey(LEGACY_API_KEYS.get(1), null)).isPresent();
+    }
+
+    private void runBackfillChangeSet() throws Exception {
+        ResourceAccessor resourceAccessor = new ClassLoaderResourceAccessor();
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            DatabaseChangeLog changeLog = ChangeLogParserFactory.getInstance()
+                .getParser(CHANGELOG, resourceAccessor)
+                .parse(CHANGELOG, new ChangeLogParameters(database), resourceAccessor);
+            ChangeSet changeSet = changeLog.getChangeSet(CHANGELOG, "jungsoo", "20261018000002-2");
+            assertThat(changeSet).isNotNull();
+            changeSet.execute(changeLog, database);
+            database.commit();
+        }
+    }
+
+    private byte[] apiKeyHash(String userId) throws SQLException {
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement select = connection.prepareStatement("select api_key_hash from jhi_user where id = ?")
+        ) {
+            select.setString(1, userId);
+            try (ResultSet resultSet = select.executeQuery()) {
+                assertThat(resultSet.next()).isTrue();
+                return resultSet.getBytes(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.hpp.noosphere.hub.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void generatesVersion7Uuids() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.generate();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void generatesIncreasingUuids() {
+        UUID previous = UuidV7Generator.generate();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7Generator.generate();
+            // binary(16) columns compare the bytes unsigned, as the string forms compare
+            assertThat(next.toString()).isGreaterThan(previous.toString());
+            previous = next;
+        }
+    }
+
+    @Test
+    void toBytesIsBigEndian() {
+        UUID uuid = UUID.fromString("0190f1a2-b3c4-7d5e-8f60-718293a4b5c6");
+
+        ByteBuffer bytes = ByteBuffer.wrap(UuidV7Generator.toBytes(uuid));
+
+        assertThat(bytes.capacity()).isEqualTo(16);
+        assertThat(new UUID(bytes.getLong(), bytes.getLong())).isEqualTo(uuid);
+    }
+}
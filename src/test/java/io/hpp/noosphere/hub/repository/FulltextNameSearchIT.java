@@ -0,0 +1,193 @@
+package io.hpp.noosphere.hub.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.QAgent;
+import io.hpp.noosphere.hub.domain.QContainer;
+import io.hpp.noosphere.hub.domain.QUser;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the name filters of the agent, container and user searches on the MySQL ngram full-text indexes, and compares
+ * their rows with the ones of a plain {@code like}.
+ * <p>
+ * A full-text index only sees committed rows, so the names are written and deleted outside of any test transaction.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.name-search.backend=FULLTEXT")
+class FulltextNameSearchIT {
+
+    private static final String USER_ID_PREFIX = "fulltext-name-search-";
+    private static final List<String> NAMES = List.of("Alpha Agent", "Data Pipeline", "Vision-AI Worker", "mini bot", "Kiwi", "Ai");
+    /**
+     * Terms of one character, which fall back to like, of two characters, a single ngram, and longer phrases. The letters
+     * a and i are in the default stopword list, which the ngram indexes must not apply.
+     */
+    private static final List<String> TERMS = List.of(
+        "a",
+        "i",
+        "ai",
+        "AI",
+        "ki",
+        "pipe",
+        "ta pi",
+        "alpha agent",
+        "n-a",
+        "al\"pha",
+        "zq"
+    );
+    private static final Pageable PAGEABLE = Pageable.ofSize(1000);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JPAQueryFactory jpaQueryFactory;
+
+    @Autowired
+    private NameSearchIndex nameSearchIndex;
+
+    @Autowired
+    private AgentRepository agentRepository;
+
+    @Autowired
+    private ContainerRepository containerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private final Map<UUID, String> agentNames = new HashMap<>();
+    private final Map<UUID, String> containerNames = new HashMap<>();
+    private final Map<String, String> userNames = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            for (int i = 0; i < NAMES.size(); i++) {
+                String name = NAMES.get(i);
+                // a user owns a single agent and a single container
+                User user = new User();
+                user.setId(USER_ID_PREFIX + i);
+                user.setLogin(USER_ID_PREFIX + i);
+                user.setName(name);
+                user.setEmail(USER_ID_PREFIX + i + "@localhost");
+                user.setActivated(true);
+                user.setCreatedBy("system");
+                em.persist(user);
+                Agent agent = new Agent();
+                agent.setName(name);
+                agent.setApiUrl("http://localhost/" + USER_ID_PREFIX + i);
+                agent.setApiKey(USER_ID_PREFIX + i);
+                agent.setStatusCode(StatusCode.ACTIVE);
+                agent.setCreatedAt(now);
+                agent.setCreatedByUser(user);
+                em.persist(agent);
+                Container container = new Container();
+                container.setName(name);
+                container.setWalletAddress("0x0");
+                container.setPrice(BigDecimal.TEN);
+                container.setStatusCode(StatusCode.ACTIVE);
+                container.setParameters("{}");
+                container.setCreatedAt(now);
+                container.setCreatedByUser(user);
+                em.persist(container);
+                userNames.put(user.getId(), name);
+                agentNames.put(agent.getId(), name);
+                containerNames.put(container.getId(), name);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Agent a where a.id in :ids").setParameter("ids", agentNames.keySet()).executeUpdate();
+            em.createQuery("delete from Container c where c.id in :ids").setParameter("ids", containerNames.keySet()).executeUpdate();
+            em.createQuery("delete from User u where u.id in :ids").setParameter("ids", userNames.keySet()).executeUpdate();
+        });
+    }
+
+    @Test
+    void searchesTheFullTextIndexes() {
+        assertThat(nameSearchIndex).isInstanceOf(FulltextNameSearchIndex.class);
+    }
+
+    @Test
+    void findsTheAgentsALikeFinds() {
+        QAgent qAgent = QAgent.agent;
+        for (String term : TERMS) {
+            List<UUID> found = agentRepository.search(term, null, null, PAGEABLE).map(Agent::getId).getContent();
+            List<UUID> liked = jpaQueryFactory.select(qAgent.id).from(qAgent).where(qAgent.name.containsIgnoreCase(term)).fetch();
+
+            assertThat(found).as(term).containsExactlyInAnyOrderElementsOf(liked).containsAll(matching(agentNames, term));
+        }
+    }
+
+    @Test
+    void findsTheContainersALikeFinds() {
+        QContainer qContainer = QContainer.container;
+        for (String term : TERMS) {
+            List<UUID> found = containerRepository.search(term, null, null, PAGEABLE).map(Container::getId).getContent();
+            List<UUID> liked = jpaQueryFactory
+                .select(qContainer.id)
+                .from(qContainer)
+                .where(qContainer.name.containsIgnoreCase(term))
+                .fetch();
+
+            assertThat(found).as(term).containsExactlyInAnyOrderElementsOf(liked).containsAll(matching(containerNames, term));
+        }
+    }
+
+    @Test
+    void findsTheUsersALikeFinds() {
+        QUser qUser = QUser.user;
+        for (String term : TERMS) {
+            List<String> found = userRepository.search(term, null, PAGEABLE).map(User::getId).getContent();
+            List<String> liked = jpaQueryFactory.select(qUser.id).from(qUser).where(qUser.name.containsIgnoreCase(term)).fetch();
+
+            assertThat(found).as(term).containsExactlyInAnyOrderElementsOf(liked).containsAll(matching(userNames, term));
+        }
+    }
+
+    /**
+     * The ids of the names written by the test which contain {@code term}, so that no comparison is between two empty
+     * results only.
+     */
+    private static <K> List<K> matching(Map<K, String> names, String term) {
+        List<K> ids = new ArrayList<>();
+        names.forEach((id, name) -> {
+            if (name.toLowerCase(Locale.ROOT).contains(term.toLowerCase(Locale.ROOT))) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+}
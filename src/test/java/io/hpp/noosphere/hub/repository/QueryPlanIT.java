@@ -0,0 +1,522 @@
+package io.hpp.noosphere.hub.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentContainer;
+import io.hpp.noosphere.hub.domain.AgentStatus;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
+import jakarta.persistence.EntityManager;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs {@code EXPLAIN} on every statement issued by the custom repository queries, with the parameters they were bound
+ * with, and fails when a table is read with a full scan.
+ * <p>
+ * The optimizer prefers scanning a table of a few rows to any index, so each table is first filled with committed rows
+ * and analyzed. Most of the filler agents and containers are INACTIVE and all their keep-alives are recent, as in a fleet
+ * where the rows matching the ACTIVE filters or the liveness cutoff are the few ones.
+ */
+@IntegrationTest
+@Import(QueryPlanIT.StatementRecorder.class)
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIT {
+
+    private static final Pageable PAGEABLE = Pageable.ofSize(10);
+    private static final int FILLER_ROWS = 300;
+    private static final String FILLER_PREFIX = "query-plan-filler-";
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private AgentRepository agentRepository;
+
+    @Autowired
+    private ContainerRepository containerRepository;
+
+    @Autowired
+    private AgentContainerRepository agentContainerRepository;
+
+    @Autowired
+    private AgentStatusRepository agentStatusRepository;
+
+    @Autowired
+    private ContainerCatalogRepository containerCatalogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<UUID> fillerAgentIds = new ArrayList<>();
+    private final List<UUID> fillerContainerIds = new ArrayList<>();
+    private User user;
+    private Agent agent;
+    private Container container;
+
+    @BeforeAll
+    void fillTables() throws SQLException {
+        Instant now = Instant.now();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < FILLER_ROWS; i++) {
+                String name = FILLER_PREFIX + i;
+                StatusCode statusCode = i % 10 == 0 ? StatusCode.ACTIVE : StatusCode.INACTIVE;
+                // a user owns a single agent and a single container
+                User filler = new User();
+                filler.setId(name);
+                filler.setLogin(name);
+                filler.setEmail(name + "@localhost");
+                filler.setActivated(true);
+                filler.setCreatedBy("system");
+                em.persist(filler);
+
+                Agent fillerAgent = new Agent();
+                fillerAgent.setName(name);
+                fillerAgent.setApiUrl("http://localhost/" + name);
+                fillerAgent.setApiKey(name);
+                fillerAgent.setStatusCode(statusCode);
+                fillerAgent.setCreatedAt(now.minus(Duration.ofDays(1)));
+                fillerAgent.setCreatedByUser(filler);
+                em.persist(fillerAgent);
+
+                Container fillerContainer = new Container();
+                fillerContainer.setName(name);
+                fillerContainer.setWalletAddress("0x0");
+                fillerContainer.setPrice(BigDecimal.valueOf(i));
+                fillerContainer.setStatusCode(statusCode);
+                fillerContainer.setParameters("{\"model\": \"" + name + "\", \"gpuClass\": \"H100\", \"maxTokens\": " + i + "}");
+                fillerContainer.setCreatedAt(now.minus(Duration.ofDays(1)));
+                fillerContainer.setCreatedByUser(filler);
+                em.persist(fillerContainer);
+
+                AgentContainer fillerLink = new AgentContainer();
+                fillerLink.setAgent(fillerAgent);
+                fillerLink.setContainer(fillerContainer);
+                fillerLink.setStatusCode(statusCode);
+                fillerLink.setCreatedAt(now);
+                em.persist(fillerLink);
+
+                AgentStatus fillerStatus = new AgentStatus();
+                fillerStatus.setAgent(fillerAgent);
+                fillerStatus.setCreatedAt(now);
+                fillerStatus.setLastKeepAliveAt(now);
+                em.persist(fillerStatus);
+
+                fillerAgentIds.add(fillerAgent.getId());
+                fillerContainerIds.add(fillerContainer.getId());
+            }
+            em.flush();
+            containerCatalogRepository.refresh(fillerContainerIds);
+        });
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("analyze table jhi_user, agent, container, agent_container, agent_status, container_catalog");
+        }
+    }
+
+    @AfterAll
+    void emptyTables() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em
+                .createQuery("delete from ContainerCatalog c where c.containerId in :ids")
+                .setParameter("ids", fillerContainerIds)
+                .executeUpdate();
+            em.createQuery("delete from AgentContainer l where l.agent.id in :ids").setParameter("ids", fillerAgentIds).executeUpdate();
+            em.createQuery("delete from AgentStatus s where s.agent.id in :ids").setParameter("ids", fillerAgentIds).executeUpdate();
+            em.createQuery("delete from Agent a where a.id in :ids").setParameter("ids", fillerAgentIds).executeUpdate();
+            em.createQuery("delete from Container c where c.id in :ids").setParameter("ids", fillerContainerIds).executeUpdate();
+            em.createQuery("delete from User u where u.id like :prefix").setParameter("prefix", FILLER_PREFIX + "%").executeUpdate();
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        // one matching row per table, so that the paged queries select after counting
+        Instant now = Instant.now();
+        user = new User();
+        user.setId("query-plan-user");
+        user.setLogin("query-plan-user");
+        user.setName("query plan user");
+        user.setEmail("query-plan-user@localhost");
+        user.setActivated(true);
+        user.setApiKey("query-plan-api-key");
+        user.setCreatedBy("system");
+        em.persist(user);
+
+        agent = new Agent();
+        agent.setName("query-plan-agent");
+        agent.setApiUrl("http://localhost/query-plan-agent");
+        agent.setApiKey("query-plan-api-key");
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(now);
+        agent.setCreatedByUser(user);
+        em.persist(agent);
+
+        container = new Container();
+        container.setName("query-plan-container");
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.ONE);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{\"model\": \"query-plan-model\", \"gpuClass\": \"A100\", \"maxTokens\": 8192}");
+        container.setCreatedAt(now);
+        container.setCreatedByUser(user);
+        em.persist(container);
+
+        AgentContainer agentContainer = new AgentContainer();
+        agentContainer.setAgent(agent);
+        agentContainer.setContainer(container);
+        agentContainer.setStatusCode(StatusCode.ACTIVE);
+        agentContainer.setCreatedAt(now);
+        em.persist(agentContainer);
+
+        AgentStatus agentStatus = new AgentStatus();
+        agentStatus.setAgent(agent);
+        agentStatus.setCreatedAt(now);
+        agentStatus.setLastKeepAliveAt(now.minus(Duration.ofHours(1)));
+        em.persist(agentStatus);
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void agentQueriesUseIndexes() {
+        assertUsesIndexes(() -> agentRepository.search("query-plan", StatusCode.ACTIVE, user.getId(), PAGEABLE));
+        assertUsesIndexes(() -> agentRepository.search("query-plan", StatusCode.ACTIVE, null, CountStrategy.NONE, PAGEABLE));
+        assertUsesIndexes(() ->
+            agentRepository.searchView("query-plan", StatusCode.ACTIVE, null, JsonViewType.Shallow.class, CountStrategy.EXACT, PAGEABLE)
+        );
+        assertUsesIndexes(() -> agentRepository.scroll(null, StatusCode.ACTIVE, user.getId(), null, PAGEABLE));
+        assertDoesNotSort(() -> agentRepository.scroll(null, StatusCode.ACTIVE, user.getId(), null, PAGEABLE));
+        assertUsesIndexes(() -> agentRepository.findActiveByName("query-plan", PAGEABLE));
+        assertUsesIndexes(() -> agentRepository.findActiveByCreatedByUserId(user.getId(), PAGEABLE));
+        assertUsesIndexes(() -> agentRepository.findByIdAndCreatedByUserId(agent.getId(), user.getId()));
+        assertUsesIndexes(() -> agentRepository.findCreatedByUserIdsByIdIn(List.of(agent.getId())));
+        assertUsesIndexes(() ->
+            agentRepository.updateStatusCode(List.of(agent.getId()), StatusCode.ACTIVE, StatusCode.INACTIVE, Instant.now())
+        );
+    }
+
+    @Test
+    void containerQueriesUseIndexes() {
+        assertUsesIndexes(() -> containerRepository.search("query-plan", StatusCode.ACTIVE, user.getId(), PAGEABLE));
+        assertUsesIndexes(() ->
+            containerRepository.search("query-plan", StatusCode.ACTIVE, null, null, null, null, CountStrategy.NONE, PAGEABLE)
+        );
+        assertUsesIndexes(() ->
+            containerRepository.searchView(
+                "query-plan",
+                StatusCode.ACTIVE,
+                null,
+                null,
+                null,
+                null,
+                JsonViewType.Update.class,
+                CountStrategy.EXACT,
+                PAGEABLE
+            )
+        );
+        assertUsesIndexes(() -> containerRepository.scroll(null, StatusCode.ACTIVE, user.getId(), null, null, null, null, PAGEABLE));
+        assertDoesNotSort(() -> containerRepository.scroll(null, StatusCode.ACTIVE, user.getId(), null, null, null, null, PAGEABLE));
+        for (Map<String, String> parameters : List.of(
+            Map.of("model", "query-plan-model"),
+            Map.of("gpuClass", "A100"),
+            Map.of("maxTokens", "8192")
+        )) {
+            assertUsesIndexes(() ->
+                containerRepository.searchView(
+                    null,
+                    StatusCode.ACTIVE,
+                    null,
+                    null,
+                    null,
+                    parameters,
+                    JsonViewType.Update.class,
+                    CountStrategy.EXACT,
+                    PAGEABLE
+                )
+            );
+        }
+        // the cheapest active containers in a price range
+        Pageable byPrice = PageRequest.of(0, 10, Sort.by("price"));
+        assertUsesIndexes(() ->
+            containerRepository.scroll(null, StatusCode.ACTIVE, null, BigDecimal.ZERO, BigDecimal.TEN, null, null, byPrice)
+        );
+        assertReadsInIndexOrder(
+            () -> containerRepository.scroll(null, StatusCode.ACTIVE, null, BigDecimal.ZERO, BigDecimal.TEN, null, null, byPrice),
+            "idx_container__status_code_price_id"
+        );
+        assertUsesIndexes(() -> containerRepository.findActiveByName("query-plan", PAGEABLE));
+        assertUsesIndexes(() -> containerRepository.findActiveByCreatedByUserId(user.getId(), PAGEABLE));
+    }
+
+    @Test
+    void agentContainerQueriesUseIndexes() {
+        assertUsesIndexes(() -> agentContainerRepository.search(agent.getId(), "query-plan", StatusCode.ACTIVE, PAGEABLE));
+        assertUsesIndexes(() -> agentContainerRepository.search(agent.getId(), null, StatusCode.ACTIVE, CountStrategy.NONE, PAGEABLE));
+        assertUsesIndexes(() ->
+            agentContainerRepository.searchView(
+                agent.getId(),
+                "query-plan",
+                StatusCode.ACTIVE,
+                JsonViewType.Shallow.class,
+                CountStrategy.EXACT,
+                PAGEABLE
+            )
+        );
+        assertUsesIndexes(() -> agentContainerRepository.scroll(agent.getId(), null, StatusCode.ACTIVE, null, PAGEABLE));
+        assertUsesIndexes(() -> agentContainerRepository.findActiveByContainerName(agent.getId(), "query-plan", PAGEABLE));
+        assertUsesIndexes(() -> agentContainerRepository.findByAgentIdAndContainerId(agent.getId(), container.getId()));
+    }
+
+    @Test
+    void agentStatusQueriesUseIndexes() {
+        assertUsesIndexes(() -> agentStatusRepository.search("query-plan", StatusCode.ACTIVE, PAGEABLE));
+        assertUsesIndexes(() -> agentStatusRepository.findActiveByAgentName("query-plan", PAGEABLE));
+        assertUsesIndexes(() -> agentStatusRepository.findByAgentStatusCode(StatusCode.ACTIVE, PAGEABLE));
+        assertUsesIndexes(() -> agentStatusRepository.findByAgentId(agent.getId()));
+        // the passes of the liveness sweep read a range of their index in the order of their keyset, whatever the number of
+        // ACTIVE agents
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(30));
+        AgentStatusRepository.KeepAlive after = new AgentStatusRepository.KeepAlive(agent.getId(), cutoff.minus(Duration.ofDays(1)));
+        for (AgentStatusRepository.KeepAlive keyset : Arrays.asList(null, after)) {
+            assertReadsInIndexOrder(
+                () -> agentStatusRepository.findByLastKeepAliveAtBefore(StatusCode.ACTIVE, cutoff, keyset, 100),
+                "idx_agent_status__last_keep_alive_at_agent_id"
+            );
+            assertReadsInIndexOrder(
+                () -> agentStatusRepository.findWithoutKeepAliveCreatedBefore(StatusCode.ACTIVE, cutoff, keyset, 100),
+                "idx_agent__status_code_created_at"
+            );
+        }
+    }
+
+    @Test
+    void containerCatalogQueriesUseIndexes() {
+        assertUsesIndexes(() -> containerCatalogRepository.refresh(List.of(container.getId())));
+        assertUsesIndexes(() -> containerCatalogRepository.refreshByAgentIds(List.of(agent.getId())));
+        assertUsesIndexes(() -> containerCatalogRepository.updateLastKeepAliveAt(List.of(agent.getId())));
+        assertUsesIndexes(() -> containerCatalogRepository.search(StatusCode.ACTIVE, 1, PAGEABLE));
+        assertUsesIndexes(() ->
+            containerCatalogRepository.search(StatusCode.ACTIVE, null, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("onlineAgentCount"))))
+        );
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        assertUsesIndexes(() -> userRepository.findOneByEmail(user.getEmail(), Boolean.TRUE));
+        assertUsesIndexes(() -> userRepository.findOneByApiKey(user.getApiKey(), Boolean.TRUE));
+        assertUsesIndexes(() -> userRepository.findOneActiveById(user.getId()));
+        assertUsesIndexes(() -> userRepository.findOneById(user.getId()));
+        // a substring match on the name and the activated flag cannot use an index, the user search is an admin screen
+        assertThat(fullScans(() -> userRepository.search("query plan", Boolean.TRUE, PAGEABLE)))
+            .isNotEmpty()
+            .allSatisfy(scan -> assertThat(scan).contains("from jhi_user"));
+    }
+
+    private void assertUsesIndexes(Runnable query) {
+        assertThat(fullScans(query)).isEmpty();
+    }
+
+    /**
+     * Run {@code query} and assert that it reads a range or a prefix of {@code index}, and returns its rows in the order they
+     * were read, without sorting them.
+     */
+    private void assertReadsInIndexOrder(Runnable query, String index) {
+        assertThat(explain(query))
+            .anySatisfy(row -> {
+                assertThat(row.get("key")).isEqualTo(index);
+                assertThat(row.get("type")).isIn("range", "ref");
+            })
+            .noneSatisfy(row -> assertThat(row.get("Extra")).contains("Using filesort"));
+    }
+
+    /**
+     * Run {@code query} and assert that no statement sorts its rows: a keyset query reads them in the order of an index.
+     */
+    private void assertDoesNotSort(Runnable query) {
+        assertThat(explain(query)).noneSatisfy(row -> assertThat(row.get("Extra")).contains("Using filesort"));
+    }
+
+    private List<Map<String, String>> explain(Runnable query) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (RecordedStatement statement : statementRecorder.record(query)) {
+            rows.addAll(statementRecorder.explain(statement));
+        }
+        assertThat(rows).isNotEmpty();
+        return rows;
+    }
+
+    /**
+     * Run {@code query} and explain every statement it issued.
+     *
+     * @param query the repository call.
+     * @return the tables read with a full scan, with their statement, whether or not the optimizer considered an index.
+     */
+    private List<String> fullScans(Runnable query) {
+        List<RecordedStatement> statements = statementRecorder.record(query);
+        assertThat(statements).isNotEmpty();
+        List<String> scans = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            for (Map<String, String> row : statementRecorder.explain(statement)) {
+                // <derivedN> and <unionM,N> are the materialized rows of a statement, e.g. the values bound by an upsert
+                boolean materialized = row.get("table") != null && row.get("table").startsWith("<");
+                if ("ALL".equals(row.get("type")) && row.get("key") == null && !materialized) {
+                    scans.add(row.get("table") + " in " + statement.sql());
+                }
+            }
+        }
+        return scans;
+    }
+
+    record RecordedStatement(String sql, List<Object[]> parameters) {}
+
+    /**
+     * Wraps the data source to record the SQL and the parameters of the statements executed while recording.
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean recording;
+        private DataSource dataSource;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            // the routing data source, through which the read and the write pools are used
+            if (bean instanceof DataSource target && beanName.equals("dataSource")) {
+                dataSource = proxy(DataSource.class, target, (method, args, result) ->
+                    result instanceof Connection connection ? proxy(Connection.class, connection, this::wrapStatement) : result
+                );
+                return dataSource;
+            }
+            return bean;
+        }
+
+        List<RecordedStatement> record(Runnable query) {
+            statements.clear();
+            recording = true;
+            try {
+                query.run();
+            } finally {
+                recording = false;
+            }
+            return new ArrayList<>(statements);
+        }
+
+        List<Map<String, String>> explain(RecordedStatement statement) {
+            List<Map<String, String>> rows = new ArrayList<>();
+            // the connection of the test transaction, which sees the rows it inserted
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try (PreparedStatement explain = connection.prepareStatement("explain " + statement.sql())) {
+                for (Object[] parameter : statement.parameters()) {
+                    ((Method) parameter[0]).invoke(explain, (Object[]) parameter[1]);
+                }
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        Map<String, String> row = new HashMap<>();
+                        for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                            row.put(resultSet.getMetaData().getColumnLabel(i), resultSet.getString(i));
+                        }
+                        rows.add(row);
+                    }
+                }
+            } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Failed to explain " + statement.sql(), e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+            return rows;
+        }
+
+        private Object wrapStatement(Method method, Object[] args, Object result) {
+            if (!(result instanceof PreparedStatement preparedStatement) || !method.getName().equals("prepareStatement")) {
+                return result;
+            }
+            String sql = (String) args[0];
+            List<Object[]> parameters = new ArrayList<>();
+            return proxy(PreparedStatement.class, preparedStatement, (invoked, invokedArgs, invokedResult) -> {
+                String name = invoked.getName();
+                if (name.startsWith("set") && invokedArgs != null && invokedArgs.length >= 2 && invokedArgs[0] instanceof Integer) {
+                    parameters.add(new Object[] { invoked, invokedArgs });
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (recording && name.startsWith("execute") && (invokedArgs == null || invokedArgs.length == 0)) {
+                    String statement = sql.trim().toLowerCase(Locale.ROOT);
+                    if (
+                        statement.startsWith("select") ||
+                        statement.startsWith("update") ||
+                        statement.startsWith("delete") ||
+                        (statement.startsWith("insert") && statement.contains(" select "))
+                    ) {
+                        statements.add(new RecordedStatement(sql, new ArrayList<>(parameters)));
+                    }
+                }
+                return invokedResult;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> {
+                try {
+                    return handler.handle(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, invocationHandler);
+        }
+
+        @FunctionalInterface
+        private interface ResultHandler {
+            Object handle(Method method, Object[] args, Object result) throws Throwable;
+        }
+    }
+}
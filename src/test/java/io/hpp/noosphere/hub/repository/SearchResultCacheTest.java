@@ -0,0 +1,87 @@
+package io.hpp.noosphere.hub.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.domain.QContainer;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the transaction the {@link SearchResultCache} searches the ids of a miss in.
+ */
+class SearchResultCacheTest {
+
+    private PlatformTransactionManager transactionManager;
+    private SearchResultCache searchResultCache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearchResultCache().setEnabled(true);
+        searchResultCache = new SearchResultCache(
+            new ConcurrentMapCacheManager(),
+            mock(EntityManager.class),
+            transactionManager,
+            applicationProperties
+        );
+        searches = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void searchesTheMissesOfReadOnlyTransactionsOnThePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        search();
+        search();
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        assertThat(definition.getValue().isReadOnly()).isFalse();
+        // the second search is a hit
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void searchesTheMissesOfReadWriteTransactionsInPlace() {
+        search();
+
+        verify(transactionManager, never()).getTransaction(any());
+        assertThat(searches).hasValue(1);
+    }
+
+    private void search() {
+        Pageable pageable = Pageable.ofSize(10);
+        searchResultCache.search(QContainer.container, QContainer.container.name.eq("search"), pageable, CountStrategy.NONE, () -> {
+            searches.incrementAndGet();
+            return new SliceImpl<>(List.<UUID>of(), pageable, false);
+        });
+    }
+}
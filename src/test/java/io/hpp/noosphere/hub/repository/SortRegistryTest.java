@@ -0,0 +1,42 @@
+package io.hpp.noosphere.hub.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.hpp.noosphere.hub.domain.QAgentContainer;
+import io.hpp.noosphere.hub.exception.InvalidDataException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class SortRegistryTest {
+
+    private static final QAgentContainer AGENT_CONTAINER = QAgentContainer.agentContainer;
+
+    private final SortRegistry sorts = SortRegistry.of(AGENT_CONTAINER.id)
+        .with("createdAt", AGENT_CONTAINER.createdAt)
+        .with("containerName", AGENT_CONTAINER.container.name);
+
+    @Test
+    void appendsIdAsTiebreaker() {
+        assertThat(sorts.orderSpecifiers(Sort.by(Sort.Order.desc("createdAt")))).containsExactly(
+            AGENT_CONTAINER.createdAt.desc(),
+            AGENT_CONTAINER.id.asc()
+        );
+        assertThat(sorts.orderSpecifiers(Sort.unsorted())).containsExactly(AGENT_CONTAINER.id.asc());
+    }
+
+    @Test
+    void keepsTheRequestedIdDirection() {
+        assertThat(sorts.orderSpecifiers(Sort.by(Sort.Order.desc("id")))).containsExactly(AGENT_CONTAINER.id.desc());
+    }
+
+    @Test
+    void resolvesThePropertyOfNestedPaths() {
+        assertThat(sorts.resolve(Sort.by("containerName")).get(0).property()).isEqualTo("container.name");
+    }
+
+    @Test
+    void rejectsUnregisteredKeys() {
+        assertThatThrownBy(() -> sorts.orderSpecifiers(Sort.by("apiKey"))).isInstanceOf(InvalidDataException.class);
+    }
+}
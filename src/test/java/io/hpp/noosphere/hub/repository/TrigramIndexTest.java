@@ -0,0 +1,55 @@
+package io.hpp.noosphere.hub.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.load(List.of(new Object[] { 1, "Image Classifier" }, new Object[] { 2, "Text Classifier" }, new Object[] { 3, "Café" }));
+    }
+
+    @Test
+    void findsTheNamesContainingTheTermIgnoringCaseAndAccents() {
+        assertThat(index.find("CLASSIF", 10)).containsExactlyInAnyOrder(1, 2);
+        assertThat(index.find("image", 10)).containsExactly(1);
+        assertThat(index.find("cafe", 10)).containsExactly(3);
+        assertThat(index.find("regressor", 10)).isEmpty();
+    }
+
+    @Test
+    void findsShortTermsWithoutTrigrams() {
+        assertThat(index.find("x", 10)).containsExactly(2);
+    }
+
+    @Test
+    void givesUpAboveTheLimit() {
+        assertThat(index.find("classifier", 1)).isNull();
+    }
+
+    @Test
+    void keepsNamesUpToDate() {
+        index.put(1, "Image Segmenter");
+        index.remove(2);
+
+        assertThat(index.find("classifier", 10)).isEmpty();
+        assertThat(index.find("segment", 10)).containsExactly(1);
+    }
+
+    @Test
+    void loadKeepsNewerEntries() {
+        TrigramIndex reloaded = new TrigramIndex();
+        reloaded.put(1, "Image Segmenter");
+        reloaded.load(List.<Object[]>of(new Object[] { 1, "Image Classifier" }));
+
+        assertThat(reloaded.find("classifier", 10)).isEmpty();
+        assertThat(reloaded.isLoaded()).isTrue();
+    }
+}
@@ -0,0 +1,134 @@
+package io.hpp.noosphere.hub.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.UuidV7Generator;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Compares the former key layout, random UUIDs in varchar(36), with time-ordered UUIDs in binary(16): insert throughput,
+ * point lookups and the size of the primary key and of a secondary index, as a foreign key would have.
+ * <p>
+ * It writes and drops two tables of 20,000 rows, so the integration tests leave it out; it runs with
+ * {@code ./gradlew integrationTest -Pbenchmarks --tests '*UuidKeyBenchmarkIT'}. The ordering of the keys themselves is
+ * checked by {@code UuidV7GeneratorTest}.
+ */
+@IntegrationTest
+@Tag("benchmark")
+class UuidKeyBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UuidKeyBenchmarkIT.class);
+
+    private static final int ROWS = 20_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int LOOKUPS = 2_000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void binaryTimeOrderedKeysAreSmallerThanVarcharRandomKeys() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            Result varchar = run(connection, "uuid_benchmark_varchar", "varchar(36)", () -> UUID.randomUUID().toString(), Object::toString);
+            Result binary = run(connection, "uuid_benchmark_binary", "binary(16)", UuidV7Generator::generate, UuidV7Generator::toBytes);
+
+            LOG.info("varchar(36) random UUID: {}", varchar);
+            LOG.info("binary(16) UUIDv7: {}", binary);
+            assertThat(binary.dataBytes + binary.indexBytes).isLessThan(varchar.dataBytes + varchar.indexBytes);
+        }
+    }
+
+    private <K> Result run(Connection connection, String table, String type, Supplier<K> keys, Function<K, Object> parameter)
+        throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute(
+                "create table " + table + " (id " + type + " not null primary key, ref " + type + ", created_at datetime(6), key (ref))"
+            );
+        }
+        try {
+            List<K> ids = new ArrayList<>(ROWS);
+            long start = System.nanoTime();
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("insert into " + table + " values (?, ?, now(6))")) {
+                for (int i = 0; i < ROWS; i++) {
+                    K id = keys.get();
+                    ids.add(id);
+                    insert.setObject(1, parameter.apply(id));
+                    insert.setObject(2, parameter.apply(keys.get()));
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            connection.setAutoCommit(true);
+            long insertNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            try (PreparedStatement select = connection.prepareStatement("select created_at from " + table + " where id = ?")) {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    select.setObject(1, parameter.apply(ids.get(ThreadLocalRandom.current().nextInt(ROWS))));
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        assertThat(resultSet.next()).isTrue();
+                    }
+                }
+            }
+            long lookupNanos = System.nanoTime() - start;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("analyze table " + table);
+                // information_schema.tables caches the statistics for a day by default
+                statement.execute("set session information_schema_stats_expiry = 0");
+                try (
+                    ResultSet resultSet = statement.executeQuery(
+                        "select data_length, index_length from information_schema.tables " +
+                        "where table_schema = database() and table_name = '" +
+                        table +
+                        "'"
+                    )
+                ) {
+                    assertThat(resultSet.next()).isTrue();
+                    return new Result(
+                        ROWS * 1_000_000_000L / insertNanos,
+                        lookupNanos / LOOKUPS / 1_000,
+                        resultSet.getLong(1),
+                        resultSet.getLong(2)
+                    );
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("drop table if exists " + table);
+            }
+        }
+    }
+
+    /**
+     * @param insertsPerSecond insert throughput.
+     * @param lookupMicros     mean latency of a point lookup by primary key.
+     * @param dataBytes        size of the clustered primary key, which holds the rows.
+     * @param indexBytes       size of the secondary index.
+     */
+    private record Result(long insertsPerSecond, long lookupMicros, long dataBytes, long indexBytes) {}
+}
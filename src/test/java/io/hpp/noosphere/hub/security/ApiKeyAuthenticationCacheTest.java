@@ -0,0 +1,109 @@
+package io.hpp.noosphere.hub.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Test class for the {@link ApiKeyAuthenticationCache}.
+ */
+class ApiKeyAuthenticationCacheTest {
+
+    private ITopic<ApiKeyAuthenticationCache.Invalidation> topic;
+    private MessageListener<ApiKeyAuthenticationCache.Invalidation> listener;
+    private ApiKeyAuthenticationCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        topic = mock(ITopic.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<ApiKeyAuthenticationCache.Invalidation>getTopic(ApiKeyAuthenticationCache.INVALIDATION_TOPIC)).thenReturn(
+            topic
+        );
+        cache = new ApiKeyAuthenticationCache(new ApplicationProperties(), hazelcastInstance, new SimpleMeterRegistry());
+        ArgumentCaptor<MessageListener<ApiKeyAuthenticationCache.Invalidation>> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addMessageListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    void testPutAndEvictUser() {
+        cache.put("key-1", new ApiKeyAuthenticationCache.Entry("user-1", ApiKeyAuthenticationCache.toGrantedAuthorities(List.of(AuthoritiesConstants.USER))));
+        cache.put("key-3", new ApiKeyAuthenticationCache.Entry("user-3", List.of()));
+        assertThat(cache.get("key-1")).hasValueSatisfying(entry -> assertThat(entry.userId()).isEqualTo("user-1"));
+
+        cache.evictUser("user-1");
+        assertThat(cache.get("key-1")).isEmpty();
+        assertThat(cache.get("key-3")).isPresent();
+        verify(topic).publish(new ApiKeyAuthenticationCache.Invalidation(null, "user-1"));
+    }
+
+    @Test
+    void testEvictUserKeepsKeysResolvedToAnotherUserSince() {
+        cache.put("key-4", new ApiKeyAuthenticationCache.Entry("user-4", List.of()));
+        cache.put("key-4", new ApiKeyAuthenticationCache.Entry("user-5", List.of()));
+
+        cache.evictUser("user-4");
+        assertThat(cache.get("key-4")).hasValueSatisfying(entry -> assertThat(entry.userId()).isEqualTo("user-5"));
+
+        cache.evictUser("user-5");
+        assertThat(cache.get("key-4")).isEmpty();
+    }
+
+    @Test
+    void testNegativeEntryIsReplacedByResolvedKey() {
+        cache.putUnknown("key-2");
+        assertThat(cache.isUnknown("key-2")).isTrue();
+
+        cache.put("key-2", new ApiKeyAuthenticationCache.Entry("user-2", List.of()));
+        assertThat(cache.isUnknown("key-2")).isFalse();
+        assertThat(cache.get("key-2")).isPresent();
+
+        cache.evict("key-2");
+        assertThat(cache.get("key-2")).isEmpty();
+        verify(topic).publish(new ApiKeyAuthenticationCache.Invalidation(ApiKeyDigest.digestHex("key-2"), null));
+    }
+
+    @Test
+    void testEvictionsOfOtherNodesAreApplied() {
+        cache.put("key-6", new ApiKeyAuthenticationCache.Entry("user-6", List.of()));
+        cache.put("key-7", new ApiKeyAuthenticationCache.Entry("user-7", List.of()));
+        cache.putUnknown("key-8");
+
+        listener.onMessage(message(new ApiKeyAuthenticationCache.Invalidation(ApiKeyDigest.digestHex("key-8"), null), false));
+        listener.onMessage(message(new ApiKeyAuthenticationCache.Invalidation(null, "user-7"), false));
+        assertThat(cache.isUnknown("key-8")).isFalse();
+        assertThat(cache.get("key-7")).isEmpty();
+
+        // the publisher already evicted its own entries
+        listener.onMessage(message(new ApiKeyAuthenticationCache.Invalidation(ApiKeyDigest.digestHex("key-6"), null), true));
+        assertThat(cache.get("key-6")).isPresent();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<ApiKeyAuthenticationCache.Invalidation> message(
+        ApiKeyAuthenticationCache.Invalidation invalidation,
+        boolean local
+    ) {
+        Member member = mock(Member.class);
+        when(member.localMember()).thenReturn(local);
+        Message<ApiKeyAuthenticationCache.Invalidation> message = mock(Message.class);
+        when(message.getPublishingMember()).thenReturn(member);
+        when(message.getMessageObject()).thenReturn(invalidation);
+        return message;
+    }
+}
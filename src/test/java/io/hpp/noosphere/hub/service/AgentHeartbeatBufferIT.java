@@ -0,0 +1,92 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentStatus;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Flushes the {@link AgentHeartbeatBuffer} into the database, including the heartbeat of an agent deleted before the flush.
+ */
+@IntegrationTest
+@Transactional
+class AgentHeartbeatBufferIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private AgentHeartbeatBuffer agentHeartbeatBuffer;
+
+    @Autowired
+    private AgentStatusRepository agentStatusRepository;
+
+    @Test
+    void dropsTheHeartbeatOfADeletedAgentAndWritesTheOthers() {
+        Instant keepAliveAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Agent agent = agent("agent-heartbeat-buffer-agent");
+        Agent deleted = agent("agent-heartbeat-buffer-deleted");
+        em.flush();
+        agentHeartbeatBuffer.record(agent.getId(), keepAliveAt);
+        agentHeartbeatBuffer.record(deleted.getId(), keepAliveAt);
+        em.remove(deleted);
+        em.flush();
+
+        agentHeartbeatBuffer.flush();
+
+        // the whole batch went through: nothing is left for the next flush
+        assertThat(agentHeartbeatBuffer.getPendingCount()).isZero();
+        em.clear();
+        assertThat(agentStatusRepository.findByAgentId(agent.getId()))
+            .map(AgentStatus::getLastKeepAliveAt)
+            .hasValue(keepAliveAt);
+        assertThat(agentStatusRepository.findByAgentId(deleted.getId())).isEmpty();
+    }
+
+    @Test
+    void neverMovesTheLastKeepAliveBackwards() {
+        Instant keepAliveAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Agent agent = agent("agent-heartbeat-buffer-late");
+        em.flush();
+        agentHeartbeatBuffer.record(agent.getId(), keepAliveAt);
+        agentHeartbeatBuffer.flush();
+
+        agentHeartbeatBuffer.record(agent.getId(), keepAliveAt.minusSeconds(30));
+        agentHeartbeatBuffer.flush();
+
+        em.clear();
+        assertThat(agentStatusRepository.findByAgentId(agent.getId()))
+            .map(AgentStatus::getLastKeepAliveAt)
+            .hasValue(keepAliveAt);
+    }
+
+    private Agent agent(String name) {
+        // a user owns a single agent
+        User user = new User();
+        user.setId(name);
+        user.setLogin(name);
+        user.setEmail(name + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        Agent agent = new Agent();
+        agent.setName(name);
+        agent.setApiUrl("http://localhost/" + name);
+        agent.setApiKey(name);
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(Instant.now());
+        agent.setCreatedByUser(user);
+        em.persist(agent);
+        return agent;
+    }
+}
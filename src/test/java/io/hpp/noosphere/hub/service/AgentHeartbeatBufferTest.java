@@ -0,0 +1,113 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Test class for the {@link AgentHeartbeatBuffer}, the default write path of keep-alives.
+ */
+class AgentHeartbeatBufferTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T12:00:00Z");
+
+    private AgentStatusRepository agentStatusRepository;
+    private AgentHeartbeatBuffer buffer;
+    private List<Map<UUID, Instant>> writes;
+
+    @BeforeEach
+    void setUp() {
+        agentStatusRepository = mock(AgentStatusRepository.class);
+        writes = new ArrayList<>();
+        when(agentStatusRepository.upsertLastKeepAliveAt(anyMap())).thenAnswer(invocation -> write(invocation.getArgument(0)));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getHeartbeat().setFlushBatchSize(2);
+        buffer = new AgentHeartbeatBuffer(agentStatusRepository, applicationProperties, transactionManager);
+    }
+
+    @Test
+    void keepsTheLatestHeartbeatOfEachAgent() {
+        UUID agentId = UUID.randomUUID();
+        buffer.record(agentId, NOW);
+        buffer.record(agentId, NOW.minusSeconds(10));
+        buffer.record(agentId, NOW.plusSeconds(5));
+        assertThat(buffer.getPendingCount()).isEqualTo(1);
+        assertThat(buffer.isPending(agentId)).isTrue();
+
+        buffer.flush();
+
+        assertThat(writes).containsExactly(Map.of(agentId, NOW.plusSeconds(5)));
+        assertThat(buffer.isPending(agentId)).isFalse();
+    }
+
+    @Test
+    void writesOneUpsertPerBatch() {
+        for (int i = 0; i < 5; i++) {
+            buffer.record(UUID.randomUUID(), NOW);
+        }
+
+        buffer.flush();
+
+        assertThat(writes).extracting(Map::size).containsExactlyInAnyOrder(2, 2, 1);
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void keepsAFailedBatchForTheNextFlush() {
+        UUID agentId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            throw new CannotAcquireLockException("deadlock");
+        })
+            .doAnswer(invocation -> write(invocation.getArgument(0)))
+            .when(agentStatusRepository)
+            .upsertLastKeepAliveAt(anyMap());
+        buffer.record(agentId, NOW);
+
+        buffer.flush();
+        assertThat(writes).isEmpty();
+        assertThat(buffer.isPending(agentId)).isTrue();
+
+        // a heartbeat received in between wins over the re-queued one
+        buffer.record(agentId, NOW.plusSeconds(5));
+        buffer.flush();
+        assertThat(writes).containsExactly(Map.of(agentId, NOW.plusSeconds(5)));
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void flushesThePendingHeartbeatsOnShutdown() {
+        UUID agentId = UUID.randomUUID();
+        buffer.record(agentId, NOW);
+
+        buffer.destroy();
+
+        verify(agentStatusRepository, times(1)).upsertLastKeepAliveAt(Map.of(agentId, NOW));
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    private int write(Map<UUID, Instant> batch) {
+        writes.add(new HashMap<>(batch));
+        return batch.size();
+    }
+}
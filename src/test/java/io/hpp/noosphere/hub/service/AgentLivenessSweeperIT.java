@@ -0,0 +1,117 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentStatus;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs the {@link AgentLivenessSweeper} on agents whose keep-alives date from 2000, before any other agent of the database.
+ */
+@IntegrationTest
+@Transactional
+class AgentLivenessSweeperIT {
+
+    private static final Instant CUTOFF = Instant.parse("2000-01-02T00:00:00Z");
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private AgentLivenessSweeper agentLivenessSweeper;
+
+    @Autowired
+    private AgentStatusRepository agentStatusRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private Agent neverSeen;
+    private Agent expired;
+    private Agent alive;
+    private Agent inactive;
+
+    @BeforeEach
+    void setUp() {
+        // registered before the cutoff and never sent a keep-alive: no agent status
+        neverSeen = agent("agent-liveness-sweeper-never-seen", StatusCode.ACTIVE, null);
+        expired = agent("agent-liveness-sweeper-expired", StatusCode.ACTIVE, CUTOFF.minusSeconds(3600));
+        alive = agent("agent-liveness-sweeper-alive", StatusCode.ACTIVE, CUTOFF.plusSeconds(60));
+        inactive = agent("agent-liveness-sweeper-inactive", StatusCode.INACTIVE, CUTOFF.minusSeconds(3600));
+        em.flush();
+    }
+
+    @Test
+    void pagesTheExpiredAgentsByLastKeepAliveThenId() {
+        List<AgentStatusRepository.KeepAlive> first = agentStatusRepository.findByLastKeepAliveAtBefore(StatusCode.ACTIVE, CUTOFF, null, 1);
+        assertThat(first).extracting(AgentStatusRepository.KeepAlive::agentId).containsExactly(expired.getId());
+        assertThat(first.get(0).lastKeepAliveAt()).isEqualTo(CUTOFF.minusSeconds(3600));
+
+        assertThat(agentStatusRepository.findByLastKeepAliveAtBefore(StatusCode.ACTIVE, CUTOFF, first.get(0), 1)).isEmpty();
+    }
+
+    @Test
+    void pagesTheAgentsWithoutKeepAliveByCreationThenId() {
+        List<AgentStatusRepository.KeepAlive> first = agentStatusRepository.findWithoutKeepAliveCreatedBefore(
+            StatusCode.ACTIVE,
+            CUTOFF,
+            null,
+            1
+        );
+        assertThat(first).extracting(AgentStatusRepository.KeepAlive::agentId).containsExactly(neverSeen.getId());
+        assertThat(first.get(0).lastKeepAliveAt()).isEqualTo(neverSeen.getCreatedAt());
+
+        assertThat(agentStatusRepository.findWithoutKeepAliveCreatedBefore(StatusCode.ACTIVE, CUTOFF, first.get(0), 1)).isEmpty();
+    }
+
+    @Test
+    void demotesTheActiveAgentsWithoutRecentKeepAlive() {
+        long demoted = agentLivenessSweeper.sweep(CUTOFF.plus(applicationProperties.getLiveness().getTimeout()));
+
+        assertThat(demoted).isEqualTo(2);
+        em.clear();
+        assertThat(em.find(Agent.class, neverSeen.getId()).getStatusCode()).isEqualTo(StatusCode.INACTIVE);
+        assertThat(em.find(Agent.class, expired.getId()).getStatusCode()).isEqualTo(StatusCode.INACTIVE);
+        assertThat(em.find(Agent.class, alive.getId()).getStatusCode()).isEqualTo(StatusCode.ACTIVE);
+        assertThat(em.find(Agent.class, inactive.getId()).getUpdatedAt()).isNull();
+    }
+
+    private Agent agent(String name, StatusCode statusCode, Instant lastKeepAliveAt) {
+        // a user owns a single agent
+        User user = new User();
+        user.setId(name);
+        user.setLogin(name);
+        user.setEmail(name + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        Agent agent = new Agent();
+        agent.setName(name);
+        agent.setApiUrl("http://localhost/" + name);
+        agent.setApiKey(name);
+        agent.setStatusCode(statusCode);
+        agent.setCreatedAt(CUTOFF.minusSeconds(7200));
+        agent.setCreatedByUser(user);
+        em.persist(agent);
+        if (lastKeepAliveAt != null) {
+            AgentStatus agentStatus = new AgentStatus();
+            agentStatus.setAgent(agent);
+            agentStatus.setCreatedAt(agent.getCreatedAt());
+            agentStatus.setLastKeepAliveAt(lastKeepAliveAt);
+            em.persist(agentStatus);
+        }
+        return agent;
+    }
+}
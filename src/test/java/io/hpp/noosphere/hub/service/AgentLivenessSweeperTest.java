@@ -0,0 +1,121 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentRepository;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Test class for the batches of the {@link AgentLivenessSweeper}.
+ */
+class AgentLivenessSweeperTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T12:00:00Z");
+    private static final Instant CUTOFF = NOW.minusSeconds(90);
+
+    private AgentStatusRepository agentStatusRepository;
+    private AgentRepository agentRepository;
+    private AgentHeartbeatBuffer agentHeartbeatBuffer;
+    private AgentLivenessSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        agentStatusRepository = mock(AgentStatusRepository.class);
+        agentRepository = mock(AgentRepository.class);
+        agentHeartbeatBuffer = mock(AgentHeartbeatBuffer.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLiveness().setBatchSize(2);
+        sweeper = new AgentLivenessSweeper(
+            agentStatusRepository,
+            agentRepository,
+            agentHeartbeatBuffer,
+            applicationProperties,
+            transactionManager,
+            new SimpleMeterRegistry()
+        );
+    }
+
+    @Test
+    void continuesPastABatchOfAgentsWithPendingHeartbeats() {
+        AgentStatusRepository.KeepAlive pending1 = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(30));
+        AgentStatusRepository.KeepAlive pending2 = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(20));
+        AgentStatusRepository.KeepAlive stale = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(10));
+        when(agentHeartbeatBuffer.isPending(pending1.agentId())).thenReturn(true);
+        when(agentHeartbeatBuffer.isPending(pending2.agentId())).thenReturn(true);
+        when(agentStatusRepository.findByLastKeepAliveAtBefore(eq(StatusCode.ACTIVE), eq(CUTOFF), isNull(), eq(2))).thenReturn(
+            List.of(pending1, pending2)
+        );
+        when(agentStatusRepository.findByLastKeepAliveAtBefore(StatusCode.ACTIVE, CUTOFF, pending2, 2)).thenReturn(List.of(stale));
+        when(agentRepository.updateStatusCode(List.of(stale.agentId()), StatusCode.ACTIVE, StatusCode.INACTIVE, NOW)).thenReturn(1L);
+
+        assertThat(sweeper.sweep(NOW)).isEqualTo(1);
+        verify(agentRepository).updateStatusCode(anyCollection(), eq(StatusCode.ACTIVE), eq(StatusCode.INACTIVE), eq(NOW));
+    }
+
+    @Test
+    void continuesPastAgentsDemotedByAnotherInstance() {
+        AgentStatusRepository.KeepAlive first = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(30));
+        AgentStatusRepository.KeepAlive second = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(20));
+        AgentStatusRepository.KeepAlive third = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(10));
+        when(agentStatusRepository.findByLastKeepAliveAtBefore(eq(StatusCode.ACTIVE), eq(CUTOFF), isNull(), eq(2))).thenReturn(
+            List.of(first, second)
+        );
+        when(agentStatusRepository.findByLastKeepAliveAtBefore(StatusCode.ACTIVE, CUTOFF, second, 2)).thenReturn(List.of(third));
+        // the first batch was demoted concurrently, its update changes nothing
+        when(agentRepository.updateStatusCode(List.of(first.agentId(), second.agentId()), StatusCode.ACTIVE, StatusCode.INACTIVE, NOW))
+            .thenReturn(0L);
+        when(agentRepository.updateStatusCode(List.of(third.agentId()), StatusCode.ACTIVE, StatusCode.INACTIVE, NOW)).thenReturn(1L);
+
+        assertThat(sweeper.sweep(NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void sweepsTheAgentsWhichNeverSentAKeepAliveInASecondPass() {
+        AgentStatusRepository.KeepAlive expired = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(30));
+        AgentStatusRepository.KeepAlive neverSeen1 = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(20));
+        AgentStatusRepository.KeepAlive neverSeen2 = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(10));
+        AgentStatusRepository.KeepAlive neverSeen3 = new AgentStatusRepository.KeepAlive(UUID.randomUUID(), CUTOFF.minusSeconds(5));
+        when(agentStatusRepository.findByLastKeepAliveAtBefore(eq(StatusCode.ACTIVE), eq(CUTOFF), isNull(), eq(2))).thenReturn(
+            List.of(expired)
+        );
+        when(agentStatusRepository.findWithoutKeepAliveCreatedBefore(eq(StatusCode.ACTIVE), eq(CUTOFF), isNull(), eq(2))).thenReturn(
+            List.of(neverSeen1, neverSeen2)
+        );
+        when(agentStatusRepository.findWithoutKeepAliveCreatedBefore(StatusCode.ACTIVE, CUTOFF, neverSeen2, 2)).thenReturn(
+            List.of(neverSeen3)
+        );
+        when(agentRepository.updateStatusCode(anyCollection(), eq(StatusCode.ACTIVE), eq(StatusCode.INACTIVE), eq(NOW))).thenAnswer(
+            invocation -> (long) invocation.<Collection<UUID>>getArgument(0).size()
+        );
+
+        assertThat(sweeper.sweep(NOW)).isEqualTo(4);
+        verify(agentRepository).updateStatusCode(List.of(expired.agentId()), StatusCode.ACTIVE, StatusCode.INACTIVE, NOW);
+        verify(agentRepository).updateStatusCode(
+            List.of(neverSeen1.agentId(), neverSeen2.agentId()),
+            StatusCode.ACTIVE,
+            StatusCode.INACTIVE,
+            NOW
+        );
+        verify(agentRepository).updateStatusCode(List.of(neverSeen3.agentId()), StatusCode.ACTIVE, StatusCode.INACTIVE, NOW);
+    }
+}
@@ -0,0 +1,196 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentContainer;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.ContainerCatalog;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentRepository;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import io.hpp.noosphere.hub.repository.ContainerCatalogRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs keep-alives and status changes of agents sharing containers side by side, in committed transactions: the catalog
+ * writes of both take their locks in the same order, so neither is chosen as a deadlock victim.
+ */
+@IntegrationTest
+class ContainerCatalogConcurrencyIT {
+
+    private static final int ROUNDS = 50;
+    private static final String PREFIX = "container-catalog-concurrency-";
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AgentRepository agentRepository;
+
+    @Autowired
+    private AgentStatusRepository agentStatusRepository;
+
+    @Autowired
+    private ContainerCatalogRepository containerCatalogRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private UUID heartbeatAgentId;
+    private UUID toggledAgentId;
+    private List<UUID> containerIds;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            Agent heartbeatAgent = agent(PREFIX + "heartbeat", now);
+            Agent toggledAgent = agent(PREFIX + "toggled", now);
+            Container first = container(PREFIX + "first", now);
+            Container second = container(PREFIX + "second", now);
+            // both agents serve both containers, so the refresh of one agent reads the keep-alive of the other
+            for (Agent agent : List.of(heartbeatAgent, toggledAgent)) {
+                for (Container container : List.of(first, second)) {
+                    AgentContainer agentContainer = new AgentContainer();
+                    agentContainer.setAgent(agent);
+                    agentContainer.setContainer(container);
+                    agentContainer.setStatusCode(StatusCode.ACTIVE);
+                    agentContainer.setCreatedAt(now);
+                    em.persist(agentContainer);
+                }
+            }
+            heartbeatAgentId = heartbeatAgent.getId();
+            toggledAgentId = toggledAgent.getId();
+            containerIds = List.of(first.getId(), second.getId());
+            agentStatusRepository.upsertLastKeepAliveAt(Map.of(heartbeatAgentId, now, toggledAgentId, now));
+            containerCatalogRepository.refresh(containerIds);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from ContainerCatalog c where c.containerId in :ids").setParameter("ids", containerIds).executeUpdate();
+            em.createQuery("delete from AgentContainer l where l.container.id in :ids").setParameter("ids", containerIds).executeUpdate();
+            em.createQuery("delete from AgentStatus s where s.agent.id in :ids")
+                .setParameter("ids", List.of(heartbeatAgentId, toggledAgentId))
+                .executeUpdate();
+            em.createQuery("delete from Agent a where a.id in :ids")
+                .setParameter("ids", List.of(heartbeatAgentId, toggledAgentId))
+                .executeUpdate();
+            em.createQuery("delete from Container c where c.id in :ids").setParameter("ids", containerIds).executeUpdate();
+            em.createQuery("delete from User u where u.id like :prefix").setParameter("prefix", PREFIX + "%").executeUpdate();
+        });
+    }
+
+    @Test
+    void keepAlivesAndStatusChangesDoNotDeadlock() throws Exception {
+        Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            Future<?> keepAlives = executor.submit(() -> {
+                ready.await();
+                for (int i = 1; i <= ROUNDS; i++) {
+                    Instant keepAliveAt = start.plusSeconds(i);
+                    transactionTemplate.executeWithoutResult(status ->
+                        agentStatusRepository.upsertLastKeepAliveAt(Map.of(heartbeatAgentId, keepAliveAt, toggledAgentId, keepAliveAt))
+                    );
+                }
+                return null;
+            });
+            Future<?> statusChanges = executor.submit(() -> {
+                ready.await();
+                for (int i = 1; i <= ROUNDS; i++) {
+                    StatusCode statusCode = i % 2 == 0 ? StatusCode.ACTIVE : StatusCode.INACTIVE;
+                    transactionTemplate.executeWithoutResult(status ->
+                        agentRepository.updateStatusCode(Set.of(toggledAgentId), null, statusCode, Instant.now())
+                    );
+                }
+                return null;
+            });
+            ready.countDown();
+            // a deadlock victim fails its future with a CannotAcquireLockException
+            keepAlives.get(60, TimeUnit.SECONDS);
+            statusChanges.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the toggled agent ends ACTIVE and the catalog rows were refreshed after the last commit. A last keep-alive moves
+        // the rows forward, in case a refresh read its aggregate before the last keep-alive of the loop was committed.
+        Instant lastKeepAliveAt = start.plusSeconds(ROUNDS + 1);
+        transactionTemplate.executeWithoutResult(status ->
+            agentStatusRepository.upsertLastKeepAliveAt(Map.of(heartbeatAgentId, lastKeepAliveAt, toggledAgentId, lastKeepAliveAt))
+        );
+        for (UUID containerId : containerIds) {
+            ContainerCatalog catalog = transactionTemplate.execute(status -> em.find(ContainerCatalog.class, containerId));
+            assertThat(catalog).isNotNull();
+            assertThat(catalog.getActiveAgentCount()).isEqualTo(2);
+            assertThat(catalog.getOnlineAgentCount()).isEqualTo(2);
+            assertThat(catalog.getLastKeepAliveAt()).isEqualTo(lastKeepAliveAt);
+        }
+    }
+
+    private Agent agent(String name, Instant now) {
+        Agent agent = new Agent();
+        agent.setName(name);
+        agent.setApiUrl("http://localhost/" + name);
+        agent.setApiKey(name);
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(now);
+        agent.setCreatedByUser(user(name));
+        em.persist(agent);
+        return agent;
+    }
+
+    private Container container(String name, Instant now) {
+        Container container = new Container();
+        container.setName(name);
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.TEN);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{}");
+        container.setCreatedAt(now);
+        container.setCreatedByUser(user(name));
+        em.persist(container);
+        return container;
+    }
+
+    /**
+     * A user owns a single agent and a single container: each of them gets an owner of its own.
+     */
+    private User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(id);
+        user.setEmail(id + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        return user;
+    }
+}
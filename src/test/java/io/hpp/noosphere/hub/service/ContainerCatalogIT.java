@@ -0,0 +1,137 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.ContainerCatalog;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentRepository;
+import io.hpp.noosphere.hub.repository.AgentStatusRepository;
+import io.hpp.noosphere.hub.repository.ContainerCatalogRepository;
+import io.hpp.noosphere.hub.service.dto.ContainerCatalogDTO;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Follows the catalog row of a container through the writes which maintain it.
+ */
+@IntegrationTest
+@Transactional
+class ContainerCatalogIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private AgentService agentService;
+
+    @Autowired
+    private AgentContainerService agentContainerService;
+
+    @Autowired
+    private ContainerService containerService;
+
+    @Autowired
+    private AgentRepository agentRepository;
+
+    @Autowired
+    private AgentStatusRepository agentStatusRepository;
+
+    @Autowired
+    private ContainerCatalogRepository containerCatalogRepository;
+
+    private User user;
+    private Agent agent;
+    private Container container;
+
+    @BeforeEach
+    void setUp() {
+        Instant now = Instant.now();
+        user = new User();
+        user.setId("container-catalog-user");
+        user.setLogin("container-catalog-user");
+        user.setName("container catalog user");
+        user.setEmail("container-catalog-user@localhost");
+        user.setActivated(true);
+        user.setApiKey("container-catalog-api-key");
+        user.setCreatedBy("system");
+        em.persist(user);
+
+        agent = new Agent();
+        agent.setName("container-catalog-agent");
+        agent.setApiUrl("http://localhost/container-catalog-agent");
+        agent.setApiKey("container-catalog-api-key");
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(now);
+        agent.setCreatedByUser(user);
+        em.persist(agent);
+
+        container = new Container();
+        container.setName("container-catalog-container");
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.TEN);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{}");
+        container.setCreatedAt(now);
+        container.setCreatedByUser(user);
+        em.persist(container);
+        em.flush();
+    }
+
+    @Test
+    void followsLinksKeepAlivesAndAgentStatus() throws Exception {
+        Instant keepAliveAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        agentContainerService.create(agentService, user.getId(), agent.getId(), container.getId(), keepAliveAt);
+        assertThat(catalog()).satisfies(row -> {
+            assertThat(row.getName()).isEqualTo("container-catalog-container");
+            assertThat(row.getActiveAgentCount()).isEqualTo(1);
+            assertThat(row.getOnlineAgentCount()).isEqualTo(1);
+            assertThat(row.getLastKeepAliveAt()).isNull();
+        });
+
+        agentStatusRepository.upsertLastKeepAliveAt(Map.of(agent.getId(), keepAliveAt));
+        assertThat(catalog().getLastKeepAliveAt()).isEqualTo(keepAliveAt);
+
+        agentRepository.updateStatusCode(Set.of(agent.getId()), StatusCode.ACTIVE, StatusCode.INACTIVE, keepAliveAt);
+        assertThat(catalog()).satisfies(row -> {
+            assertThat(row.getActiveAgentCount()).isEqualTo(1);
+            assertThat(row.getOnlineAgentCount()).isZero();
+            assertThat(row.getLastKeepAliveAt()).isNull();
+        });
+
+        agentContainerService.delete(agentService, user.getId(), agent.getId(), container.getId());
+        assertThat(catalog().getActiveAgentCount()).isZero();
+    }
+
+    @Test
+    void listsOneRowPerContainerWithTheHeartbeatAge() throws Exception {
+        Instant keepAliveAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        agentContainerService.create(agentService, user.getId(), agent.getId(), container.getId(), keepAliveAt);
+        agentStatusRepository.upsertLastKeepAliveAt(Map.of(agent.getId(), keepAliveAt));
+
+        assertThat(containerService.catalog(StatusCode.ACTIVE, 1, Pageable.ofSize(10), keepAliveAt.plus(Duration.ofSeconds(30))))
+            .filteredOn(row -> container.getId().equals(row.getContainerId()))
+            .singleElement()
+            .extracting(ContainerCatalogDTO::getHeartbeatAgeSeconds)
+            .isEqualTo(30L);
+    }
+
+    private ContainerCatalog catalog() {
+        // the rows are written by native statements, never through the persistence context
+        em.clear();
+        return containerCatalogRepository.findById(container.getId()).orElseThrow();
+    }
+}
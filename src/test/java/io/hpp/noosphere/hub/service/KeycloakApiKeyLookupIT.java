@@ -0,0 +1,120 @@
+package io.hpp.noosphere.hub.service;
+
+import static io.hpp.noosphere.hub.config.Constants.ATTRIBUTE_API_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.repository.UserRepository;
+import io.hpp.noosphere.hub.security.ApiKeyAuthenticationCache;
+import io.hpp.noosphere.hub.service.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Resolves the same unknown API key from many threads at once: Keycloak is queried once and the user created once, also by
+ * the threads which arrive right after the first lookup finished.
+ */
+@IntegrationTest
+class KeycloakApiKeyLookupIT {
+
+    private static final String API_KEY = "keycloak-api-key-lookup-key";
+    private static final String USER_ID = "keycloak-api-key-lookup-user";
+    private static final int THREADS = 8;
+
+    @MockitoBean(answers = Answers.RETURNS_DEEP_STUBS)
+    private Keycloak keycloakAdminClient;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApiKeyAuthenticationCache apiKeyAuthenticationCache;
+
+    private UsersResource usersResource;
+
+    @BeforeEach
+    void setUp() {
+        usersResource = keycloakAdminClient.realm(applicationProperties.getKeycloak().getRealmId()).users();
+        when(usersResource.searchByAttributes(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            // keeps the lookup in flight while the other threads arrive
+            Thread.sleep(200);
+            return List.of(keycloakUser());
+        });
+        when(usersResource.get(USER_ID).groups()).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        apiKeyAuthenticationCache.evict(API_KEY);
+        apiKeyAuthenticationCache.evictUser(USER_ID);
+        userRepository.deleteById(USER_ID);
+    }
+
+    @Test
+    void createsTheUserOfAnUnknownKeyOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserDTO>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                // half of the threads arrive while the lookup is in flight, the others after it finished
+                long delay = i % 2 == 0 ? 0 : 400;
+                results.add(
+                    executor.submit(() -> {
+                        start.await();
+                        Thread.sleep(delay);
+                        return userService.findByApiKey(API_KEY, true);
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<UserDTO> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).extracting(UserDTO::getId).isEqualTo(USER_ID);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(usersResource).searchByAttributes(ATTRIBUTE_API_KEY + ":" + API_KEY, true);
+        assertThat(userRepository.findById(USER_ID)).isPresent();
+        assertThat(userRepository.findOneByApiKey(API_KEY, true)).isPresent();
+    }
+
+    private static UserRepresentation keycloakUser() {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(USER_ID);
+        user.setUsername(USER_ID);
+        user.setEmail(USER_ID + "@localhost");
+        user.setFirstName("Keycloak");
+        user.setLastName("Lookup");
+        user.setEnabled(true);
+        user.setAttributes(Map.of(ATTRIBUTE_API_KEY, List.of(API_KEY)));
+        return user;
+    }
+}
@@ -0,0 +1,138 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.repository.SearchResultCache;
+import io.hpp.noosphere.hub.service.dto.ContainerDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repeats a container search with the search result cache enabled: the repeated search only loads the containers by id,
+ * a create of a container makes the next search query again.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.search-result-cache.enabled=true")
+@Transactional
+class SearchResultCacheIT {
+
+    private static final int SIZE = 3;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ContainerService containerService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Instant now = Instant.now();
+        user = new User();
+        user.setId("search-result-cache-user");
+        user.setLogin("search-result-cache-user");
+        user.setEmail("search-result-cache-user@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        for (int i = 0; i < SIZE; i++) {
+            em.persist(container("search-result-cache-container-" + i, now));
+        }
+        em.flush();
+        em.clear();
+        // the cache outlives the rolled back transactions of the previous tests
+        searchResultCache.invalidate(Container.class);
+
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void repeatedSearchOnlyLoadsTheContainers() {
+        Slice<ContainerDTO> first = search();
+        em.clear();
+        statistics.clear();
+
+        Slice<ContainerDTO> second = search();
+
+        assertThat(second.getContent()).extracting(ContainerDTO::getId).containsExactlyElementsOf(
+            first.getContent().stream().map(ContainerDTO::getId).toList()
+        );
+        assertThat(((Page<ContainerDTO>) second).getTotalElements()).isEqualTo(SIZE);
+        // no select of the ids nor count, one multi-get of the containers (the second level cache is disabled in tests)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createInvalidatesTheSearches() {
+        search();
+
+        ContainerDTO containerDTO = new ContainerDTO();
+        containerDTO.setName("search-result-cache-container-new");
+        containerDTO.setWalletAddress("0x0");
+        containerDTO.setPrice(BigDecimal.ONE);
+        containerDTO.setParameters("{}");
+        containerService.create(user.getId(), containerDTO, Instant.now());
+        em.flush();
+        em.clear();
+
+        Slice<ContainerDTO> result = search();
+
+        assertThat(result.getContent()).extracting(ContainerDTO::getName).contains("search-result-cache-container-new");
+        assertThat(((Page<ContainerDTO>) result).getTotalElements()).isEqualTo(SIZE + 1);
+    }
+
+    private Slice<ContainerDTO> search() {
+        return containerService.search(
+            "search-result-cache-container",
+            StatusCode.ACTIVE,
+            null,
+            null,
+            null,
+            null,
+            JsonViewType.Update.class,
+            CountStrategy.EXACT,
+            PageRequest.of(0, 10)
+        );
+    }
+
+    private static Container container(String name, Instant now) {
+        Container container = new Container();
+        container.setName(name);
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.ONE);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{}");
+        container.setCreatedAt(now);
+        return container;
+    }
+}
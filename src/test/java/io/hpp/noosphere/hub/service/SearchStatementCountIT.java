@@ -0,0 +1,209 @@
+package io.hpp.noosphere.hub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentContainer;
+import io.hpp.noosphere.hub.domain.AgentStatus;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.service.dto.AgentContainerDTO;
+import io.hpp.noosphere.hub.service.dto.AgentDTO;
+import io.hpp.noosphere.hub.service.dto.AgentStatusDTO;
+import io.hpp.noosphere.hub.service.dto.ContainerDTO;
+import io.hpp.noosphere.hub.service.dto.JsonViewType;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the SQL statements of the searches: a page must cost the same few statements whatever its size, the projected
+ * searches must not hydrate entities nor load lobs.
+ */
+@IntegrationTest
+@Transactional
+class SearchStatementCountIT {
+
+    private static final int SIZE = 10;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private AgentService agentService;
+
+    @Autowired
+    private ContainerService containerService;
+
+    @Autowired
+    private AgentContainerService agentContainerService;
+
+    @Autowired
+    private AgentStatusService agentStatusService;
+
+    private Statistics statistics;
+
+    private Agent agent;
+
+    @BeforeEach
+    void setUp() {
+        Instant now = Instant.now();
+        for (int i = 0; i < SIZE; i++) {
+            Agent a = new Agent();
+            a.setName("statement-count-agent-" + i);
+            a.setApiUrl("http://localhost/agent-" + i);
+            a.setApiKey("api-key-" + i);
+            a.setStatusCode(StatusCode.ACTIVE);
+            a.setDescription("a large description");
+            a.setCreatedAt(now);
+            em.persist(a);
+
+            Container container = new Container();
+            container.setName("statement-count-container-" + i);
+            container.setWalletAddress("0x" + i);
+            container.setPrice(BigDecimal.ONE);
+            container.setStatusCode(StatusCode.ACTIVE);
+            container.setDescription("a large description");
+            container.setParameters("{\"large\":\"parameters\"}");
+            container.setCreatedAt(now);
+            em.persist(container);
+
+            AgentStatus agentStatus = new AgentStatus();
+            agentStatus.setAgent(a);
+            agentStatus.setCreatedAt(now);
+            agentStatus.setLastKeepAliveAt(now);
+            em.persist(agentStatus);
+
+            if (agent == null) {
+                agent = a;
+            }
+            AgentContainer agentContainer = new AgentContainer();
+            agentContainer.setAgent(a);
+            agentContainer.setContainer(container);
+            agentContainer.setStatusCode(StatusCode.ACTIVE);
+            agentContainer.setCreatedAt(now);
+            em.persist(agentContainer);
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void searchAgentsSelectsShallowColumnsAndCounts() {
+        Slice<AgentDTO> result = agentService.search(
+            "statement-count-agent",
+            StatusCode.ACTIVE,
+            null,
+            JsonViewType.Shallow.class,
+            CountStrategy.EXACT,
+            PageRequest.of(0, 2)
+        );
+
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getContent()).allSatisfy(dto -> {
+            assertThat(dto.getId()).isNotNull();
+            assertThat(dto.getName()).startsWith("statement-count-agent-");
+            assertThat(dto.getApiKey()).isNull();
+            assertThat(dto.getDescription()).isNull();
+        });
+        // one select of the page and one count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void searchContainersLeavesLobsForTheDetailGet() {
+        Slice<ContainerDTO> result = containerService.search(
+            "statement-count-container",
+            StatusCode.ACTIVE,
+            null,
+            null,
+            null,
+            null,
+            JsonViewType.Update.class,
+            CountStrategy.NONE,
+            PageRequest.of(0, SIZE)
+        );
+
+        assertThat(result.getContent()).hasSize(SIZE);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.getContent()).allSatisfy(dto -> {
+            assertThat(dto.getWalletAddress()).isNotNull();
+            assertThat(dto.getPrice()).isNotNull();
+            assertThat(dto.getDescription()).isNull();
+            assertThat(dto.getParameters()).isNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void searchAgentContainersReadsIdsFromForeignKeys() {
+        Slice<AgentContainerDTO> result = agentContainerService.search(
+            agent.getId(),
+            null,
+            StatusCode.ACTIVE,
+            JsonViewType.Shallow.class,
+            CountStrategy.EXACT,
+            PageRequest.of(0, SIZE)
+        );
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent()).allSatisfy(dto -> {
+            assertThat(dto.getAgent().getId()).isEqualTo(agent.getId());
+            assertThat(dto.getContainer().getId()).isNotNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void searchAgentContainerEntitiesFetchesTheJoinedContainer() {
+        Slice<AgentContainerDTO> result = agentContainerService.search(
+            null,
+            "statement-count-container",
+            StatusCode.ACTIVE,
+            JsonViewType.Full.class,
+            CountStrategy.EXACT,
+            PageRequest.of(0, SIZE)
+        );
+
+        assertThat(result.getContent()).hasSize(SIZE);
+        assertThat(result.getContent()).allSatisfy(dto -> {
+            assertThat(dto.getAgent().getId()).isNotNull();
+            assertThat(dto.getContainer().getId()).isNotNull();
+        });
+        // one select of the page with its containers and one count, no select per row
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void searchAgentStatusesFetchesTheJoinedAgent() {
+        Page<AgentStatusDTO> result = agentStatusService.search("statement-count-agent", StatusCode.ACTIVE, PageRequest.of(0, SIZE));
+
+        assertThat(result.getTotalElements()).isEqualTo(SIZE);
+        assertThat(result.getContent()).allSatisfy(dto -> assertThat(dto.getAgent().getId()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,163 @@
+package io.hpp.noosphere.hub.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.service.dto.KeepAliveResultDTO;
+import io.hpp.noosphere.hub.web.rest.vm.KeepAliveVm;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests of the batch keep-alive endpoint of the {@link AgentStatusResource}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(username = AgentStatusResourceIT.USER_ID)
+@Transactional
+class AgentStatusResourceIT {
+
+    static final String USER_ID = "agent-status-keep-alive-user";
+    private static final String OTHER_USER_ID = "agent-status-keep-alive-other-user";
+    private static final Instant EARLIER = Instant.parse("2020-01-01T00:00:00Z");
+    private static final Instant LATER = Instant.parse("2020-01-01T00:01:00Z");
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private MockMvc restAgentStatusMockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private Agent agent;
+    private Agent otherAgent;
+
+    @BeforeEach
+    void setUp() {
+        agent = agent("agent-status-keep-alive-agent", user(USER_ID));
+        otherAgent = agent("agent-status-keep-alive-other-agent", user(OTHER_USER_ID));
+        em.flush();
+    }
+
+    @Test
+    void refusesAnEmptyBatch() throws Exception {
+        keepAlives(List.of()).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void refusesABatchLargerThanTheMaximum() throws Exception {
+        List<KeepAliveVm> keepAliveVms = new ArrayList<>();
+        for (int i = 0; i <= applicationProperties.getHeartbeat().getMaxBatchSize(); i++) {
+            keepAliveVms.add(keepAliveVm(UUID.randomUUID(), null));
+        }
+
+        keepAlives(keepAliveVms).andExpect(status().isBadRequest());
+        assertThat(lastKeepAliveAt(agent)).isNull();
+    }
+
+    @Test
+    void refusesAnEntryWithoutAgentId() throws Exception {
+        keepAlives(List.of(keepAliveVm(agent.getId(), EARLIER), keepAliveVm(null, EARLIER))).andExpect(status().isBadRequest());
+        assertThat(lastKeepAliveAt(agent)).isNull();
+    }
+
+    @Test
+    void keepsTheLatestTimestampOfAnAgentListedTwice() throws Exception {
+        keepAlives(List.of(keepAliveVm(agent.getId(), LATER), keepAliveVm(agent.getId(), EARLIER)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].agentId").value(agent.getId().toString()))
+            .andExpect(jsonPath("$[0].result").value(KeepAliveResultDTO.Result.OK.name()))
+            .andExpect(jsonPath("$[0].lastKeepAliveAt").value(LATER.toString()));
+
+        assertThat(lastKeepAliveAt(agent)).isEqualTo(LATER);
+    }
+
+    @Test
+    void skipsTheAgentsTheUserDoesNotOwn() throws Exception {
+        UUID unknownId = UUID.randomUUID();
+
+        keepAlives(List.of(keepAliveVm(agent.getId(), EARLIER), keepAliveVm(otherAgent.getId(), EARLIER), keepAliveVm(unknownId, EARLIER)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[0].result").value(KeepAliveResultDTO.Result.OK.name()))
+            .andExpect(jsonPath("$[1].agentId").value(otherAgent.getId().toString()))
+            .andExpect(jsonPath("$[1].result").value(KeepAliveResultDTO.Result.PERMISSION_DENIED.name()))
+            .andExpect(jsonPath("$[2].agentId").value(unknownId.toString()))
+            .andExpect(jsonPath("$[2].result").value(KeepAliveResultDTO.Result.NOT_FOUND.name()));
+
+        assertThat(lastKeepAliveAt(agent)).isEqualTo(EARLIER);
+        assertThat(lastKeepAliveAt(otherAgent)).isNull();
+    }
+
+    private ResultActions keepAlives(List<KeepAliveVm> keepAliveVms) throws Exception {
+        return restAgentStatusMockMvc.perform(
+            put("/api/agents/keep-alive").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(keepAliveVms))
+        );
+    }
+
+    private Instant lastKeepAliveAt(Agent agent) {
+        return em
+            .createQuery("select s.lastKeepAliveAt from AgentStatus s where s.agent.id = :id", Instant.class)
+            .setParameter("id", agent.getId())
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+    }
+
+    private static KeepAliveVm keepAliveVm(UUID agentId, Instant timestamp) {
+        KeepAliveVm keepAliveVm = new KeepAliveVm();
+        keepAliveVm.setAgentId(agentId);
+        keepAliveVm.setTimestamp(timestamp);
+        return keepAliveVm;
+    }
+
+    private User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(id);
+        user.setEmail(id + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        return user;
+    }
+
+    private Agent agent(String name, User owner) {
+        Agent agent = new Agent();
+        agent.setName(name);
+        agent.setApiUrl("http://localhost/" + name);
+        agent.setApiKey(name);
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(Instant.now());
+        agent.setCreatedByUser(owner);
+        em.persist(agent);
+        return agent;
+    }
+}
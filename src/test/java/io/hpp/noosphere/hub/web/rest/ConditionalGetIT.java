@@ -0,0 +1,159 @@
+package io.hpp.noosphere.hub.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentContainer;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.web.rest.vm.BulkAgentContainerVm;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests of the conditional GETs of agents, containers and agent containers: the entity tag of a response
+ * changes with any entity it is serialized from.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(username = ConditionalGetIT.USER_ID)
+@Transactional
+class ConditionalGetIT {
+
+    static final String USER_ID = "conditional-get-user";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    private Agent agent;
+    private Container container;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setLogin(USER_ID);
+        user.setEmail(USER_ID + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        agent = new Agent();
+        agent.setName("conditional-get-agent");
+        agent.setApiUrl("http://localhost/conditional-get-agent");
+        agent.setApiKey("conditional-get-agent");
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(Instant.now());
+        agent.setCreatedByUser(user);
+        em.persist(agent);
+        container = new Container();
+        container.setName("conditional-get-container");
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.TEN);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{}");
+        container.setCreatedAt(Instant.now());
+        container.setCreatedByUser(user);
+        em.persist(container);
+        AgentContainer agentContainer = new AgentContainer();
+        agentContainer.setAgent(agent);
+        agentContainer.setContainer(container);
+        agentContainer.setStatusCode(StatusCode.ACTIVE);
+        agentContainer.setCreatedAt(Instant.now());
+        em.persist(agentContainer);
+        em.flush();
+    }
+
+    @Test
+    void answersAnUnchangedAgentContainerWithNotModified() throws Exception {
+        String uri = "/api/agents/" + agent.getId() + "/containers/" + container.getId();
+        String eTag = restMockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        restMockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+    }
+
+    @Test
+    void answersAChangedAgentContainerWithItsNewState() throws Exception {
+        String uri = "/api/agents/" + agent.getId() + "/containers/" + container.getId();
+        String eTag = restMockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        BulkAgentContainerVm bulkAgentContainerVm = new BulkAgentContainerVm();
+        bulkAgentContainerVm.setAgentIds(List.of(agent.getId()));
+        bulkAgentContainerVm.setContainerIds(List.of(container.getId()));
+        bulkAgentContainerVm.setStatusCode(StatusCode.INACTIVE);
+        restMockMvc
+            .perform(
+                post("/api/agents/containers/bulk/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(bulkAgentContainerVm))
+            )
+            .andExpect(status().isOk());
+        em.clear();
+
+        String changedETag = restMockMvc
+            .perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(changedETag).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void servesAgentsAndContainersWithoutAssociations() throws Exception {
+        // their entity tags only cover their own row, so their conditional views must not serialize any association
+        assertThat(fieldNames("/api/agents/" + agent.getId())).containsExactlyInAnyOrder(
+            "id",
+            "name",
+            "apiUrl",
+            "apiKey",
+            "description"
+        );
+        assertThat(fieldNames("/api/containers/" + container.getId())).containsExactlyInAnyOrder(
+            "id",
+            "name",
+            "walletAddress",
+            "price",
+            "description",
+            "parameters"
+        );
+    }
+
+    private List<String> fieldNames(String uri) throws Exception {
+        byte[] body = restMockMvc
+            .perform(get(uri))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        List<String> fieldNames = new ArrayList<>();
+        om.readTree(body).fieldNames().forEachRemaining(fieldNames::add);
+        return fieldNames;
+    }
+}
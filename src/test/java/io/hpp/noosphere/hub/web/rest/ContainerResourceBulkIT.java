@@ -0,0 +1,286 @@
+package io.hpp.noosphere.hub.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.domain.Agent;
+import io.hpp.noosphere.hub.domain.AgentContainer;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.AgentContainerRepository;
+import io.hpp.noosphere.hub.repository.ContainerRepository;
+import io.hpp.noosphere.hub.web.rest.vm.BulkContainerVm;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests of the bulk endpoints of the {@link ContainerResource}, and of the batches of the bulk writes.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(username = ContainerResourceBulkIT.USER_ID)
+@Transactional
+class ContainerResourceBulkIT {
+
+    static final String USER_ID = "container-bulk-user";
+    private static final String OTHER_USER_ID = "container-bulk-other-user";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private MockMvc restContainerMockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ContainerRepository containerRepository;
+
+    @Autowired
+    private AgentContainerRepository agentContainerRepository;
+
+    private User user;
+    private User otherUser;
+    private Agent agent;
+    private Agent otherAgent;
+
+    @BeforeEach
+    void setUp() {
+        user = user(USER_ID);
+        otherUser = user(OTHER_USER_ID);
+        agent = agent("container-bulk-agent", user);
+        otherAgent = agent("container-bulk-other-agent", otherUser);
+        em.flush();
+    }
+
+    @Test
+    void deletesTheContainerOfTheUserWithItsLinks() throws Exception {
+        // a user owns a single container
+        Container linked = container("container-bulk-linked", user);
+        AgentContainer link = link(agent, linked);
+        em.flush();
+
+        restContainerMockMvc
+            .perform(post("/api/containers/bulk/delete").contentType(MediaType.APPLICATION_JSON).content(bulk(linked)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(1))
+            .andExpect(jsonPath("$.failedIds").value(empty()));
+
+        em.clear();
+        assertThat(em.find(Container.class, linked.getId())).isNull();
+        assertThat(em.find(AgentContainer.class, link.getId())).isNull();
+    }
+
+    @Test
+    void refusesTheContainersLinkedToAgentsOfOtherUsers() throws Exception {
+        Container shared = container("container-bulk-shared", user);
+        AgentContainer ownLink = link(agent, shared);
+        AgentContainer otherLink = link(otherAgent, shared);
+        em.flush();
+
+        restContainerMockMvc
+            .perform(post("/api/containers/bulk/delete").contentType(MediaType.APPLICATION_JSON).content(bulk(shared)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(0))
+            .andExpect(jsonPath("$.failedIds").value(contains(shared.getId().toString())));
+
+        em.clear();
+        // neither the container nor any of its links are touched
+        assertThat(em.find(Container.class, shared.getId())).isNotNull();
+        assertThat(em.find(AgentContainer.class, ownLink.getId())).isNotNull();
+        assertThat(em.find(AgentContainer.class, otherLink.getId())).isNotNull();
+    }
+
+    @Test
+    void refusesTheContainersOfOtherUsers() throws Exception {
+        Container foreign = container("container-bulk-foreign", otherUser);
+        em.flush();
+
+        restContainerMockMvc
+            .perform(post("/api/containers/bulk/delete").contentType(MediaType.APPLICATION_JSON).content(bulk(foreign)))
+            .andExpect(status().is4xxClientError());
+        restContainerMockMvc
+            .perform(
+                post("/api/containers/bulk/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(bulkVm(StatusCode.INACTIVE, foreign)))
+            )
+            .andExpect(status().is4xxClientError());
+
+        em.clear();
+        assertThat(em.find(Container.class, foreign.getId()).getStatusCode()).isEqualTo(StatusCode.ACTIVE);
+    }
+
+    @Test
+    void writesOnlyTheContainerOfTheUser() {
+        Container own = container("container-bulk-batch-own", user);
+        Container foreign = container("container-bulk-batch-foreign", otherUser);
+        em.flush();
+        List<UUID> ids = List.of(own.getId(), foreign.getId());
+
+        long updated = containerRepository.bulkUpdateStatusCode(
+            ids,
+            null,
+            StatusCode.ACTIVE,
+            USER_ID,
+            StatusCode.INACTIVE,
+            Instant.now(),
+            1
+        );
+        assertThat(updated).isEqualTo(1);
+
+        ContainerRepository.BulkDeleteResult result = containerRepository.bulkDelete(ids, null, null, USER_ID, 1);
+        assertThat(result.deleted()).isEqualTo(1);
+        assertThat(result.refusedIds()).isEmpty();
+        em.clear();
+        assertThat(em.find(Container.class, own.getId())).isNull();
+        assertThat(em.find(Container.class, foreign.getId()).getStatusCode()).isEqualTo(StatusCode.ACTIVE);
+    }
+
+    @Test
+    void writesTheContainerOfTheUserMatchingTheName() {
+        // the integration tests filter names with like, which sees the rows of the test transaction; the full-text
+        // backend is covered by FulltextNameSearchIT
+        Container own = container("container-bulk-batch-own", user);
+        Container foreign = container("container-bulk-batch-foreign", otherUser);
+        em.flush();
+
+        long unmatched = containerRepository.bulkUpdateStatusCode(
+            null,
+            "no-such-name",
+            StatusCode.ACTIVE,
+            USER_ID,
+            StatusCode.INACTIVE,
+            Instant.now(),
+            1
+        );
+        assertThat(unmatched).isZero();
+        long updated = containerRepository.bulkUpdateStatusCode(
+            null,
+            "container-bulk-batch",
+            StatusCode.ACTIVE,
+            USER_ID,
+            StatusCode.INACTIVE,
+            Instant.now(),
+            1
+        );
+        assertThat(updated).isEqualTo(1);
+
+        ContainerRepository.BulkDeleteResult result = containerRepository.bulkDelete(null, "container-bulk-batch", null, USER_ID, 1);
+        assertThat(result.deleted()).isEqualTo(1);
+        em.clear();
+        assertThat(em.find(Container.class, own.getId())).isNull();
+        assertThat(em.find(Container.class, foreign.getId()).getStatusCode()).isEqualTo(StatusCode.ACTIVE);
+    }
+
+    @Test
+    void writesEveryBatchOfTheSelection() {
+        // the links of the agent of the user are the only selection of a user spanning several rows: each of their
+        // containers has an owner of its own
+        List<UUID> containerIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String name = "container-bulk-batch-" + i;
+            containerIds.add(link(agent, container(name, user(name))).getContainer().getId());
+        }
+        link(otherAgent, container("container-bulk-batch-other-agent", user("container-bulk-batch-other-agent")));
+        em.flush();
+
+        long updated = agentContainerRepository.bulkUpdateStatusCode(
+            null,
+            null,
+            StatusCode.ACTIVE,
+            USER_ID,
+            StatusCode.INACTIVE,
+            Instant.now(),
+            2
+        );
+        assertThat(updated).isEqualTo(5);
+
+        assertThat(agentContainerRepository.bulkDelete(null, null, StatusCode.INACTIVE, USER_ID, 2)).isEqualTo(5);
+        em.clear();
+        assertThat(agentContainerRepository.findAll())
+            .extracting(agentContainer -> agentContainer.getContainer().getId())
+            .doesNotContainAnyElementsOf(containerIds);
+    }
+
+    private byte[] bulk(Container... containers) throws Exception {
+        return om.writeValueAsBytes(bulkVm(null, containers));
+    }
+
+    private static BulkContainerVm bulkVm(StatusCode statusCode, Container... containers) {
+        BulkContainerVm bulkContainerVm = new BulkContainerVm();
+        List<UUID> ids = new ArrayList<>();
+        for (Container container : containers) {
+            ids.add(container.getId());
+        }
+        bulkContainerVm.setIds(ids);
+        bulkContainerVm.setStatusCode(statusCode);
+        return bulkContainerVm;
+    }
+
+    private User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(id);
+        user.setEmail(id + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        return user;
+    }
+
+    private Agent agent(String name, User owner) {
+        Agent agent = new Agent();
+        agent.setName(name);
+        agent.setApiUrl("http://localhost/" + name);
+        agent.setApiKey(name);
+        agent.setStatusCode(StatusCode.ACTIVE);
+        agent.setCreatedAt(Instant.now());
+        agent.setCreatedByUser(owner);
+        em.persist(agent);
+        return agent;
+    }
+
+    private Container container(String name, User owner) {
+        Container container = new Container();
+        container.setName(name);
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.TEN);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{}");
+        container.setCreatedAt(Instant.now());
+        container.setCreatedByUser(owner);
+        em.persist(container);
+        return container;
+    }
+
+    private AgentContainer link(Agent agent, Container container) {
+        AgentContainer agentContainer = new AgentContainer();
+        agentContainer.setAgent(agent);
+        agentContainer.setContainer(container);
+        agentContainer.setStatusCode(StatusCode.ACTIVE);
+        agentContainer.setCreatedAt(Instant.now());
+        em.persist(agentContainer);
+        return agentContainer;
+    }
+}
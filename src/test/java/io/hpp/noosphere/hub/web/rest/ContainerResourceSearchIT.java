@@ -0,0 +1,239 @@
+package io.hpp.noosphere.hub.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hpp.noosphere.hub.IntegrationTest;
+import io.hpp.noosphere.hub.config.ApplicationProperties;
+import io.hpp.noosphere.hub.domain.Container;
+import io.hpp.noosphere.hub.domain.User;
+import io.hpp.noosphere.hub.domain.enumeration.StatusCode;
+import io.hpp.noosphere.hub.repository.ContainerParameter;
+import io.hpp.noosphere.hub.repository.CountStrategy;
+import io.hpp.noosphere.hub.web.rest.util.KeysetPaginationUtil;
+import io.hpp.noosphere.hub.web.rest.util.SlicePaginationUtil;
+import io.hpp.noosphere.hub.web.rest.vm.SearchContainerVm;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Integration tests of the pagination of {@code POST /api/containers/search}: keyset cursors, and the headers of each
+ * {@link CountStrategy}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@Transactional
+class ContainerResourceSearchIT {
+
+    private static final Instant UPDATED_AT = Instant.parse("2020-01-01T00:00:00Z");
+    private static final Instant LATER_UPDATED_AT = Instant.parse("2020-01-02T00:00:00Z");
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private MockMvc restContainerMockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private CountStrategy containerSearch;
+    private String model;
+    private List<Container> containers;
+
+    @BeforeEach
+    void setUp() {
+        containerSearch = applicationProperties.getPagination().getContainerSearch();
+        // a model of its own per test, so that no count cached by another test matches the search. Unlike the name, the
+        // model is matched the same way by every name-search backend
+        model = "container-search-" + UUID.randomUUID();
+        // duplicate and null sort values, which only the id tiebreaker orders
+        containers = new ArrayList<>();
+        for (Instant updatedAt : Arrays.asList(null, null, UPDATED_AT, UPDATED_AT, LATER_UPDATED_AT)) {
+            containers.add(container(updatedAt));
+        }
+        em.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        applicationProperties.getPagination().setContainerSearch(containerSearch);
+    }
+
+    @Test
+    void scrollsAscendingPastDuplicateAndNullSortValues() throws Exception {
+        List<UUID> expected = new ArrayList<>();
+        expected.addAll(ties(containers.get(0), containers.get(1)));
+        expected.addAll(ties(containers.get(2), containers.get(3)));
+        expected.add(containers.get(4).getId());
+
+        assertThat(scroll("updatedAt,asc")).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void scrollsDescendingPastDuplicateAndNullSortValues() throws Exception {
+        // nulls sort last in descending order, the id tiebreaker stays ascending
+        List<UUID> expected = new ArrayList<>();
+        expected.add(containers.get(4).getId());
+        expected.addAll(ties(containers.get(2), containers.get(3)));
+        expected.addAll(ties(containers.get(0), containers.get(1)));
+
+        assertThat(scroll("updatedAt,desc")).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void rejectsATamperedCursor() throws Exception {
+        UUID id = containers.get(0).getId();
+        List<String> cursors = List.of(
+            "not a cursor",
+            cursor(UPDATED_AT.toString()),
+            cursor(UPDATED_AT.toString(), id.toString(), "extra"),
+            cursor("yesterday", id.toString()),
+            cursor(UPDATED_AT.toString(), "not-a-uuid")
+        );
+        for (String cursor : cursors) {
+            search("updatedAt,asc", cursor, null).andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void tellsWhetherAnUncountedSliceHasANextPage() throws Exception {
+        applicationProperties.getPagination().setContainerSearch(CountStrategy.NONE);
+
+        search("updatedAt,asc", null, 0)
+            .andExpect(status().isOk())
+            .andExpect(header().string(SlicePaginationUtil.HEADER_X_HAS_NEXT_PAGE, "true"))
+            .andExpect(header().doesNotExist(PaginationUtil.HEADER_X_TOTAL_COUNT))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+        search("updatedAt,asc", null, 2)
+            .andExpect(status().isOk())
+            .andExpect(header().string(SlicePaginationUtil.HEADER_X_HAS_NEXT_PAGE, "false"))
+            .andExpect(header().doesNotExist(PaginationUtil.HEADER_X_TOTAL_COUNT));
+    }
+
+    @Test
+    void countsEveryPageWithTheExactStrategy() throws Exception {
+        applicationProperties.getPagination().setContainerSearch(CountStrategy.EXACT);
+
+        search("updatedAt,asc", null, 0)
+            .andExpect(header().string(PaginationUtil.HEADER_X_TOTAL_COUNT, "5"))
+            .andExpect(header().doesNotExist(SlicePaginationUtil.HEADER_X_HAS_NEXT_PAGE));
+        container(null);
+        em.flush();
+        search("updatedAt,asc", null, 0).andExpect(header().string(PaginationUtil.HEADER_X_TOTAL_COUNT, "6"));
+    }
+
+    @Test
+    void reusesTheCountWithTheCachedStrategy() throws Exception {
+        applicationProperties.getPagination().setContainerSearch(CountStrategy.CACHED);
+
+        search("updatedAt,asc", null, 0)
+            .andExpect(header().string(PaginationUtil.HEADER_X_TOTAL_COUNT, "5"))
+            .andExpect(header().doesNotExist(SlicePaginationUtil.HEADER_X_HAS_NEXT_PAGE));
+        // written behind the back of the services, which would clear the cached count
+        container(null);
+        em.flush();
+        search("updatedAt,asc", null, 0).andExpect(header().string(PaginationUtil.HEADER_X_TOTAL_COUNT, "5"));
+    }
+
+    /**
+     * Follow the {@code X-Next-Cursor} headers from the first slice to the last one.
+     */
+    private List<UUID> scroll(String sort) throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        String cursor = "";
+        for (int slices = 0; cursor != null; slices++) {
+            assertThat(slices).isLessThan(containers.size());
+            MockHttpServletResponse response = search(sort, cursor, null).andExpect(status().isOk()).andReturn().getResponse();
+            JsonNode body = om.readTree(response.getContentAsByteArray());
+            assertThat(body.size()).isLessThanOrEqualTo(2);
+            body.forEach(container -> ids.add(UUID.fromString(container.get("id").asText())));
+            cursor = response.getHeader(KeysetPaginationUtil.HEADER_X_NEXT_CURSOR);
+            assertThat(response.getHeader(HttpHeaders.LINK) != null).isEqualTo(cursor != null);
+        }
+        return ids;
+    }
+
+    private ResultActions search(String sort, String cursor, Integer page) throws Exception {
+        SearchContainerVm searchVm = new SearchContainerVm();
+        searchVm.setParameters(Map.of(ContainerParameter.MODEL.getKey(), model));
+        MockHttpServletRequestBuilder request = post("/api/containers/search")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(om.writeValueAsBytes(searchVm))
+            .param("sort", sort)
+            .param("size", "2");
+        if (cursor != null) {
+            request.param(KeysetPaginationUtil.CURSOR_PARAMETER, cursor);
+        }
+        if (page != null) {
+            request.param("page", page.toString());
+        }
+        return restContainerMockMvc.perform(request);
+    }
+
+    private String cursor(String... values) throws Exception {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(om.writeValueAsBytes(values));
+    }
+
+    /**
+     * Order the ids of two containers sharing a sort value as the database does, by their bytes.
+     */
+    private static List<UUID> ties(Container first, Container second) {
+        return Stream.of(first.getId(), second.getId()).sorted(Comparator.comparing(UUID::toString)).toList();
+    }
+
+    private Container container(Instant updatedAt) {
+        // a user owns a single container
+        String userId = UUID.randomUUID().toString();
+        User user = new User();
+        user.setId(userId);
+        user.setLogin(userId);
+        user.setEmail(userId + "@localhost");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        em.persist(user);
+        Container container = new Container();
+        container.setName("container-search");
+        container.setWalletAddress("0x0");
+        container.setPrice(BigDecimal.TEN);
+        container.setStatusCode(StatusCode.ACTIVE);
+        container.setParameters("{\"" + ContainerParameter.MODEL.getKey() + "\":\"" + model + "\"}");
+        container.setCreatedAt(UPDATED_AT.minusSeconds(3600));
+        container.setUpdatedAt(updatedAt);
+        container.setCreatedByUser(user);
+        em.persist(container);
+        return container;
+    }
+}
@@ -0,0 +1,51 @@
+package io.hpp.noosphere.hub.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class ETagUtilTest {
+
+    private static final Instant VERSION = Instant.parse("2026-06-01T12:30:00.123456Z");
+
+    @Test
+    void generatesTheSameETagFromMemoryAndFromTheDatabase() {
+        // an entity read from memory may carry nanoseconds, the database keeps microseconds
+        assertThat(ETagUtil.generateETag(VERSION.plusNanos(789))).isEqualTo(ETagUtil.generateETag(VERSION)).matches("\"[0-9a-f]+\"");
+        assertThat(ETagUtil.generateETag(List.of(VERSION, VERSION.plusSeconds(1)))).isNotEqualTo(
+            ETagUtil.generateETag(List.of(VERSION.plusSeconds(1), VERSION))
+        );
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() {
+        String eTag = ETagUtil.generateETag(VERSION);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/containers/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(ETagUtil.checkNotModified(new ServletWebRequest(request, response), eTag)).isTrue();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache, private");
+    }
+
+    @Test
+    void letsAChangedResourceThrough() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/containers/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETagUtil.generateETag(VERSION));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String eTag = ETagUtil.generateETag(VERSION.plusMillis(1));
+
+        assertThat(ETagUtil.checkNotModified(new ServletWebRequest(request, response), eTag)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+    }
+}